@@ -0,0 +1,70 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening and propagating a memory-mapped {@link CatalogueFile} of two million LEO objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogueBenchmark {
+    private static final int COUNT = 2000000;
+
+    private Path file;
+    private CatalogueFile catalogue;
+    private double[] positions;
+    private double[] velocities;
+    private double time;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("catalogue", ".orbc");
+        Random random = new Random(42);
+        try (CatalogueWriter writer = new CatalogueWriter(file)) {
+            for (int k = 0; k < COUNT; k++) {
+                writer.write(k, Fixture.LEO.orbit(random), 0, Constants.MASS_EARTH, 0);
+            }
+        }
+        catalogue = CatalogueFile.open(file);
+        positions = new double[3 * COUNT];
+        velocities = new double[3 * COUNT];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        catalogue = null;
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CatalogueFile open() throws IOException {
+        return CatalogueFile.open(file);
+    }
+
+    @Benchmark
+    public double[] propagate() {
+        time += 60;
+        catalogue.propagate(0, COUNT, time, positions, velocities);
+        return positions;
+    }
+}
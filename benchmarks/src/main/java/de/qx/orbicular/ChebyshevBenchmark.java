@@ -0,0 +1,67 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State lookups from a Chebyshev ephemeris compared to solving Kepler's equation, at varying times over a day.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class ChebyshevBenchmark {
+
+    @Param({"8", "12", "16"})
+    public int degree;
+
+    private OrbitPropagator propagator;
+    private ChebyshevEphemeris ephemeris;
+    private final double[] position = new double[3];
+    private final double[] velocity = new double[3];
+    private double time;
+
+    @Setup
+    public void setUp() {
+        propagator = new OrbitPropagator(new Orbit(6778e3, 0.001, 0.9, 0.3, 1.2, 0.5), 0, Constants.MASS_EARTH, 0);
+        ephemeris = ChebyshevEphemeris.fit(propagator, 0, 86400, 600, degree);
+    }
+
+    private double nextTime() {
+        time += 97.3;
+        if (time > 86400) {
+            time -= 86400;
+        }
+        return time;
+    }
+
+    @Benchmark
+    public double[] kepler() {
+        propagator.stateAt(nextTime(), position, velocity, 0);
+        return position;
+    }
+
+    @Benchmark
+    public double[] chebyshevState() {
+        ephemeris.stateAt(nextTime(), position, velocity, 0);
+        return position;
+    }
+
+    @Benchmark
+    public double[] chebyshevPosition() {
+        ephemeris.positionAt(nextTime(), position, 0);
+        return position;
+    }
+}
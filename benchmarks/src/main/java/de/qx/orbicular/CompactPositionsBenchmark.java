@@ -0,0 +1,79 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frames of 100000 low earth orbit positions propagated by {@link PropagationEngine}, as double arrays and
+ * encoded into a direct buffer with each {@link CompactPositions.Encoding}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompactPositionsBenchmark {
+    private static final int COUNT = 100000;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"FLOAT", "INT", "SHORT"})
+    public CompactPositions.Encoding encoding;
+
+    private ForkJoinPool pool;
+    private PropagationEngine engine;
+    private OrbitBatch batch;
+    private CompactPositions compact;
+    private ByteBuffer buffer;
+    private double[] positions;
+    private double[] velocities;
+    private double time;
+
+    @Setup
+    public void setUp() {
+        batch = OrbitBatch.of(Fixture.LEO.orbits(COUNT, 42), new double[COUNT]);
+        double[] origin = new double[3];
+        compact = encoding == CompactPositions.Encoding.FLOAT ? CompactPositions.floats(origin)
+                : CompactPositions.fixedPoint(encoding, origin, CompactPositions.range(batch, origin));
+        buffer = ByteBuffer.allocateDirect(compact.size(COUNT));
+        positions = new double[3 * COUNT];
+        velocities = new double[3 * COUNT];
+        pool = new ForkJoinPool(threads);
+        engine = new PropagationEngine(pool, PropagationEngine.DEFAULT_CHUNK_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] doubles() {
+        time += 60;
+        engine.propagate(batch, time, Constants.MASS_EARTH, 0, positions, velocities);
+        return positions;
+    }
+
+    @Benchmark
+    public ByteBuffer compact() {
+        time += 60;
+        engine.propagate(batch, time, Constants.MASS_EARTH, 0, compact, buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,45 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screening of a {@link Fixture#LEO} catalogue for approaches within 5 km over ten minutes in 10 s steps, one
+ * screening per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class ConjunctionScreeningBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int count;
+
+    private OrbitBatch catalogue;
+    private ConjunctionScreening screening;
+
+    @Setup
+    public void setUp() {
+        catalogue = OrbitBatch.of(Fixture.LEO.orbits(count, 42), new double[count]);
+        screening = new ConjunctionScreening(5e3, 10);
+    }
+
+    @Benchmark
+    public List<Conjunction> screen() {
+        return screening.screen(catalogue, Constants.MASS_EARTH, 0, 0, 600);
+    }
+}
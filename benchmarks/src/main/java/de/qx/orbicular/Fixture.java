@@ -0,0 +1,77 @@
+package de.qx.orbicular;
+
+import java.util.Random;
+
+/**
+ * Reproducible sets of orbits for the benchmarks, covering the typical orbit regimes.
+ */
+public enum Fixture {
+    /**
+     * Low earth orbits, 300 to 1500 km altitude, nearly circular, all inclinations
+     */
+    LEO(Constants.MASS_EARTH) {
+        @Override
+        Orbit orbit(Random random) {
+            return new Orbit(EARTH_RADIUS + uniform(random, 300e3, 1500e3), uniform(random, 0, 0.02),
+                    uniform(random, 0, 100 * DEG), uniform(random, 0, 2 * Math.PI),
+                    uniform(random, 0, 2 * Math.PI), uniform(random, 0, 2 * Math.PI));
+        }
+    },
+    /**
+     * Geostationary orbits
+     */
+    GEO(Constants.MASS_EARTH) {
+        @Override
+        Orbit orbit(Random random) {
+            return new Orbit(uniform(random, 42150e3, 42180e3), uniform(random, 0, 0.001),
+                    uniform(random, 0, 0.1 * DEG), uniform(random, 0, 2 * Math.PI),
+                    uniform(random, 0, 2 * Math.PI), uniform(random, 0, 2 * Math.PI));
+        }
+    },
+    /**
+     * Highly eccentric orbits, Molniya and geostationary transfer orbits
+     */
+    HEO(Constants.MASS_EARTH) {
+        @Override
+        Orbit orbit(Random random) {
+            return new Orbit(uniform(random, 24000e3, 26600e3), uniform(random, 0.7, 0.75),
+                    uniform(random, 7 * DEG, 63.4 * DEG), uniform(random, 0, 2 * Math.PI),
+                    uniform(random, 0, 2 * Math.PI), uniform(random, 0, 2 * Math.PI));
+        }
+    },
+    /**
+     * Heliocentric orbits between Venus and Jupiter
+     */
+    INTERPLANETARY(Constants.MASS_SUN) {
+        @Override
+        Orbit orbit(Random random) {
+            return new Orbit(uniform(random, 0.7, 5.2) * Constants.AU * 1000, uniform(random, 0, 0.25),
+                    uniform(random, 0, 10 * DEG), uniform(random, 0, 2 * Math.PI),
+                    uniform(random, 0, 2 * Math.PI), uniform(random, 0, 2 * Math.PI));
+        }
+    };
+
+    private static final double DEG = Math.PI / 180;
+    private static final double EARTH_RADIUS = 6378137;
+
+    final double centralMass;
+
+    Fixture(double centralMass) {
+        this.centralMass = centralMass;
+    }
+
+    abstract Orbit orbit(Random random);
+
+    Orbit[] orbits(int count, long seed) {
+        Random random = new Random(seed);
+        Orbit[] orbits = new Orbit[count];
+        for (int k = 0; k < count; k++) {
+            orbits[k] = orbit(random);
+        }
+        return orbits;
+    }
+
+    private static double uniform(Random random, double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+}
@@ -0,0 +1,79 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves of Kepler's equation over an eccentricity sweep with uniformly distributed mean anomalies.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeplerBenchmark {
+    private static final int COUNT = 1024;
+
+    @State(Scope.Thread)
+    public static class Anomalies {
+        @Param({"0.0", "0.001", "0.1", "0.5", "0.9", "0.99", "0.999"})
+        public double eccentricity;
+
+        private final double[] meanAnomalies = new double[COUNT];
+        private int index;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            for (int k = 0; k < COUNT; k++) {
+                meanAnomalies[k] = 2 * Math.PI * random.nextDouble();
+            }
+        }
+
+        double next() {
+            index = (index + 1) & (COUNT - 1);
+            return meanAnomalies[index];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Solvers {
+        @Param({"DANBY", "NEWTON", "TABLE"})
+        public String solver;
+
+        private KeplerSolver instance;
+
+        @Setup
+        public void setUp() {
+            if ("DANBY".equals(solver)) {
+                instance = Kepler.DANBY;
+            } else if ("NEWTON".equals(solver)) {
+                instance = Kepler.NEWTON;
+            } else {
+                instance = new KeplerStarterTable(64, 256);
+            }
+        }
+    }
+
+    @Benchmark
+    public double keplerEquation(Anomalies anomalies) {
+        return Position.keplerEquation(anomalies.eccentricity, anomalies.next());
+    }
+
+    @Benchmark
+    public double solver(Anomalies anomalies, Solvers solvers) {
+        return solvers.instance.eccentricAnomaly(anomalies.eccentricity, anomalies.next());
+    }
+}
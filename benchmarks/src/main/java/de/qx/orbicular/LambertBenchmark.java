@@ -0,0 +1,73 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single Lambert solves of earth to mars transfers and a porkchop grid of 100 by 100 dates, with and without
+ * complete revolutions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class LambertBenchmark {
+
+    private static final int DATES = 100;
+
+    @Param({"0", "2"})
+    public int maxRevolutions;
+
+    private Porkchop porkchop;
+    private final double[] departures = new double[DATES];
+    private final double[] arrivals = new double[DATES];
+    private final double[] departureDeltaV = new double[DATES * DATES];
+    private final double[] arrivalDeltaV = new double[DATES * DATES];
+
+    private final double[] r1 = new double[3];
+    private final double[] r2 = new double[3];
+    private final double[] v1 = new double[15];
+    private final double[] v2 = new double[15];
+    private double timeOfFlight;
+
+    @Setup
+    public void setUp() {
+        OrbitPropagator earth = new OrbitPropagator(new Orbit(1.496e11, 0.0167, 0, 0, 1.8, 0.1), 0,
+                Constants.MASS_SUN, 0);
+        OrbitPropagator mars = new OrbitPropagator(new Orbit(2.279e11, 0.0934, 0.032, 0.86, 5.0, 1.2), 0,
+                Constants.MASS_SUN, 0);
+        for (int k = 0; k < DATES; k++) {
+            departures[k] = k * 4 * 86400.0;
+            arrivals[k] = (150 + k * 4) * 86400.0;
+        }
+        porkchop = new Porkchop(earth, mars, Constants.MASS_SUN, 0, maxRevolutions,
+                ForkJoinPool.commonPool(), Porkchop.DEFAULT_CHUNK_SIZE);
+        earth.stateAt(0, r1, new double[3], 0);
+        mars.stateAt(900 * 86400.0, r2, new double[3], 0);
+        timeOfFlight = 900 * 86400.0;
+    }
+
+    @Benchmark
+    public int solve() {
+        return Lambert.solve(r1, r2, timeOfFlight, Constants.MASS_SUN, 0, false, maxRevolutions, v1, v2);
+    }
+
+    @Benchmark
+    public double[] porkchop() {
+        porkchop.compute(departures, arrivals, departureDeltaV, arrivalDeltaV);
+        return departureDeltaV;
+    }
+}
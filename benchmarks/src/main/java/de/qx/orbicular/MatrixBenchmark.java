@@ -0,0 +1,72 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Matrix} and {@link Mat3} products and the orbital plane to inertial {@link Transformation}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBenchmark {
+    private final Matrix rotation = Matrix.getRotationMatrix(0.7, 3);
+    private final Matrix matrix = Matrix.getRotationMatrix(-1.2, 1);
+    private final Matrix vector = new Matrix(new double[]{6678e3, -1234e3, 0});
+    private final Mat3 mat3Rotation = new Mat3().rotation(0.7, 3);
+    private final Mat3 mat3Matrix = new Mat3().rotation(-1.2, 1);
+    private final Mat3 mat3Result = new Mat3();
+    private final Vec3 vec3 = new Vec3(6678e3, -1234e3, 0);
+    private final Vec3 vec3Result = new Vec3();
+
+    private double Ω = 2.1;
+    private double ω = -0.4;
+    private double i = 1.69;
+
+    @Benchmark
+    public Matrix multiplyMatrix() {
+        return rotation.multiplyWith(matrix);
+    }
+
+    @Benchmark
+    public Matrix multiplyVector() {
+        return rotation.multiplyWith(vector);
+    }
+
+    @Benchmark
+    public Matrix rotationMatrix() {
+        return Matrix.getRotationMatrix(ω, 3);
+    }
+
+    @Benchmark
+    public Matrix orbitalPlaneToInertial() {
+        return Transformation.orbitalPlaneToInertial(vector, Ω, ω, i);
+    }
+
+    @Benchmark
+    public Mat3 multiplyMat3() {
+        return mat3Result.multiply(mat3Rotation, mat3Matrix);
+    }
+
+    @Benchmark
+    public Vec3 multiplyVec3() {
+        return mat3Rotation.multiply(vec3, vec3Result);
+    }
+
+    @Benchmark
+    public Vec3 orbitalPlaneToInertialVec3() {
+        return Transformation.orbitalPlaneToInertial(vec3, Ω, ω, i, vec3Result);
+    }
+}
@@ -0,0 +1,78 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the {@link Metrics} instrumentation on Kepler solves and batch conversions. The same workloads run
+ * in a fork with metrics disabled, the default, and in a fork with metrics enabled; the disabled numbers are
+ * comparable to {@link KeplerBenchmark} and {@link PositionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class MetricsBenchmark {
+    private static final int COUNT = 1024;
+
+    private final double[] meanAnomalies = new double[COUNT];
+    private OrbitBatch orbits;
+    private double[] positions;
+    private double[] velocities;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int k = 0; k < COUNT; k++) {
+            meanAnomalies[k] = 2 * Math.PI * random.nextDouble();
+        }
+        orbits = OrbitBatch.of(Fixture.LEO.orbits(COUNT, 42), new double[COUNT]);
+        positions = new double[3 * COUNT];
+        velocities = new double[3 * COUNT];
+    }
+
+    private double nextAnomaly() {
+        index = (index + 1) & (COUNT - 1);
+        return meanAnomalies[index];
+    }
+
+    @Benchmark
+    @Fork(1)
+    public double keplerDisabled() {
+        return Kepler.eccentricAnomaly(0.5, nextAnomaly());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorbicular.metrics=true")
+    public double keplerEnabled() {
+        return Kepler.eccentricAnomaly(0.5, nextAnomaly());
+    }
+
+    @Benchmark
+    @Fork(1)
+    public double[] orbitsToStatesDisabled() {
+        Position.orbitsToStates(orbits, 3600, Fixture.LEO.centralMass, 0, positions, velocities);
+        return positions;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dorbicular.metrics=true")
+    public double[] orbitsToStatesEnabled() {
+        Position.orbitsToStates(orbits, 3600, Fixture.LEO.centralMass, 0, positions, velocities);
+        return positions;
+    }
+}
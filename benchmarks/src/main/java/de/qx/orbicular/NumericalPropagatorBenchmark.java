@@ -0,0 +1,61 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Day-long propagation of a low earth orbit under central gravity, J2/J3 and drag, one day per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class NumericalPropagatorBenchmark {
+
+    @Param({"RK4", "DORMAND_PRINCE", "LEAPFROG"})
+    public String integrator;
+
+    private NumericalPropagator propagator;
+    private double[] initial;
+    private final double[] state = new double[6];
+
+    @Setup
+    public void setUp() {
+        Integrator instance;
+        if ("RK4".equals(integrator)) {
+            instance = new RungeKutta4(10);
+        } else if ("DORMAND_PRINCE".equals(integrator)) {
+            instance = new DormandPrince(1e-12, 1e-6, 1e-9);
+        } else {
+            instance = new Leapfrog(5);
+        }
+        propagator = new NumericalPropagator(instance, new CentralGravity(Constants.MASS_EARTH, 0),
+                new ZonalHarmonics(), new AtmosphericDrag(0.01));
+
+        State start = Position.orbitToState(new Orbit(6778e3, 0.001, 0.9, 0.3, 1.2, 0.5), 0, 0,
+                Constants.MASS_EARTH, 0);
+        initial = new double[]{
+                start.getX(), start.getY(), start.getZ(),
+                start.getVx(), start.getVy(), start.getVz()
+        };
+    }
+
+    @Benchmark
+    public double[] propagateDay() {
+        System.arraycopy(initial, 0, state, 0, 6);
+        propagator.propagate(state, 0, 86400);
+        return state;
+    }
+}
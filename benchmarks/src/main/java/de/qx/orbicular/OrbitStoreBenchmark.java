@@ -0,0 +1,71 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Propagation of 100000 low earth orbits from the heap columns of an {@link OrbitBatch} compared to the off-heap
+ * columns of an {@link OrbitStore}, and a scan over the store with a cursor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrbitStoreBenchmark {
+    private static final int COUNT = 100000;
+    private static final int CHUNK = 1024;
+
+    private OrbitBatch batch;
+    private OrbitStore store;
+    private double[] positions;
+    private double[] velocities;
+    private double[] chunkPositions;
+    private double[] chunkVelocities;
+
+    @Setup
+    public void setUp() {
+        batch = OrbitBatch.of(Fixture.LEO.orbits(COUNT, 42), new double[COUNT]);
+        store = OrbitStore.of(batch);
+        positions = new double[3 * COUNT];
+        velocities = new double[3 * COUNT];
+        chunkPositions = new double[3 * CHUNK];
+        chunkVelocities = new double[3 * CHUNK];
+    }
+
+    @Benchmark
+    public double[] batch() {
+        Position.orbitsToStates(batch, 3600, Fixture.LEO.centralMass, 0, positions, velocities);
+        return positions;
+    }
+
+    @Benchmark
+    public double[] store() {
+        for (int from = 0; from < COUNT; from += CHUNK) {
+            Position.orbitsToStates(store, from, Math.min(COUNT, from + CHUNK), 3600, Fixture.LEO.centralMass, 0,
+                    chunkPositions, chunkVelocities, 0);
+        }
+        return chunkPositions;
+    }
+
+    @Benchmark
+    public double cursor() {
+        double apoapsis = 0;
+        OrbitStore.Cursor cursor = store.cursor();
+        while (cursor.next()) {
+            apoapsis = Math.max(apoapsis, cursor.getSemiMajorAxis() * (1 + cursor.getEccentricity()));
+        }
+        return apoapsis;
+    }
+}
@@ -0,0 +1,56 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One day of passes of 20 LEO objects over randomly placed ground stations with a 10 degree mask.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class PassPredictorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int stations;
+
+    private PassPredictor predictor;
+    private Trajectory[] objects;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        GroundStation[] sites = new GroundStation[stations];
+        for (int s = 0; s < stations; s++) {
+            sites[s] = new GroundStation(Math.asin(2 * random.nextDouble() - 1), 2 * Math.PI * random.nextDouble(),
+                    0, Math.toRadians(10));
+        }
+        predictor = new PassPredictor(sites, 60, 0);
+
+        Orbit[] orbits = Fixture.LEO.orbits(20, 42);
+        objects = new Trajectory[orbits.length];
+        for (int k = 0; k < orbits.length; k++) {
+            objects[k] = new OrbitPropagator(orbits[k], 0, Fixture.LEO.centralMass, 0);
+        }
+    }
+
+    @Benchmark
+    public List<Pass> predictDay() {
+        return predictor.predict(objects, 0, 86400);
+    }
+}
@@ -0,0 +1,133 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions between {@link Orbit} and {@link State} for each {@link Fixture}, one object per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class PositionBenchmark {
+    private static final int COUNT = 1024;
+
+    @Param({"LEO", "GEO", "HEO", "INTERPLANETARY"})
+    public Fixture fixture;
+
+    private Orbit[] orbits;
+    private double[] epochs;
+    private State[] states;
+    private OrbitPropagator[] propagators;
+    private SecularJ2Propagator[] secularPropagators;
+    private OrbitBatch batch;
+    private double[] positions;
+    private double[] velocities;
+    private double[] statePositions;
+    private double[] stateVelocities;
+    private OrbitBatch converted;
+
+    private int index;
+    private double time;
+
+    @Setup
+    public void setUp() {
+        orbits = fixture.orbits(COUNT, 42);
+        epochs = new double[COUNT];
+        states = new State[COUNT];
+        propagators = new OrbitPropagator[COUNT];
+        secularPropagators = new SecularJ2Propagator[COUNT];
+        for (int k = 0; k < COUNT; k++) {
+            epochs[k] = 60.0 * k;
+            states[k] = Position.orbitToState(orbits[k], 86400, epochs[k], fixture.centralMass, 0);
+            propagators[k] = new OrbitPropagator(orbits[k], epochs[k], fixture.centralMass, 0);
+            secularPropagators[k] = new SecularJ2Propagator(orbits[k], epochs[k], fixture.centralMass, 0);
+        }
+        batch = OrbitBatch.of(orbits, epochs);
+        positions = new double[3 * COUNT];
+        velocities = new double[3 * COUNT];
+        statePositions = new double[3 * COUNT];
+        stateVelocities = new double[3 * COUNT];
+        for (int k = 0; k < COUNT; k++) {
+            states[k].copyTo(statePositions, stateVelocities, 3 * k);
+        }
+        converted = new OrbitBatch(COUNT);
+    }
+
+    private int next() {
+        index = (index + 1) & (COUNT - 1);
+        time += 60;
+        return index;
+    }
+
+    @Benchmark
+    public State orbitToState() {
+        int k = next();
+        return Position.orbitToState(orbits[k], time, epochs[k], fixture.centralMass, 0);
+    }
+
+    @Benchmark
+    public Orbit stateToOrbit() {
+        int k = next();
+        return Position.stateToOrbit(states[k], 86400, fixture.centralMass, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public OrbitBatch statesToOrbits() {
+        Position.statesToOrbits(statePositions, stateVelocities, 86400, fixture.centralMass, 0, converted);
+        return converted;
+    }
+
+    @Benchmark
+    public State propagatorStateAt() {
+        int k = next();
+        return propagators[k].stateAt(time);
+    }
+
+    @Benchmark
+    public State secularJ2StateAt() {
+        int k = next();
+        return secularPropagators[k].stateAt(time);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public double[] orbitsToStates() {
+        time += 60;
+        Position.orbitsToStates(batch, time, fixture.centralMass, 0, positions, velocities);
+        return positions;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    @Fork(value = 1, jvmArgsAppend = "-Dorbicular.vector=false")
+    public double[] lanesOrbitsToStates() {
+        time += 60;
+        LanePropagator.orbitsToStates(batch, time, fixture.centralMass, 0, positions, velocities);
+        return positions;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public double[] vectorOrbitsToStates() {
+        time += 60;
+        LanePropagator.orbitsToStates(batch, time, fixture.centralMass, 0, positions, velocities);
+        return positions;
+    }
+}
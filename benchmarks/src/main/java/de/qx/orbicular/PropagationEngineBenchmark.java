@@ -0,0 +1,72 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link PropagationEngine} with the number of worker threads, propagating a mixed catalogue of
+ * 100000 objects to a single time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropagationEngineBenchmark {
+    private static final int COUNT = 100000;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"256", "1024", "4096"})
+    public int chunkSize;
+
+    private ForkJoinPool pool;
+    private PropagationEngine engine;
+    private OrbitBatch batch;
+    private double[] positions;
+    private double[] velocities;
+    private double time;
+
+    @Setup
+    public void setUp() {
+        Fixture[] fixtures = {Fixture.LEO, Fixture.GEO, Fixture.HEO};
+        batch = new OrbitBatch(COUNT);
+        for (int f = 0; f < fixtures.length; f++) {
+            Orbit[] orbits = fixtures[f].orbits(COUNT, f);
+            for (int k = f; k < COUNT; k += fixtures.length) {
+                batch.set(k, orbits[k], 0);
+            }
+        }
+        positions = new double[3 * COUNT];
+        velocities = new double[3 * COUNT];
+        pool = new ForkJoinPool(threads);
+        engine = new PropagationEngine(pool, chunkSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] propagate() {
+        time += 60;
+        engine.propagate(batch, time, Constants.MASS_EARTH, 0, positions, velocities);
+        return positions;
+    }
+}
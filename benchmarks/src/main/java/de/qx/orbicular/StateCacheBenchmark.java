@@ -0,0 +1,69 @@
+package de.qx.orbicular;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeated state queries of 1000 LEO objects at 60 quantised times, served from a {@link StateCache} that holds
+ * all of them compared to propagating each query, on four threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class StateCacheBenchmark {
+
+    private final static int OBJECTS = 1000;
+    private final static int TIMES = 60;
+
+    @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+    public static class Shared {
+        OrbitPropagator[] propagators;
+        StateCache cache;
+
+        @Setup
+        public void setUp() {
+            Orbit[] orbits = Fixture.LEO.orbits(OBJECTS, 42);
+            propagators = new OrbitPropagator[OBJECTS];
+            for (int k = 0; k < OBJECTS; k++) {
+                propagators[k] = new OrbitPropagator(orbits[k], 0, Fixture.LEO.centralMass, 0);
+            }
+            cache = new StateCache(OBJECTS * TIMES, 1);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.State(Scope.Thread)
+    public static class Buffers {
+        final double[] position = new double[3];
+        final double[] velocity = new double[3];
+    }
+
+    @Benchmark
+    public double[] cached(Shared shared, Buffers buffers) {
+        int k = ThreadLocalRandom.current().nextInt(OBJECTS);
+        double time = 60 * ThreadLocalRandom.current().nextInt(TIMES) + 0.3;
+        shared.cache.stateAt(k, shared.propagators[k], time, buffers.position, buffers.velocity, 0);
+        return buffers.position;
+    }
+
+    @Benchmark
+    public double[] uncached(Shared shared, Buffers buffers) {
+        int k = ThreadLocalRandom.current().nextInt(OBJECTS);
+        double time = 60 * ThreadLocalRandom.current().nextInt(TIMES);
+        shared.propagators[k].stateAt(time, buffers.position, buffers.velocity, 0);
+        return buffers.position;
+    }
+}
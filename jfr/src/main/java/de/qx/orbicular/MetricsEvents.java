@@ -0,0 +1,94 @@
+package de.qx.orbicular;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the {@link Metrics} counters, emitted periodically while a recording is running.
+ * Registered by {@link Metrics} through reflection when metrics are enabled and this class is on the class path,
+ * so the library itself does not depend on the jdk.jfr module. All values are totals since the start or the last
+ * {@link Metrics#reset()}.
+ */
+public final class MetricsEvents {
+    static {
+        FlightRecorder.addPeriodicEvent(ConversionEvent.class, MetricsEvents::emitConversions);
+        FlightRecorder.addPeriodicEvent(KeplerEvent.class, MetricsEvents::emitKepler);
+    }
+
+    private MetricsEvents() {
+    }
+
+    @Name("de.qx.orbicular.Conversions")
+    @Label("Orbit/State Conversions")
+    @Category("Orbicular")
+    @Period("1 s")
+    @StackTrace(false)
+    public static final class ConversionEvent extends Event {
+        @Label("Orbit to State Calls")
+        long orbitToStateCalls;
+
+        @Label("Orbit to State Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long orbitToStateTime;
+
+        @Label("State to Orbit Calls")
+        long stateToOrbitCalls;
+
+        @Label("State to Orbit Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long stateToOrbitTime;
+    }
+
+    @Name("de.qx.orbicular.Kepler")
+    @Label("Kepler Solves")
+    @Description("Solves of Kepler's equation of one eccentricity band")
+    @Category("Orbicular")
+    @Period("1 s")
+    @StackTrace(false)
+    public static final class KeplerEvent extends Event {
+        @Label("Band")
+        @Description("Eccentricity band, see Metrics.band")
+        int band;
+
+        @Label("Solves")
+        long solves;
+
+        @Label("Failures")
+        @Description("Solves that stopped at the iteration limit without converging")
+        long failures;
+
+        @Label("Iterations")
+        @Description("Corrections of all solves of the band")
+        long iterations;
+    }
+
+    private static void emitConversions() {
+        ConversionEvent event = new ConversionEvent();
+        event.orbitToStateCalls = Metrics.getOrbitToStateCalls();
+        event.orbitToStateTime = Metrics.getOrbitToStateNanos();
+        event.stateToOrbitCalls = Metrics.getStateToOrbitCalls();
+        event.stateToOrbitTime = Metrics.getStateToOrbitNanos();
+        event.commit();
+    }
+
+    private static void emitKepler() {
+        for (int band = 0; band < Metrics.BANDS; band++) {
+            KeplerEvent event = new KeplerEvent();
+            event.band = band;
+            event.failures = Metrics.getKeplerFailures(band);
+            for (int count = 0; count <= Metrics.MAX_ITERATIONS; count++) {
+                long solves = Metrics.getKeplerIterations(band, count);
+                event.solves += solves;
+                event.iterations += count * solves;
+            }
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package de.qx.orbicular;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsEventsTest {
+
+    @Test
+    public void testEventsAreRecorded() throws IOException {
+        assertTrue("runs with -Dorbicular.metrics=true, see build.sbt", Metrics.ENABLED);
+        Path file = Files.createTempFile("metrics", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("de.qx.orbicular.Conversions").with("period", "endChunk");
+                recording.enable("de.qx.orbicular.Kepler").with("period", "endChunk");
+                recording.start();
+                Metrics.reset();
+                Position.orbitToState(new Orbit(7e6, 0.2, 0.5, 1, 2, 0), 100, 0, Constants.MASS_EARTH, 0);
+                recording.stop();
+                recording.dump(file);
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            int kepler = 0;
+            int conversions = 0;
+            for (RecordedEvent event : events) {
+                String name = event.getEventType().getName();
+                if (name.equals("de.qx.orbicular.Conversions")) {
+                    conversions++;
+                    assertEquals(1, event.getLong("orbitToStateCalls"));
+                } else if (name.equals("de.qx.orbicular.Kepler") && event.getInt("band") == Metrics.band(0.2)) {
+                    kepler++;
+                    assertEquals(1, event.getLong("solves"));
+                    assertTrue(event.getLong("iterations") > 0);
+                }
+            }
+            assertEquals(1, conversions);
+            assertEquals(1, kepler);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
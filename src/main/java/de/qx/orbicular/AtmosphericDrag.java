@@ -0,0 +1,61 @@
+package de.qx.orbicular;
+
+/**
+ * Drag of an exponential atmosphere co-rotating with the earth, a = -1/2 * rho * B * |v_rel| * v_rel with the
+ * ballistic coefficient B = Cd * A / m. The density decays exponentially with the altitude above a spherical
+ * earth of radius {@link Constants#RADIUS_EARTH}, which is only accurate within a few scale heights of the
+ * reference altitude.
+ */
+public final class AtmosphericDrag implements ForceModel {
+    /**
+     * Density at 400 km [kg/m^3] and scale height [m], from the exponential model in Vallado's table 8-4
+     */
+    public final static double DENSITY_400_KM = 3.725e-12;
+    public final static double SCALE_HEIGHT_400_KM = 58515;
+
+    private final double ballisticCoefficient;
+    private final double referenceDensity;
+    private final double referenceAltitude;
+    private final double scaleHeight;
+
+    /**
+     * Drag in the default atmosphere, fitted at 400 km.
+     *
+     * @param ballisticCoefficient Cd * A / m [m^2/kg]
+     */
+    public AtmosphericDrag(double ballisticCoefficient) {
+        this(ballisticCoefficient, DENSITY_400_KM, 400e3, SCALE_HEIGHT_400_KM);
+    }
+
+    /**
+     * @param ballisticCoefficient Cd * A / m [m^2/kg]
+     * @param referenceDensity     density at the reference altitude [kg/m^3]
+     * @param referenceAltitude    reference altitude [m]
+     * @param scaleHeight          altitude difference by which the density drops by a factor e [m]
+     */
+    public AtmosphericDrag(double ballisticCoefficient, double referenceDensity, double referenceAltitude,
+                           double scaleHeight) {
+        this.ballisticCoefficient = ballisticCoefficient;
+        this.referenceDensity = referenceDensity;
+        this.referenceAltitude = referenceAltitude;
+        this.scaleHeight = scaleHeight;
+    }
+
+    @Override
+    public void addAcceleration(double time, double[] state, double[] acceleration) {
+        double x = state[0];
+        double y = state[1];
+        double z = state[2];
+        double altitude = Math.sqrt(x * x + y * y + z * z) - Constants.RADIUS_EARTH;
+        double density = referenceDensity * Math.exp((referenceAltitude - altitude) / scaleHeight);
+
+        // velocity relative to the atmosphere rotating about the z axis
+        double vx = state[3] + Constants.ROTATION_EARTH * y;
+        double vy = state[4] - Constants.ROTATION_EARTH * x;
+        double vz = state[5];
+        double factor = -0.5 * density * ballisticCoefficient * Math.sqrt(vx * vx + vy * vy + vz * vz);
+        acceleration[0] += factor * vx;
+        acceleration[1] += factor * vy;
+        acceleration[2] += factor * vz;
+    }
+}
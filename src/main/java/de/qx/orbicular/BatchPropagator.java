@@ -0,0 +1,24 @@
+package de.qx.orbicular;
+
+/**
+ * Backend of {@link LanePropagator} propagating a range of a batch at once. See
+ * {@link LanePropagator#backend()} for how the implementation is selected.
+ */
+public interface BatchPropagator {
+
+    /**
+     * Propagates the orbits with index from (inclusive) to to (exclusive), the state of orbit k is written to
+     * offset + 3k to offset + 3k + 2.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param from       index of the first orbit
+     * @param to         index after the last orbit
+     * @param time       time [s]
+     * @param GM         gravitational parameter G * (mass1 + mass2) [m^3/s^2]
+     * @param positions  receives the positions
+     * @param velocities receives the velocities
+     * @param offset     shift of the output indices, may be negative
+     */
+    void orbitsToStates(OrbitBatch orbits, int from, int to, double time, double GM,
+                        double[] positions, double[] velocities, int offset);
+}
@@ -0,0 +1,204 @@
+package de.qx.orbicular;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped view of a binary element catalogue written by {@link CatalogueWriter}. Opening a
+ * catalogue only maps the file, records are read on access through {@link Record} flyweights or propagated
+ * directly with {@link #propagate(int, int, double, double[], double[])}, so no {@link Orbit} instances are
+ * created. Instances are safe for concurrent reads.
+ */
+public final class CatalogueFile {
+    public final static int MAGIC = 0x4F524243; // "ORBC"
+    public final static int VERSION = 1;
+    public final static int HEADER_SIZE = 32;
+    public final static int RECORD_SIZE = 72;
+
+    final static ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // a single mapping is limited to 2 GB, larger catalogues are mapped in segments of whole records
+    private final static int RECORDS_PER_SEGMENT = (1 << 30) / RECORD_SIZE;
+
+    private final static int ID = 0;
+    private final static int SEMI_MAJOR_AXIS = 8;
+    private final static int ECCENTRICITY = 16;
+    private final static int INCLINATION = 24;
+    private final static int RIGHT_ASCENSION = 32;
+    private final static int PERIAPSIS = 40;
+    private final static int MEAN_ANOMALY_AT_0 = 48;
+    private final static int EPOCH = 56;
+    private final static int GM = 64;
+
+    private final ByteBuffer[] segments;
+    private final int size;
+
+    private CatalogueFile(ByteBuffer[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Maps a catalogue file into memory.
+     *
+     * @param file catalogue file
+     * @return the mapped catalogue
+     * @throws IOException if the file cannot be read or is not a valid catalogue
+     */
+    public static CatalogueFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("catalogue header is truncated");
+                }
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("not a catalogue file");
+            }
+            if (header.getInt(4) != VERSION || header.getInt(8) != RECORD_SIZE) {
+                throw new IOException("unsupported catalogue version " + header.getInt(4));
+            }
+            long count = header.getLong(16);
+            if (count < 0 || count > Integer.MAX_VALUE) {
+                throw new IOException("invalid record count " + count);
+            }
+            if (channel.size() < HEADER_SIZE + count * RECORD_SIZE) {
+                throw new IOException("catalogue is truncated");
+            }
+
+            int size = (int) count;
+            ByteBuffer[] segments = new ByteBuffer[(size + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT];
+            for (int s = 0; s < segments.length; s++) {
+                long first = (long) s * RECORDS_PER_SEGMENT;
+                long records = Math.min(RECORDS_PER_SEGMENT, size - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE,
+                        records * RECORD_SIZE).order(ORDER);
+            }
+            return new CatalogueFile(segments, size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new flyweight, positioned at the first record
+     */
+    public Record record() {
+        return new Record();
+    }
+
+    /**
+     * Calculates the states of the records with index from (inclusive) to to (exclusive) at the given time,
+     * straight from the mapped file. The state of record k is written to indices 3k to 3k+2.
+     *
+     * @param from       index of the first record
+     * @param to         index after the last record
+     * @param time       time [s]
+     * @param positions  receives the positions at indices 3 * from to 3 * to - 1
+     * @param velocities receives the velocities at indices 3 * from to 3 * to - 1
+     */
+    public void propagate(int from, int to, double time, double[] positions, double[] velocities) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("invalid range " + from + " to " + to);
+        }
+        if (positions.length < 3L * to || velocities.length < 3L * to) {
+            throw new IllegalArgumentException("output arrays are too small for " + to + " states");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        for (int k = from; k < to; k++) {
+            ByteBuffer segment = segments[k / RECORDS_PER_SEGMENT];
+            int base = (k % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+            Position.orbitToState(segment.getDouble(base + SEMI_MAJOR_AXIS), segment.getDouble(base + ECCENTRICITY),
+                    segment.getDouble(base + INCLINATION), segment.getDouble(base + RIGHT_ASCENSION),
+                    segment.getDouble(base + PERIAPSIS), segment.getDouble(base + MEAN_ANOMALY_AT_0),
+                    time, segment.getDouble(base + EPOCH), segment.getDouble(base + GM),
+                    positions, velocities, 3 * k);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.orbitToState(to - from, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Movable view of one record of the catalogue. Flyweights are cheap but not thread-safe, use one per thread.
+     */
+    public final class Record {
+        private ByteBuffer segment = segments.length > 0 ? segments[0] : null;
+        private int index;
+        private int base;
+
+        private Record() {
+        }
+
+        /**
+         * Moves the view to the record with the given index.
+         *
+         * @param index index of the record
+         * @return this record
+         */
+        public Record moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("record " + index + " of " + size);
+            }
+            this.index = index;
+            this.segment = segments[index / RECORDS_PER_SEGMENT];
+            this.base = (index % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getId() {
+            return segment.getLong(base + ID);
+        }
+
+        public double getSemiMajorAxis() {
+            return segment.getDouble(base + SEMI_MAJOR_AXIS);
+        }
+
+        public double getEccentricity() {
+            return segment.getDouble(base + ECCENTRICITY);
+        }
+
+        public double getInclination() {
+            return segment.getDouble(base + INCLINATION);
+        }
+
+        public double getRightAscension() {
+            return segment.getDouble(base + RIGHT_ASCENSION);
+        }
+
+        public double getPeriapsis() {
+            return segment.getDouble(base + PERIAPSIS);
+        }
+
+        public double getMeanAnomalyAt0() {
+            return segment.getDouble(base + MEAN_ANOMALY_AT_0);
+        }
+
+        public double getEpoch() {
+            return segment.getDouble(base + EPOCH);
+        }
+
+        /**
+         * @return the gravitational parameter G * (m1 + m2) [m^3/s^2]
+         */
+        public double getGM() {
+            return segment.getDouble(base + GM);
+        }
+
+        public Orbit toOrbit() {
+            return new Orbit(getSemiMajorAxis(), getEccentricity(), getInclination(), getRightAscension(),
+                    getPeriapsis(), getMeanAnomalyAt0());
+        }
+    }
+}
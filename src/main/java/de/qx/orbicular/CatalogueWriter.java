@@ -0,0 +1,107 @@
+package de.qx.orbicular;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes orbital elements to the fixed record binary format read by {@link CatalogueFile}.
+ * <p>
+ * The file starts with a {@link CatalogueFile#HEADER_SIZE} byte header (magic number, format version, record
+ * size and record count), followed by records of {@link CatalogueFile#RECORD_SIZE} bytes: the id as long and
+ * the semimajor axis, eccentricity, inclination, right ascension, argument of periapsis, mean anomaly at epoch,
+ * epoch and gravitational parameter G * (m1 + m2) as doubles, all little endian.
+ */
+public final class CatalogueWriter implements Closeable {
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long count;
+
+    /**
+     * Creates or truncates the given file.
+     *
+     * @param file catalogue file
+     * @throws IOException if the file cannot be opened
+     */
+    public CatalogueWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * CatalogueFile.RECORD_SIZE)
+                .order(CatalogueFile.ORDER);
+        channel.position(CatalogueFile.HEADER_SIZE);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param id    id of the object
+     * @param orbit orbital parameters
+     * @param t0    epoch of given elements
+     * @param mass1 mass of body 1 (e.g. sun) [kg]
+     * @param mass2 mass of body 2 [kg]
+     * @throws IOException if the record cannot be written
+     */
+    public void write(long id, Orbit orbit, double t0, double mass1, double mass2) throws IOException {
+        write(id, orbit.getSemiMajorAxis(), orbit.getEccentricity(), orbit.getInclination(),
+                orbit.getRightAscension(), orbit.getPeriapsis(), orbit.getMeanAnomalyAt0(), t0,
+                Constants.G * (mass1 + mass2));
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param GM gravitational parameter G * (m1 + m2) [m^3/s^2]
+     * @throws IOException if the record cannot be written
+     */
+    public void write(long id, double semiMajorAxis, double eccentricity, double inclination, double rightAscension,
+                      double periapsis, double meanAnomalyAt0, double t0, double GM) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.putLong(id)
+                .putDouble(semiMajorAxis)
+                .putDouble(eccentricity)
+                .putDouble(inclination)
+                .putDouble(rightAscension)
+                .putDouble(periapsis)
+                .putDouble(meanAnomalyAt0)
+                .putDouble(t0)
+                .putDouble(GM);
+        count++;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the remaining records and the header.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            buffer.putInt(CatalogueFile.MAGIC)
+                    .putInt(CatalogueFile.VERSION)
+                    .putInt(CatalogueFile.RECORD_SIZE)
+                    .putInt(0)
+                    .putLong(count)
+                    .putLong(0);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.qx.orbicular;
+
+/**
+ * Point mass gravity of the central body, the two-body acceleration -GM * r / |r|^3.
+ */
+public final class CentralGravity implements ForceModel {
+    private final double GM;
+
+    /**
+     * @param mass1 mass of body 1 (e.g. sun) [kg]
+     * @param mass2 mass of body 2 [kg]
+     */
+    public CentralGravity(double mass1, double mass2) {
+        this.GM = Constants.G * (mass1 + mass2);
+    }
+
+    @Override
+    public void addAcceleration(double time, double[] state, double[] acceleration) {
+        double x = state[0];
+        double y = state[1];
+        double z = state[2];
+        double r2 = x * x + y * y + z * z;
+        double factor = -GM / (r2 * Math.sqrt(r2));
+        acceleration[0] += factor * x;
+        acceleration[1] += factor * y;
+        acceleration[2] += factor * z;
+    }
+}
@@ -0,0 +1,327 @@
+package de.qx.orbicular;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compressed ephemeris of a {@link Trajectory}: the position is approximated by Chebyshev polynomials of fixed
+ * degree on consecutive segments of equal span, fitted by interpolation at the Chebyshev nodes. Positions are
+ * evaluated with Clenshaw's recurrence, velocities from the derivative of the same polynomials, in a few dozen
+ * multiplications instead of a solve of Kepler's equation or a numerical integration.
+ * <p>
+ * The error is bounded by the first omitted terms of the Chebyshev series and drops geometrically with the
+ * degree as long as the span is well below an orbital period. Velocity errors are larger than position errors
+ * by about degree^2 / span. {@link #tradeOff(Trajectory, double, double, double[], int[])} measures the error
+ * for combinations of span and degree and {@link #size(double, double, double, int)} gives the size, e.g. for
+ * a low earth orbit with a period of 5550 s and a span of 600 s the error is 12 mm at degree 6, 6 um at degree 8
+ * and reaches the rounding level of the Kepler solution (0.2 um) at degree 10, with 2.4 kB per revolution.
+ * <p>
+ * The binary file starts with a {@link #HEADER_SIZE} byte header (magic number, format version, degree, number
+ * of segments, start and span), followed by the coefficients of each segment for x, y and z in increasing
+ * order as doubles, all little endian.
+ */
+public final class ChebyshevEphemeris implements Trajectory {
+    public final static int MAGIC = 0x43484542; // "CHEB"
+    public final static int VERSION = 1;
+    public final static int HEADER_SIZE = 32;
+    public final static int MAX_DEGREE = 32;
+
+    private final static ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final double start;
+    private final double span;
+    private final int degree;
+    private final int segments;
+    private final double[] coefficients;
+
+    private ChebyshevEphemeris(double start, double span, int degree, int segments, double[] coefficients) {
+        this.start = start;
+        this.span = span;
+        this.degree = degree;
+        this.segments = segments;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Fits a trajectory with polynomials of the given degree. The ephemeris covers whole segments from start on,
+     * up to the first segment boundary at or after stop.
+     *
+     * @param trajectory trajectory to fit
+     * @param start      start time [s]
+     * @param stop       end time [s]
+     * @param span       span of each segment [s]
+     * @param degree     degree of the polynomials, 1 to {@link #MAX_DEGREE}
+     * @return the fitted ephemeris
+     */
+    public static ChebyshevEphemeris fit(Trajectory trajectory, double start, double stop, double span, int degree) {
+        if (degree < 1 || degree > MAX_DEGREE) {
+            throw new IllegalArgumentException("degree needs to be in [1, " + MAX_DEGREE + "]");
+        }
+        if (!(span > 0 && stop > start)) {
+            throw new IllegalArgumentException("span and time range need to be positive");
+        }
+        int segments = (int) Math.ceil((stop - start) / span);
+        int n = degree + 1;
+
+        // cos(PI * j * (k + 1/2) / n) of the discrete cosine transform and the nodes in [-1, 1]
+        double[] cosines = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            for (int k = 0; k < n; k++) {
+                cosines[j * n + k] = Math.cos(Math.PI * j * (k + 0.5) / n);
+            }
+        }
+
+        double[] coefficients = new double[3 * n * segments];
+        double[] samples = new double[3 * n];
+        double[] velocities = new double[3 * n];
+        for (int s = 0; s < segments; s++) {
+            double segmentStart = start + s * span;
+            for (int k = 0; k < n; k++) {
+                double x = cosines[n + k];
+                trajectory.stateAt(segmentStart + 0.5 * (x + 1) * span, samples, velocities, 3 * k);
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                int base = (3 * s + axis) * n;
+                for (int j = 0; j < n; j++) {
+                    double sum = 0;
+                    for (int k = 0; k < n; k++) {
+                        sum += samples[3 * k + axis] * cosines[j * n + k];
+                    }
+                    coefficients[base + j] = (j == 0 ? 1.0 : 2.0) / n * sum;
+                }
+            }
+        }
+        return new ChebyshevEphemeris(start, span, degree, segments, coefficients);
+    }
+
+    /**
+     * Fits a trajectory with the smallest degree whose largest position error stays within the tolerance.
+     *
+     * @param trajectory trajectory to fit
+     * @param start      start time [s]
+     * @param stop       end time [s]
+     * @param span       span of each segment [s]
+     * @param tolerance  largest position error [m]
+     * @return the fitted ephemeris
+     * @throws IllegalArgumentException if even {@link #MAX_DEGREE} does not reach the tolerance, use a shorter
+     *                                  span then
+     */
+    public static ChebyshevEphemeris fitWithin(Trajectory trajectory, double start, double stop, double span,
+                                               double tolerance) {
+        for (int degree = 1; degree <= MAX_DEGREE; degree++) {
+            ChebyshevEphemeris ephemeris = fit(trajectory, start, stop, span, degree);
+            if (ephemeris.maxError(trajectory, 2 * degree + 2) <= tolerance) {
+                return ephemeris;
+            }
+        }
+        throw new IllegalArgumentException("tolerance " + tolerance + " not reached with a span of " + span);
+    }
+
+    /**
+     * Largest position error of fits with each combination of span and degree.
+     *
+     * @param trajectory trajectory to fit
+     * @param start      start time [s]
+     * @param stop       end time [s]
+     * @param spans      spans of the segments [s]
+     * @param degrees    degrees of the polynomials
+     * @return the largest position error [m] of spans[i] and degrees[j] at index [i][j]
+     */
+    public static double[][] tradeOff(Trajectory trajectory, double start, double stop, double[] spans,
+                                      int[] degrees) {
+        double[][] errors = new double[spans.length][degrees.length];
+        for (int i = 0; i < spans.length; i++) {
+            for (int j = 0; j < degrees.length; j++) {
+                errors[i][j] = fit(trajectory, start, stop, spans[i], degrees[j])
+                        .maxError(trajectory, 2 * degrees[j] + 2);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Size of the file of a fit, the in-memory size is the same without the header.
+     *
+     * @return the size [bytes]
+     */
+    public static long size(double start, double stop, double span, int degree) {
+        return HEADER_SIZE + 8L * 3 * (degree + 1) * (long) Math.ceil((stop - start) / span);
+    }
+
+    /**
+     * Largest distance between the positions of this ephemeris and a trajectory, sampled at equal intervals.
+     *
+     * @param trajectory reference trajectory
+     * @param samples    number of samples per segment
+     * @return the largest distance [m]
+     */
+    public double maxError(Trajectory trajectory, int samples) {
+        double[] expected = new double[3];
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        double largest = 0;
+        for (int s = 0; s < segments; s++) {
+            for (int k = 0; k <= samples; k++) {
+                double time = start + (s + (double) k / samples) * span;
+                trajectory.stateAt(time, expected, velocity, 0);
+                positionAt(time, position, 0);
+                double dx = position[0] - expected[0];
+                double dy = position[1] - expected[1];
+                double dz = position[2] - expected[2];
+                largest = Math.max(largest, Math.sqrt(dx * dx + dy * dy + dz * dz));
+            }
+        }
+        return largest;
+    }
+
+    public double getStart() {
+        return start;
+    }
+
+    public double getStop() {
+        return start + segments * span;
+    }
+
+    public double getSpan() {
+        return span;
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public int getSegmentCount() {
+        return segments;
+    }
+
+    /**
+     * Calculates the position at the given time.
+     *
+     * @param time     time within [start, stop] [s]
+     * @param position receives the position at indices offset to offset + 2
+     * @param offset   index of the x component
+     */
+    public void positionAt(double time, double[] position, int offset) {
+        int segment = segment(time);
+        double x = 2 * (time - start - segment * span) / span - 1;
+        int n = degree + 1;
+        for (int axis = 0; axis < 3; axis++) {
+            int base = (3 * segment + axis) * n;
+            double b1 = 0;
+            double b2 = 0;
+            for (int k = degree; k >= 1; k--) {
+                double b0 = coefficients[base + k] + 2 * x * b1 - b2;
+                b2 = b1;
+                b1 = b0;
+            }
+            position[offset + axis] = coefficients[base] + x * b1 - b2;
+        }
+    }
+
+    /**
+     * Calculates position and velocity at the given time.
+     *
+     * @param time time within [start, stop] [s]
+     */
+    @Override
+    public void stateAt(double time, double[] position, double[] velocity, int offset) {
+        int segment = segment(time);
+        double x = 2 * (time - start - segment * span) / span - 1;
+        int n = degree + 1;
+        for (int axis = 0; axis < 3; axis++) {
+            int base = (3 * segment + axis) * n;
+            // Clenshaw's recurrence and its derivative with respect to x
+            double b1 = 0;
+            double b2 = 0;
+            double d1 = 0;
+            double d2 = 0;
+            for (int k = degree; k >= 1; k--) {
+                double b0 = coefficients[base + k] + 2 * x * b1 - b2;
+                double d0 = 2 * b1 + 2 * x * d1 - d2;
+                b2 = b1;
+                b1 = b0;
+                d2 = d1;
+                d1 = d0;
+            }
+            position[offset + axis] = coefficients[base] + x * b1 - b2;
+            velocity[offset + axis] = (b1 + x * d1 - d2) * 2 / span;
+        }
+    }
+
+    private int segment(double time) {
+        double segment = Math.floor((time - start) / span);
+        if (segment == segments && time <= getStop()) {
+            return segments - 1;
+        }
+        if (!(segment >= 0 && segment < segments)) {
+            throw new IllegalArgumentException("time " + time + " outside [" + start + ", " + getStop() + "]");
+        }
+        return (int) segment;
+    }
+
+    /**
+     * Writes the ephemeris to a binary file, replacing an existing file.
+     *
+     * @param file ephemeris file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(8192 * 8).order(ORDER);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(degree).putInt(segments).putDouble(start).putDouble(span);
+            for (double coefficient : coefficients) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.putDouble(coefficient);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads an ephemeris written by {@link #write(Path)}.
+     *
+     * @param file ephemeris file
+     * @return the ephemeris
+     * @throws IOException if the file cannot be read or is not a valid ephemeris
+     */
+    public static ChebyshevEphemeris read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("ephemeris header is truncated");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ORDER);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("not a Chebyshev ephemeris file");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("unsupported ephemeris version " + buffer.getInt(4));
+            }
+            int degree = buffer.getInt(8);
+            int segments = buffer.getInt(12);
+            if (degree < 1 || degree > MAX_DEGREE || segments < 1
+                    || channel.size() != HEADER_SIZE + 8L * 3 * (degree + 1) * segments) {
+                throw new IOException("invalid ephemeris layout");
+            }
+            double[] coefficients = new double[3 * (degree + 1) * segments];
+            buffer.position(HEADER_SIZE);
+            buffer.asDoubleBuffer().get(coefficients);
+            return new ChebyshevEphemeris(buffer.getDouble(16), buffer.getDouble(24), degree, segments,
+                    coefficients);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package de.qx.orbicular;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reduced precision encoding of positions for bulk output, e.g. to stream a whole catalogue to a renderer each
+ * frame. Positions are stored relative to an origin chosen per batch, either as floats or as fixed point integers
+ * of a given resolution, in a {@link ByteBuffer} that can be handed to a channel without copying.
+ * <p>
+ * The buffer starts with a {@link #HEADER_SIZE} byte header (encoding, number of positions, origin and
+ * resolution), followed by x, y and z of each position, all little endian, so it can be decoded by
+ * {@link #decode(ByteBuffer, double[])} without further information. The error per component is bounded by
+ * {@link #maxError(double)}:
+ * <ul>
+ * <li>{@link Encoding#FLOAT}: 12 bytes per position, the offset d from the origin is rounded to the nearest
+ * float, i.e. an error of at most |d| * 2^-24. Positions of low earth orbits relative to the earth's center are
+ * kept to 0.5 m, positions near the origin more precisely.</li>
+ * <li>{@link Encoding#INT}: 12 bytes per position, fixed point with an error of at most half the resolution
+ * within the range, e.g. 2 mm over a range of 8000 km.</li>
+ * <li>{@link Encoding#SHORT}: 6 bytes per position, fixed point with an error of at most half the resolution
+ * within the range, e.g. 122 m over a range of 8000 km.</li>
+ * </ul>
+ * Fixed point components beyond the range are clamped to it. Decoding in double precision adds a relative error
+ * of 2^-53 only. Positions as doubles take 24 bytes.
+ */
+public final class CompactPositions {
+    public final static int HEADER_SIZE = 40;
+
+    final static ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    public enum Encoding {
+        FLOAT(4, 0), INT(4, Integer.MAX_VALUE), SHORT(2, Short.MAX_VALUE);
+
+        final int componentSize;
+        final int maxValue;
+
+        Encoding(int componentSize, int maxValue) {
+            this.componentSize = componentSize;
+            this.maxValue = maxValue;
+        }
+
+        /**
+         * @return the size of an encoded position [byte]
+         */
+        public int positionSize() {
+            return 3 * componentSize;
+        }
+    }
+
+    private final Encoding encoding;
+    private final double originX;
+    private final double originY;
+    private final double originZ;
+    private final double resolution;
+
+    private CompactPositions(Encoding encoding, double[] origin, double resolution) {
+        if (origin.length < 3) {
+            throw new IllegalArgumentException("origin needs 3 components");
+        }
+        this.encoding = encoding;
+        this.originX = origin[0];
+        this.originY = origin[1];
+        this.originZ = origin[2];
+        this.resolution = resolution;
+    }
+
+    /**
+     * @param origin origin the positions are stored relative to [m]
+     * @return an encoding as floats
+     */
+    public static CompactPositions floats(double[] origin) {
+        return new CompactPositions(Encoding.FLOAT, origin, 0);
+    }
+
+    /**
+     * @param encoding {@link Encoding#INT} or {@link Encoding#SHORT}
+     * @param origin   origin the positions are stored relative to [m]
+     * @param range    largest component of a position relative to the origin that is not clamped [m], see
+     *                 {@link #range(OrbitBatch, double[])}
+     * @return an encoding as fixed point integers, the resolution is the range divided by the largest integer
+     */
+    public static CompactPositions fixedPoint(Encoding encoding, double[] origin, double range) {
+        if (encoding == Encoding.FLOAT) {
+            throw new IllegalArgumentException("fixed point needs an integer encoding");
+        }
+        if (!(range > 0 && range < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("range needs to be positive and finite");
+        }
+        return new CompactPositions(encoding, origin, range / encoding.maxValue);
+    }
+
+    /**
+     * Bounds the distance of all positions of elliptic orbits from an origin by their apoapsis distances.
+     *
+     * @param orbits orbital parameters, only elliptic orbits
+     * @param origin origin [m]
+     * @return a range of {@link #fixedPoint(Encoding, double[], double)} that never clamps [m]
+     */
+    public static double range(OrbitBatch orbits, double[] origin) {
+        double apoapsis = 0;
+        for (int k = 0; k < orbits.size(); k++) {
+            if (!(orbits.eccentricity[k] < 1)) {
+                throw new IllegalArgumentException("orbit " + k + " is not elliptic");
+            }
+            apoapsis = Math.max(apoapsis, orbits.semiMajorAxis[k] * (1 + orbits.eccentricity[k]));
+        }
+        double distance = Math.sqrt(origin[0] * origin[0] + origin[1] * origin[1] + origin[2] * origin[2]);
+        // a little margin for rounding of the propagated positions
+        return (apoapsis + distance) * (1 + 1e-9);
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * @return the origin [m]
+     */
+    public double[] getOrigin() {
+        return new double[]{originX, originY, originZ};
+    }
+
+    /**
+     * @return the resolution of fixed point encodings, 0 for floats [m]
+     */
+    public double getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param count number of positions
+     * @return the size of a buffer holding the header and count positions [byte]
+     */
+    public int size(int count) {
+        long size = HEADER_SIZE + (long) count * encoding.positionSize();
+        if (count < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid number of positions " + count);
+        }
+        return (int) size;
+    }
+
+    /**
+     * @param distance distance of a position from the origin [m]
+     * @return the largest error of each component of a position at that distance [m]
+     */
+    public double maxError(double distance) {
+        if (encoding == Encoding.FLOAT) {
+            return distance * 0x1p-24;
+        }
+        return distance <= resolution * encoding.maxValue ? resolution / 2 : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Writes the header at the start of the buffer.
+     *
+     * @param buffer buffer of at least {@link #size(int)} bytes, its position and byte order are ignored
+     * @param count  number of positions
+     */
+    public void writeHeader(ByteBuffer buffer, int count) {
+        if (buffer.limit() < size(count)) {
+            throw new IllegalArgumentException("buffer is too small for " + count + " positions");
+        }
+        ByteBuffer out = buffer.duplicate().order(ORDER);
+        out.putInt(0, encoding.ordinal());
+        out.putInt(4, count);
+        out.putDouble(8, originX);
+        out.putDouble(16, originY);
+        out.putDouble(24, originZ);
+        out.putDouble(32, resolution);
+    }
+
+    /**
+     * Encodes positions into the buffer without touching its position, so that disjoint ranges of positions can
+     * be written concurrently.
+     *
+     * @param positions positions, position k at indices offset + 3k to offset + 3k + 2 [m]
+     * @param offset    index of the first x component
+     * @param count     number of positions
+     * @param buffer    buffer receiving the positions after the header, its byte order is ignored
+     * @param index     index of the first position in the buffer
+     */
+    public void encode(double[] positions, int offset, int count, ByteBuffer buffer, int index) {
+        int size = encoding.positionSize();
+        if (index < 0 || HEADER_SIZE + (long) (index + count) * size > buffer.limit()) {
+            throw new IndexOutOfBoundsException("positions " + index + " to " + (index + count) + " exceed buffer");
+        }
+        ByteBuffer out = buffer.duplicate().order(ORDER);
+        int at = HEADER_SIZE + index * size;
+        int end = offset + 3 * count;
+        if (encoding == Encoding.FLOAT) {
+            for (int i = offset; i < end; i += 3, at += 12) {
+                out.putFloat(at, (float) (positions[i] - originX));
+                out.putFloat(at + 4, (float) (positions[i + 1] - originY));
+                out.putFloat(at + 8, (float) (positions[i + 2] - originZ));
+            }
+        } else if (encoding == Encoding.INT) {
+            double scale = 1 / resolution;
+            for (int i = offset; i < end; i += 3, at += 12) {
+                out.putInt(at, (int) quantise((positions[i] - originX) * scale, Integer.MAX_VALUE));
+                out.putInt(at + 4, (int) quantise((positions[i + 1] - originY) * scale, Integer.MAX_VALUE));
+                out.putInt(at + 8, (int) quantise((positions[i + 2] - originZ) * scale, Integer.MAX_VALUE));
+            }
+        } else {
+            double scale = 1 / resolution;
+            for (int i = offset; i < end; i += 3, at += 6) {
+                out.putShort(at, (short) quantise((positions[i] - originX) * scale, Short.MAX_VALUE));
+                out.putShort(at + 2, (short) quantise((positions[i + 1] - originY) * scale, Short.MAX_VALUE));
+                out.putShort(at + 4, (short) quantise((positions[i + 2] - originZ) * scale, Short.MAX_VALUE));
+            }
+        }
+    }
+
+    private static double quantise(double value, int max) {
+        return Math.max(-max, Math.min(max, Math.rint(value)));
+    }
+
+    /**
+     * @param buffer buffer starting with a header
+     * @return the number of positions in the buffer
+     */
+    public static int count(ByteBuffer buffer) {
+        return buffer.duplicate().order(ORDER).getInt(4);
+    }
+
+    /**
+     * Decodes all positions of a buffer written with {@link #writeHeader(ByteBuffer, int)} and
+     * {@link #encode(double[], int, int, ByteBuffer, int)}.
+     *
+     * @param buffer    buffer starting with a header
+     * @param positions receives the positions, position k at indices 3k to 3k + 2 [m]
+     * @return the number of positions
+     */
+    public static int decode(ByteBuffer buffer, double[] positions) {
+        ByteBuffer in = buffer.duplicate().order(ORDER);
+        int ordinal = in.getInt(0);
+        if (ordinal < 0 || ordinal >= Encoding.values().length) {
+            throw new IllegalArgumentException("unknown encoding " + ordinal);
+        }
+        Encoding encoding = Encoding.values()[ordinal];
+        int count = in.getInt(4);
+        double x = in.getDouble(8);
+        double y = in.getDouble(16);
+        double z = in.getDouble(24);
+        double resolution = in.getDouble(32);
+        if (positions.length < 3L * count) {
+            throw new IllegalArgumentException("output array is too small for " + count + " positions");
+        }
+        int at = HEADER_SIZE;
+        for (int i = 0; i < 3 * count; i += 3) {
+            if (encoding == Encoding.FLOAT) {
+                positions[i] = x + in.getFloat(at);
+                positions[i + 1] = y + in.getFloat(at + 4);
+                positions[i + 2] = z + in.getFloat(at + 8);
+            } else if (encoding == Encoding.INT) {
+                positions[i] = x + in.getInt(at) * resolution;
+                positions[i + 1] = y + in.getInt(at + 4) * resolution;
+                positions[i + 2] = z + in.getInt(at + 8) * resolution;
+            } else {
+                positions[i] = x + in.getShort(at) * resolution;
+                positions[i + 1] = y + in.getShort(at + 2) * resolution;
+                positions[i + 2] = z + in.getShort(at + 4) * resolution;
+            }
+            at += encoding.positionSize();
+        }
+        return count;
+    }
+}
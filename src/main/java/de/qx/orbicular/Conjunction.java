@@ -0,0 +1,54 @@
+package de.qx.orbicular;
+
+/**
+ * Close approach of two objects found by {@link ConjunctionScreening}.
+ */
+public final class Conjunction {
+    private final int first;
+    private final int second;
+    private final double timeOfClosestApproach;
+    private final double missDistance;
+    private final double relativeSpeed;
+
+    /**
+     * @param first                 index of the first object, the lower one
+     * @param second                index of the second object
+     * @param timeOfClosestApproach time of closest approach [s]
+     * @param missDistance          distance at the time of closest approach [m]
+     * @param relativeSpeed         relative speed at the time of closest approach [m/s]
+     */
+    public Conjunction(int first, int second, double timeOfClosestApproach, double missDistance,
+                       double relativeSpeed) {
+        this.first = first;
+        this.second = second;
+        this.timeOfClosestApproach = timeOfClosestApproach;
+        this.missDistance = missDistance;
+        this.relativeSpeed = relativeSpeed;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public double getTimeOfClosestApproach() {
+        return timeOfClosestApproach;
+    }
+
+    public double getMissDistance() {
+        return missDistance;
+    }
+
+    public double getRelativeSpeed() {
+        return relativeSpeed;
+    }
+
+    @Override
+    public String toString() {
+        return "Conjunction{" + first + ", " + second + ", tca=" + timeOfClosestApproach
+                + ", miss=" + missDistance + ", speed=" + relativeSpeed + '}';
+    }
+}
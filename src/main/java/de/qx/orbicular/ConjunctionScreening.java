@@ -0,0 +1,452 @@
+package de.qx.orbicular;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds close approaches between the objects of a catalogue within a time window, without comparing all pairs.
+ * <ol>
+ * <li>Perigee/apogee filter: objects whose range of radii, widened by the threshold, does not overlap the range
+ * of any other object can never come close to another object and are dropped.</li>
+ * <li>The remaining objects are propagated with a {@link PropagationEngine} at fixed steps. At each step their
+ * positions are put into a spatial hash grid whose cells are twice as large as the screening distance, so
+ * each object is only compared with the objects of 8 cells. The screening distance is the threshold plus the
+ * distance the objects can approach each other within half a step: twice the largest speed at the grid time
+ * times half a step, plus the deviation due to the relative acceleration, which is bounded by 2 * GM / r^2 at
+ * the smallest perigee r of the screened objects.</li>
+ * <li>Pairs found in the grid are checked for an approach within the threshold along their relative straight
+ * line motion, widened by the largest possible deviation due to gravity. For the remaining pairs the time of
+ * closest approach is refined by regula falsi on the range rate r_rel * v_rel = 0 within the half steps around
+ * the grid time, and the pair is reported if the miss distance is within the threshold.</li>
+ * </ol>
+ * Every approach is refined from the step nearest to it only, so each is reported once. Approaches at the edges
+ * of the window are reported with the time of the edge. The refinement assumes that the range rate of a pair
+ * changes its sign at most once within a step, so the step must not exceed a quarter of the shortest orbital
+ * period in the catalogue, e.g. about 1400 s for low earth orbits.
+ * <p>
+ * Only the propagation runs in parallel. A catalogue of 50000 low earth orbits takes about 50 ms per step on a
+ * single core, about half of it for the propagation.
+ */
+public final class ConjunctionScreening {
+    /**
+     * Accuracy of the time of closest approach [s]
+     */
+    public final static double TIME_TOLERANCE = 1e-6;
+
+    private final static int MAX_ITERATIONS = 100;
+
+    private final double threshold;
+    private final double step;
+    private final PropagationEngine engine;
+
+    /**
+     * Creates a screening propagating on the common pool.
+     *
+     * @param threshold largest miss distance reported [m]
+     * @param step      step of the grid search, at most a quarter of the shortest orbital period [s]
+     */
+    public ConjunctionScreening(double threshold, double step) {
+        this(threshold, step, new PropagationEngine());
+    }
+
+    /**
+     * @param threshold largest miss distance reported [m]
+     * @param step      step of the grid search, at most a quarter of the shortest orbital period [s]
+     * @param engine    engine propagating the catalogue at each step
+     */
+    public ConjunctionScreening(double threshold, double step, PropagationEngine engine) {
+        if (!(threshold > 0 && step > 0)) {
+            throw new IllegalArgumentException("threshold and step need to be positive");
+        }
+        this.threshold = threshold;
+        this.step = step;
+        this.engine = engine;
+    }
+
+    /**
+     * Screens a catalogue for close approaches.
+     *
+     * @param orbits orbital parameters and epochs of the catalogue
+     * @param mass1  mass of body 1 (e.g. earth) [kg]
+     * @param mass2  mass of body 2 [kg]
+     * @param start  start of the window [s]
+     * @param stop   end of the window [s]
+     * @return the close approaches ordered by time, with the indices of the objects in the batch
+     */
+    public List<Conjunction> screen(OrbitBatch orbits, double mass1, double mass2, double start, double stop) {
+        if (!(stop >= start)) {
+            throw new IllegalArgumentException("stop needs to be at or after start");
+        }
+        double GM = Constants.G * (mass1 + mass2);
+
+        int n = orbits.size();
+        double[] perigee = new double[n];
+        double[] apogee = new double[n];
+        for (int k = 0; k < n; k++) {
+            radii(orbits.semiMajorAxis[k], orbits.eccentricity[k], perigee, apogee, k);
+        }
+        int[] active = overlapping(perigee, apogee, threshold);
+
+        int m = active.length;
+        OrbitBatch subset = new OrbitBatch(m);
+        for (int s = 0; s < m; s++) {
+            int k = active[s];
+            subset.semiMajorAxis[s] = orbits.semiMajorAxis[k];
+            subset.eccentricity[s] = orbits.eccentricity[k];
+            subset.inclination[s] = orbits.inclination[k];
+            subset.rightAscension[s] = orbits.rightAscension[k];
+            subset.periapsis[s] = orbits.periapsis[k];
+            subset.meanAnomalyAt0[s] = orbits.meanAnomalyAt0[k];
+            subset.epoch[s] = orbits.epoch[k];
+        }
+
+        Screen screen = new Screen(subset, active, perigee, apogee, GM, start, stop);
+        double[] positions = new double[3 * m];
+        double[] velocities = new double[3 * m];
+        // each step owns the approaches closer to it than to its neighbours
+        double previous = Double.NEGATIVE_INFINITY;
+        for (long k = 0; ; k++) {
+            double time = Math.min(stop, start + k * step);
+            double next = time < stop ? Math.min(stop, start + (k + 1) * step) : Double.POSITIVE_INFINITY;
+            engine.propagate(subset, time, mass1, mass2, positions, velocities);
+            screen.step(time, 0.5 * (previous + time), 0.5 * (time + next), positions, velocities);
+            if (time >= stop) {
+                break;
+            }
+            previous = time;
+        }
+
+        List<Conjunction> conjunctions = screen.conjunctions;
+        conjunctions.sort(Comparator.comparingDouble(Conjunction::getTimeOfClosestApproach));
+        return conjunctions;
+    }
+
+    /**
+     * Smallest and largest radius of an orbit, parabolic and hyperbolic orbits reach infinity.
+     */
+    private static void radii(double semiMajorAxis, double eccentricity, double[] perigee, double[] apogee, int k) {
+        if (eccentricity < 1) {
+            perigee[k] = semiMajorAxis * (1 - eccentricity);
+            apogee[k] = semiMajorAxis * (1 + eccentricity);
+        } else if (eccentricity == 1) {
+            // the semimajor axis of a parabolic orbit holds the semi-latus rectum
+            perigee[k] = semiMajorAxis / 2;
+            apogee[k] = Double.POSITIVE_INFINITY;
+        } else {
+            perigee[k] = Math.abs(semiMajorAxis) * (eccentricity - 1);
+            apogee[k] = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Indices of the objects whose radius range, widened by the threshold, overlaps the range of another
+     * object, in increasing order. In order of increasing perigee an object overlaps an earlier one if the
+     * largest earlier apogee reaches its perigee, and a later one if the next perigee is within its apogee.
+     */
+    static int[] overlapping(double[] perigee, double[] apogee, double threshold) {
+        int n = perigee.length;
+        int[] order = sortedIndices(perigee);
+
+        boolean[] overlaps = new boolean[n];
+        double largestApogee = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < n; s++) {
+            int k = order[s];
+            overlaps[k] = largestApogee + threshold >= perigee[k]
+                    || s + 1 < n && perigee[order[s + 1]] <= apogee[k] + threshold;
+            largestApogee = Math.max(largestApogee, apogee[k]);
+        }
+
+        int count = 0;
+        for (boolean overlap : overlaps) {
+            if (overlap) {
+                count++;
+            }
+        }
+        int[] active = new int[count];
+        for (int k = 0, s = 0; k < n; k++) {
+            if (overlaps[k]) {
+                active[s++] = k;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Indices of the keys in ascending order of the keys, equal keys in ascending order of the indices. Sorts
+     * the keys as primitives and places each index at the rank of its key, without boxing the indices.
+     */
+    static int[] sortedIndices(double[] keys) {
+        int n = keys.length;
+        double[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int[] ties = new int[n];
+        int[] order = new int[n];
+        for (int k = 0; k < n; k++) {
+            // first rank of the key, ordered like Arrays.sort
+            int low = 0;
+            int high = n;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (Double.compare(sorted[middle], keys[k]) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            order[low + ties[low]++] = k;
+        }
+        return order;
+    }
+
+    /**
+     * Grid search and refinement of the screened objects, all buffers are reused between steps.
+     */
+    private final class Screen {
+        private final OrbitBatch orbits;
+        private final int[] index;
+        private final double[] perigee;
+        private final double[] apogee;
+        private final double GM;
+        private final double start;
+        private final double stop;
+        private final double acceleration;  // bound of the relative acceleration of any pair [m/s^2]
+
+        // open addressing hash table of the occupied cells, the key of each slot is followed by the first
+        // object of the linked list of objects in the cell, -1 for free slots
+        private final int bits;
+        private final long[] table;
+        private final int[] next;
+        private final long[] cells;
+
+        private final double[] position1 = new double[3];
+        private final double[] velocity1 = new double[3];
+        private final double[] position2 = new double[3];
+        private final double[] velocity2 = new double[3];
+
+        final List<Conjunction> conjunctions = new ArrayList<>();
+
+        Screen(OrbitBatch orbits, int[] index, double[] perigee, double[] apogee, double GM, double start,
+               double stop) {
+            this.orbits = orbits;
+            this.index = index;
+            this.perigee = perigee;
+            this.apogee = apogee;
+            this.GM = GM;
+            this.start = start;
+            this.stop = stop;
+            double smallestPerigee = Double.POSITIVE_INFINITY;
+            for (int k : index) {
+                smallestPerigee = Math.min(smallestPerigee, perigee[k]);
+            }
+            this.acceleration = 2 * GM / (smallestPerigee * smallestPerigee);
+
+            int size = orbits.size();
+            this.bits = Math.max(4, 33 - Integer.numberOfLeadingZeros(Math.max(1, size)));
+            this.table = new long[2 << bits];
+            this.next = new int[size];
+            this.cells = new long[3 * size];
+        }
+
+        void step(double time, double ownedFrom, double ownedTo, double[] positions, double[] velocities) {
+            int n = orbits.size();
+            double largestSpeed = 0;
+            for (int k = 0; k < n; k++) {
+                double vx = velocities[3 * k];
+                double vy = velocities[3 * k + 1];
+                double vz = velocities[3 * k + 2];
+                largestSpeed = Math.max(largestSpeed, vx * vx + vy * vy + vz * vz);
+            }
+            // approaches owned by this step are at most half a step away
+            double half = 0.5 * step;
+            double distance = threshold + half * 2 * Math.sqrt(largestSpeed) + 0.5 * acceleration * half * half;
+            double distance2 = distance * distance;
+
+            // fill the grid, the cells are twice the screening distance wide
+            double cellSize = 2 * distance;
+            Arrays.fill(table, -1);
+            for (int k = 0; k < n; k++) {
+                for (int j = 0; j < 3; j++) {
+                    cells[3 * k + j] = (long) Math.floor(positions[3 * k + j] / cellSize);
+                }
+                int slot = slot(key(cells[3 * k], cells[3 * k + 1], cells[3 * k + 2]));
+                next[k] = (int) table[2 * slot + 1];
+                table[2 * slot + 1] = k;
+            }
+
+            // along each axis, the objects within the screening distance are in the own cell and in the
+            // neighbouring cell on the side of the nearer cell boundary, so 8 cells are compared
+            double from = Math.max(ownedFrom, time - step);
+            double to = Math.min(ownedTo, time + step);
+            for (int k = 0; k < n; k++) {
+                long cx = cells[3 * k];
+                long cy = cells[3 * k + 1];
+                long cz = cells[3 * k + 2];
+                long ox = positions[3 * k] >= (cx + 0.5) * cellSize ? 1 : -1;
+                long oy = positions[3 * k + 1] >= (cy + 0.5) * cellSize ? 1 : -1;
+                long oz = positions[3 * k + 2] >= (cz + 0.5) * cellSize ? 1 : -1;
+                for (int c = 0; c < 8; c++) {
+                    int slot = find(key(cx + (c & 1) * ox, cy + (c >> 1 & 1) * oy, cz + (c >> 2 & 1) * oz));
+                    for (int j = slot < 0 ? -1 : (int) table[2 * slot + 1]; j >= 0; j = next[j]) {
+                        if (j <= k) {
+                            continue;
+                        }
+                        double rx = positions[3 * j] - positions[3 * k];
+                        double ry = positions[3 * j + 1] - positions[3 * k + 1];
+                        double rz = positions[3 * j + 2] - positions[3 * k + 2];
+                        if (rx * rx + ry * ry + rz * rz > distance2) {
+                            continue;
+                        }
+                        double rMin = Math.min(perigee[index[k]], perigee[index[j]]);
+                        if (Math.max(perigee[index[k]], perigee[index[j]])
+                                - Math.min(apogee[index[k]], apogee[index[j]]) > threshold) {
+                            continue;
+                        }
+                        double vx = velocities[3 * j] - velocities[3 * k];
+                        double vy = velocities[3 * j + 1] - velocities[3 * k + 1];
+                        double vz = velocities[3 * j + 2] - velocities[3 * k + 2];
+                        if (linearMiss(rx, ry, rz, vx, vy, vz, from - time, to - time, 2 * GM / (rMin * rMin))) {
+                            refine(k, j, time, ownedFrom, ownedTo);
+                        }
+                    }
+                }
+            }
+        }
+
+        private long key(long x, long y, long z) {
+            return (x & 0x1FFFFF) << 42 | (y & 0x1FFFFF) << 21 | (z & 0x1FFFFF);
+        }
+
+        private int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - bits));
+        }
+
+        /**
+         * Slot of a cell, claiming a free slot if the cell is not in the table yet.
+         */
+        private int slot(long key) {
+            int mask = (1 << bits) - 1;
+            for (int slot = hash(key); ; slot = (slot + 1) & mask) {
+                if (table[2 * slot + 1] < 0) {
+                    table[2 * slot] = key;
+                    return slot;
+                }
+                if (table[2 * slot] == key) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * Slot of a cell, -1 if no object is in the cell.
+         */
+        private int find(long key) {
+            int mask = (1 << bits) - 1;
+            for (int slot = hash(key); ; slot = (slot + 1) & mask) {
+                if (table[2 * slot + 1] < 0) {
+                    return -1;
+                }
+                if (table[2 * slot] == key) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * Whether two objects can come closer than the threshold between time offsets from and to. Along a
+         * straight line the relative position r + v * t deviates from the true one by at most a * t^2 / 2, where a
+         * bounds the relative acceleration.
+         */
+        private boolean linearMiss(double rx, double ry, double rz, double vx, double vy, double vz,
+                                   double from, double to, double acceleration) {
+            double v2 = vx * vx + vy * vy + vz * vz;
+            double t = v2 > 0 ? -(rx * vx + ry * vy + rz * vz) / v2 : 0;
+            t = Math.max(from, Math.min(to, t));
+            double dx = rx + vx * t;
+            double dy = ry + vy * t;
+            double dz = rz + vz * t;
+            double longest = Math.max(Math.abs(from), Math.abs(to));
+            double reach = threshold + 0.5 * acceleration * longest * longest;
+            return dx * dx + dy * dy + dz * dz <= reach * reach;
+        }
+
+        /**
+         * Finds the time of closest approach within the interval owned by the grid time and reports the approach.
+         */
+        private void refine(int k, int j, double time, double ownedFrom, double ownedTo) {
+            double a = Math.max(start, ownedFrom);
+            double b = Math.min(stop, ownedTo);
+            double fa = rangeRate(k, j, a);
+            double fb = rangeRate(k, j, b);
+
+            double tca;
+            if (fa <= 0 && fb > 0) {
+                // Illinois variant of regula falsi
+                int side = 0;
+                tca = a;
+                for (int i = 0; i < MAX_ITERATIONS && b - a > TIME_TOLERANCE; i++) {
+                    tca = (a * fb - b * fa) / (fb - fa);
+                    double f = rangeRate(k, j, tca);
+                    if (f == 0) {
+                        break;
+                    }
+                    if (f < 0) {
+                        a = tca;
+                        fa = f;
+                        if (side == -1) {
+                            fb *= 0.5;
+                        }
+                        side = -1;
+                    } else {
+                        b = tca;
+                        fb = f;
+                        if (side == 1) {
+                            fa *= 0.5;
+                        }
+                        side = 1;
+                    }
+                }
+            } else if (fa >= 0 && a == start) {
+                tca = start;
+            } else if (fb <= 0 && b == stop) {
+                tca = stop;
+            } else {
+                return;
+            }
+
+            if (tca < ownedFrom || tca >= ownedTo) {
+                return;
+            }
+            rangeRate(k, j, tca);
+            double rx = position2[0] - position1[0];
+            double ry = position2[1] - position1[1];
+            double rz = position2[2] - position1[2];
+            double miss = Math.sqrt(rx * rx + ry * ry + rz * rz);
+            if (miss <= threshold) {
+                double vx = velocity2[0] - velocity1[0];
+                double vy = velocity2[1] - velocity1[1];
+                double vz = velocity2[2] - velocity1[2];
+                conjunctions.add(new Conjunction(index[k], index[j], tca, miss,
+                        Math.sqrt(vx * vx + vy * vy + vz * vz)));
+            }
+        }
+
+        /**
+         * Relative position times relative velocity of two objects, leaves their states in the scratch buffers.
+         */
+        private double rangeRate(int k, int j, double time) {
+            state(k, time, position1, velocity1);
+            state(j, time, position2, velocity2);
+            return (position2[0] - position1[0]) * (velocity2[0] - velocity1[0])
+                    + (position2[1] - position1[1]) * (velocity2[1] - velocity1[1])
+                    + (position2[2] - position1[2]) * (velocity2[2] - velocity1[2]);
+        }
+
+        private void state(int k, double time, double[] position, double[] velocity) {
+            Position.orbitToState(orbits.semiMajorAxis[k], orbits.eccentricity[k], orbits.inclination[k],
+                    orbits.rightAscension[k], orbits.periapsis[k], orbits.meanAnomalyAt0[k], time,
+                    orbits.epoch[k], GM, position, velocity, 0);
+        }
+    }
+}
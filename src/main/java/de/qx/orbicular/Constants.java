@@ -6,4 +6,10 @@ public class Constants {
     public final static double MASS_EARTH = 5.9721986e+24;  // in kg
     public final static double MASS_SUN = 1.989e30;         // in kg
     public final static double AU = 149597870.0;
+
+    public final static double RADIUS_EARTH = 6378137.0;        // equatorial radius in m
+    public final static double FLATTENING_EARTH = 1 / 298.257223563;
+    public final static double ROTATION_EARTH = 7.2921150e-5;  // in rad/s
+    public final static double J2_EARTH = 1.08262668e-3;
+    public final static double J3_EARTH = -2.53265649e-6;
 }
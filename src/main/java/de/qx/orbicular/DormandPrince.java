@@ -0,0 +1,143 @@
+package de.qx.orbicular;
+
+/**
+ * Adaptive Dormand-Prince 5(4) integrator. Each step is accepted if the difference between the fifth and the
+ * embedded fourth order solution is within the tolerances, measured as root mean square over the components
+ * scaled by absolute tolerance + relative tolerance * |component|. The last accepted step size is kept for the
+ * next call, so consecutive calls of an ephemeris do not start over with a small step.
+ */
+public final class DormandPrince implements Integrator {
+    private final static double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+    private final static double A21 = 1.0 / 5;
+    private final static double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private final static double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private final static double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561,
+            A54 = -212.0 / 729;
+    private final static double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176,
+            A65 = -5103.0 / 18656;
+    private final static double A71 = 35.0 / 384, A73 = 500.0 / 1113, A74 = 125.0 / 192, A75 = -2187.0 / 6784,
+            A76 = 11.0 / 84;
+    private final static double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200,
+            E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private final static double SAFETY = 0.9;
+    private final static double MIN_FACTOR = 0.2;
+    private final static double MAX_FACTOR = 5;
+
+    private final double relativeTolerance;
+    private final double positionTolerance;
+    private final double velocityTolerance;
+    private double step;
+
+    private final double[] k1 = new double[6];
+    private final double[] k2 = new double[6];
+    private final double[] k3 = new double[6];
+    private final double[] k4 = new double[6];
+    private final double[] k5 = new double[6];
+    private final double[] k6 = new double[6];
+    private final double[] k7 = new double[6];
+    private final double[] stage = new double[6];
+    private final double[] next = new double[6];
+    private final double[] acceleration = new double[3];
+
+    /**
+     * @param relativeTolerance relative tolerance of each component
+     * @param positionTolerance absolute tolerance of the position components [m]
+     * @param velocityTolerance absolute tolerance of the velocity components [m/s]
+     */
+    public DormandPrince(double relativeTolerance, double positionTolerance, double velocityTolerance) {
+        if (!(relativeTolerance >= 0 && positionTolerance >= 0 && velocityTolerance >= 0)
+                || relativeTolerance + positionTolerance == 0 || relativeTolerance + velocityTolerance == 0) {
+            throw new IllegalArgumentException("tolerances need to be positive");
+        }
+        this.relativeTolerance = relativeTolerance;
+        this.positionTolerance = positionTolerance;
+        this.velocityTolerance = velocityTolerance;
+    }
+
+    @Override
+    public void integrate(ForceModel forces, double t0, double[] state, double t1) {
+        if (t0 == t1) {
+            return;
+        }
+        double direction = Math.signum(t1 - t0);
+        if (step == 0) {
+            // a hundredth of the time to cover the current radius at the current speed
+            double r = Math.sqrt(state[0] * state[0] + state[1] * state[1] + state[2] * state[2]);
+            double v = Math.sqrt(state[3] * state[3] + state[4] * state[4] + state[5] * state[5]);
+            step = v > 0 ? 0.01 * r / v : Math.abs(t1 - t0);
+        }
+
+        double t = t0;
+        NumericalPropagator.derivative(forces, t, state, k1, acceleration);
+        boolean last = false;
+        while (!last) {
+            double h = direction * step;
+            last = direction * (t + h - t1) >= 0;
+            if (last) {
+                h = t1 - t;
+            }
+            if (t + h == t) {
+                throw new IllegalStateException("step size underflow at t = " + t);
+            }
+
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + h * A21 * k1[i];
+            }
+            NumericalPropagator.derivative(forces, t + C2 * h, stage, k2, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + h * (A31 * k1[i] + A32 * k2[i]);
+            }
+            NumericalPropagator.derivative(forces, t + C3 * h, stage, k3, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+            }
+            NumericalPropagator.derivative(forces, t + C4 * h, stage, k4, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+            }
+            NumericalPropagator.derivative(forces, t + C5 * h, stage, k5, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+            }
+            NumericalPropagator.derivative(forces, t + h, stage, k6, acceleration);
+            for (int i = 0; i < 6; i++) {
+                next[i] = state[i] + h * (A71 * k1[i] + A73 * k3[i] + A74 * k4[i] + A75 * k5[i] + A76 * k6[i]);
+            }
+            NumericalPropagator.derivative(forces, t + h, next, k7, acceleration);
+
+            double sum = 0;
+            for (int i = 0; i < 6; i++) {
+                double error = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+                double scale = (i < 3 ? positionTolerance : velocityTolerance)
+                        + relativeTolerance * Math.max(Math.abs(state[i]), Math.abs(next[i]));
+                sum += (error / scale) * (error / scale);
+            }
+            double error = Math.sqrt(sum / 6);
+            // a NaN or infinite derivative would otherwise shrink or grow the step forever
+            if (Double.isNaN(error) || Double.isInfinite(error)) {
+                throw new IllegalStateException("non-finite error estimate at t = " + t);
+            }
+
+            double nextStep;
+            if (error <= 1) {
+                // keep the step of the last full step, a shortened final step says nothing about the next call
+                nextStep = last ? step : Math.abs(h) * Math.min(MAX_FACTOR, SAFETY * Math.pow(error, -0.2));
+            } else {
+                nextStep = Math.abs(h) * Math.max(MIN_FACTOR, SAFETY * Math.pow(error, -0.2));
+            }
+            if (Double.isNaN(nextStep) || Double.isInfinite(nextStep)) {
+                throw new IllegalStateException("non-finite step size at t = " + t);
+            }
+            step = nextStep;
+
+            if (error <= 1) {
+                t = last ? t1 : t + h;
+                System.arraycopy(next, 0, state, 0, 6);
+                System.arraycopy(k7, 0, k1, 0, 6);
+            } else {
+                last = false;
+            }
+        }
+    }
+}
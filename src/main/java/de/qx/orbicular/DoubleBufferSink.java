@@ -0,0 +1,58 @@
+package de.qx.orbicular;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * {@link EphemerisSink} collecting samples in a fixed {@link DoubleBuffer} as 8 values each (object index, time,
+ * position and velocity). Whenever the buffer is full it is handed to a {@link Handler} and reused afterwards, so
+ * memory use is bounded by the buffer size regardless of the length of the ephemeris.
+ */
+public final class DoubleBufferSink implements EphemerisSink {
+    public final static int SAMPLE_SIZE = 8;
+
+    /**
+     * Consumes the samples of a full buffer.
+     */
+    public interface Handler {
+
+        /**
+         * @param buffer flipped buffer holding whole samples, only valid during the call
+         */
+        void handle(DoubleBuffer buffer);
+    }
+
+    private final DoubleBuffer buffer;
+    private final Handler handler;
+
+    /**
+     * @param buffer  buffer receiving the samples, needs room for at least one sample
+     * @param handler consumer of full buffers
+     */
+    public DoubleBufferSink(DoubleBuffer buffer, Handler handler) {
+        if (buffer.capacity() < SAMPLE_SIZE) {
+            throw new IllegalArgumentException("buffer needs room for at least one sample");
+        }
+        this.buffer = buffer;
+        this.handler = handler;
+        buffer.clear();
+    }
+
+    @Override
+    public void accept(int object, double time, double x, double y, double z, double vx, double vy, double vz) {
+        if (buffer.remaining() < SAMPLE_SIZE) {
+            flush();
+        }
+        buffer.put(object).put(time).put(x).put(y).put(z).put(vx).put(vy).put(vz);
+    }
+
+    /**
+     * Hands the samples collected so far to the handler.
+     */
+    public void flush() {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            handler.handle(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,17 @@
+package de.qx.orbicular;
+
+/**
+ * Helpers for the value semantics of {@link Orbit} and {@link State}.
+ */
+final class Doubles {
+
+    private Doubles() {
+    }
+
+    /**
+     * Equality of {@link Double#equals(Object)}, i.e. NaN equals NaN and 0.0 differs from -0.0.
+     */
+    static boolean same(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+}
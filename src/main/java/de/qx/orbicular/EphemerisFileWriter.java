@@ -0,0 +1,71 @@
+package de.qx.orbicular;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link EphemerisSink} streaming samples to a binary file through a fixed direct buffer. Each sample is a record
+ * of {@link #RECORD_SIZE} bytes: the object index as int, 4 bytes padding, then time, position and velocity as
+ * doubles, all little endian.
+ */
+public final class EphemerisFileWriter implements EphemerisSink, Closeable {
+    public final static int RECORD_SIZE = 64;
+
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates or truncates the given file.
+     *
+     * @param file ephemeris file
+     * @throws IOException if the file cannot be opened
+     */
+    public EphemerisFileWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @throws UncheckedIOException if the buffer cannot be written to the file
+     */
+    @Override
+    public void accept(int object, double time, double x, double y, double z, double vx, double vy, double vz) {
+        if (!buffer.hasRemaining()) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffer.putInt(object).putInt(0)
+                .putDouble(time)
+                .putDouble(x).putDouble(y).putDouble(z)
+                .putDouble(vx).putDouble(vy).putDouble(vz);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
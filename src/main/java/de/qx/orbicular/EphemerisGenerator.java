@@ -0,0 +1,140 @@
+package de.qx.orbicular;
+
+/**
+ * Streams ephemerides of one or many trajectories into an {@link EphemerisSink}. Samples are generated one at a time
+ * and handed to the sink immediately, so the memory used does not depend on the length of the time span or
+ * the number of samples.
+ * <p>
+ * With a fixed step the samples are taken at start + k * step up to stop. With an adaptive step the step
+ * follows the curvature of the trajectory: each step sweeps at most a given angle around the central body,
+ * i.e. dt = maxAngle * r^2 / |r x v|, limited to [minStep, maxStep]. The last adaptive step is shortened to end
+ * exactly at stop. Orbits are generated one after another, all samples of an orbit are contiguous.
+ */
+public final class EphemerisGenerator {
+    private final double start;
+    private final double stop;
+    private final double minStep;
+    private final double maxStep;
+    private final double maxAngle;
+
+    /**
+     * Creates a generator with a fixed step.
+     *
+     * @param start time of the first sample [s]
+     * @param stop  end of the time span [s]
+     * @param step  step between samples [s]
+     */
+    public EphemerisGenerator(double start, double stop, double step) {
+        this(start, stop, step, step, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Creates a generator with an adaptive step.
+     *
+     * @param start    time of the first sample [s]
+     * @param stop     time of the last sample [s]
+     * @param minStep  smallest step [s]
+     * @param maxStep  largest step [s]
+     * @param maxAngle largest angle swept around the central body per step [rad]
+     */
+    public EphemerisGenerator(double start, double stop, double minStep, double maxStep, double maxAngle) {
+        if (!(minStep > 0 && maxStep >= minStep && maxStep < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("steps need to be positive and finite with minStep <= maxStep");
+        }
+        if (!(maxAngle > 0)) {
+            throw new IllegalArgumentException("maximum angle needs to be positive");
+        }
+        if (!(stop >= start && start > Double.NEGATIVE_INFINITY && stop < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("start and stop need to be finite with stop at or after start");
+        }
+        this.start = start;
+        this.stop = stop;
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+        this.maxAngle = maxAngle;
+    }
+
+    public boolean isAdaptive() {
+        return minStep < maxStep;
+    }
+
+    /**
+     * Generates the ephemeris of a single trajectory, e.g. an {@link OrbitPropagator}, a
+     * {@link SecularJ2Propagator} or a {@link ChebyshevEphemeris}.
+     *
+     * @param trajectory trajectory of the object
+     * @param object     index passed to the sink
+     * @param sink       receives the samples
+     */
+    public void generate(Trajectory trajectory, int object, EphemerisSink sink) {
+        generate(trajectory, object, sink, new double[3], new double[3]);
+    }
+
+    /**
+     * Generates the ephemerides of several trajectories, the samples of trajectories[k] are passed to the sink
+     * with object index k.
+     *
+     * @param trajectories trajectories of the objects
+     * @param sink         receives the samples
+     */
+    public void generate(Trajectory[] trajectories, EphemerisSink sink) {
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (int k = 0; k < trajectories.length; k++) {
+            generate(trajectories[k], k, sink, position, velocity);
+        }
+    }
+
+    /**
+     * Generates the ephemerides of all orbits of a batch, including parabolic and hyperbolic ones. The samples
+     * of orbit k are passed to the sink with object index k.
+     *
+     * @param orbits orbital parameters and epochs
+     * @param mass1  mass of body 1 (e.g. sun) [kg]
+     * @param mass2  mass of body 2 [kg]
+     * @param sink   receives the samples
+     */
+    public void generate(OrbitBatch orbits, double mass1, double mass2, EphemerisSink sink) {
+        double GM = Constants.G * (mass1 + mass2);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (int k = 0; k < orbits.size(); k++) {
+            int index = k;
+            generate((time, p, v, offset) -> Position.orbitToState(orbits.semiMajorAxis[index],
+                    orbits.eccentricity[index], orbits.inclination[index], orbits.rightAscension[index],
+                    orbits.periapsis[index], orbits.meanAnomalyAt0[index], time, orbits.epoch[index], GM, p, v,
+                    offset), k, sink, position, velocity);
+        }
+    }
+
+    private void generate(Trajectory trajectory, int object, EphemerisSink sink, double[] p, double[] v) {
+        if (!isAdaptive()) {
+            // multiples of the step instead of summing it up, so rounding errors do not accumulate
+            for (long k = 0; ; k++) {
+                double time = start + k * maxStep;
+                if (time > stop) {
+                    break;
+                }
+                trajectory.stateAt(time, p, v, 0);
+                sink.accept(object, time, p[0], p[1], p[2], v[0], v[1], v[2]);
+            }
+            return;
+        }
+
+        double time = start;
+        while (true) {
+            trajectory.stateAt(time, p, v, 0);
+            sink.accept(object, time, p[0], p[1], p[2], v[0], v[1], v[2]);
+            if (time >= stop) {
+                break;
+            }
+            double hx = p[1] * v[2] - p[2] * v[1];
+            double hy = p[2] * v[0] - p[0] * v[2];
+            double hz = p[0] * v[1] - p[1] * v[0];
+            double r2 = p[0] * p[0] + p[1] * p[1] + p[2] * p[2];
+            double step = maxAngle * r2 / Math.sqrt(hx * hx + hy * hy + hz * hz);
+            step = Math.min(maxStep, Math.max(minStep, step));
+            time = Math.min(stop, time + step);
+        }
+    }
+}
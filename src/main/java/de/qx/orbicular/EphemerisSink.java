@@ -0,0 +1,19 @@
+package de.qx.orbicular;
+
+/**
+ * Receives the samples of an {@link EphemerisGenerator} one by one, as primitives.
+ */
+public interface EphemerisSink {
+
+    /**
+     * @param object index of the orbit the sample belongs to
+     * @param time   time [s]
+     * @param x      x component of the position [m]
+     * @param y      y component of the position [m]
+     * @param z      z component of the position [m]
+     * @param vx     x component of the velocity [m/s]
+     * @param vy     y component of the velocity [m/s]
+     * @param vz     z component of the velocity [m/s]
+     */
+    void accept(int object, double time, double x, double y, double z, double vx, double vy, double vz);
+}
@@ -0,0 +1,19 @@
+package de.qx.orbicular;
+
+/**
+ * Acceleration acting on an object, evaluated by the integrators of {@link NumericalPropagator}. States are
+ * primitive buffers holding the position [m] at indices 0 to 2 and the velocity [m/s] at indices 3 to 5,
+ * relative to the central body. Implementations must not allocate, and may keep scratch buffers, in which case
+ * they are not thread-safe.
+ */
+public interface ForceModel {
+
+    /**
+     * Adds the acceleration of this force at the given state.
+     *
+     * @param time         time [s]
+     * @param state        position and velocity
+     * @param acceleration the acceleration [m/s^2] is added to indices 0 to 2
+     */
+    void addAcceleration(double time, double[] state, double[] acceleration);
+}
@@ -0,0 +1,115 @@
+package de.qx.orbicular;
+
+/**
+ * Observer on the earth's surface, with its earth-fixed position and local east/north/up directions calculated
+ * once for topocentric azimuth, elevation and range.
+ */
+public final class GroundStation {
+    private final double latitude;
+    private final double longitude;
+    private final double altitude;
+    private final double minElevation;
+
+    // earth-fixed position [m]
+    final double x;
+    final double y;
+    final double z;
+
+    // earth-fixed unit vectors of the local east, north and up (ellipsoid normal) directions
+    final double eastX;
+    final double eastY;
+    final double northX;
+    final double northY;
+    final double northZ;
+    final double upX;
+    final double upY;
+    final double upZ;
+
+    /**
+     * Creates a station observing down to the horizon.
+     *
+     * @param latitude  geodetic latitude [rad]
+     * @param longitude longitude [rad]
+     * @param altitude  height above the WGS84 ellipsoid [m]
+     */
+    public GroundStation(double latitude, double longitude, double altitude) {
+        this(latitude, longitude, altitude, 0);
+    }
+
+    /**
+     * @param latitude     geodetic latitude [rad]
+     * @param longitude    longitude [rad]
+     * @param altitude     height above the WGS84 ellipsoid [m]
+     * @param minElevation elevation mask, objects below are not visible [rad]
+     */
+    public GroundStation(double latitude, double longitude, double altitude, double minElevation) {
+        if (!(Math.abs(latitude) <= Math.PI / 2)) {
+            throw new IllegalArgumentException("latitude needs to be in [-π/2, π/2]");
+        }
+        if (!(Math.abs(minElevation) < Math.PI / 2)) {
+            throw new IllegalArgumentException("elevation mask needs to be in (-π/2, π/2)");
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.altitude = altitude;
+        this.minElevation = minElevation;
+
+        double[] position = new double[3];
+        Transformation.geodeticToEarthFixed(latitude, longitude, altitude, position, 0);
+        this.x = position[0];
+        this.y = position[1];
+        this.z = position[2];
+
+        double sinLatitude = Math.sin(latitude);
+        double cosLatitude = Math.cos(latitude);
+        double sinLongitude = Math.sin(longitude);
+        double cosLongitude = Math.cos(longitude);
+        this.eastX = -sinLongitude;
+        this.eastY = cosLongitude;
+        this.northX = -sinLatitude * cosLongitude;
+        this.northY = -sinLatitude * sinLongitude;
+        this.northZ = cosLatitude;
+        this.upX = cosLatitude * cosLongitude;
+        this.upY = cosLatitude * sinLongitude;
+        this.upZ = sinLatitude;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public double getMinElevation() {
+        return minElevation;
+    }
+
+    /**
+     * Calculates the direction and distance of an object as seen from this station.
+     *
+     * @param position     earth-fixed position of the object [m] at indices offset to offset + 2
+     * @param offset       index of the x component
+     * @param result       receives the azimuth from north over east in [0, 2π) [rad], the elevation [rad] and
+     *                     the range [m] at indices resultOffset to resultOffset + 2
+     * @param resultOffset index of the azimuth
+     */
+    public void look(double[] position, int offset, double[] result, int resultOffset) {
+        double dx = position[offset] - x;
+        double dy = position[offset + 1] - y;
+        double dz = position[offset + 2] - z;
+        double east = eastX * dx + eastY * dy;
+        double north = northX * dx + northY * dy + northZ * dz;
+        double up = upX * dx + upY * dy + upZ * dz;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double azimuth = Math.atan2(east, north);
+        result[resultOffset] = azimuth < 0 ? azimuth + 2 * Math.PI : azimuth;
+        result[resultOffset + 1] = Math.asin(up / range);
+        result[resultOffset + 2] = range;
+    }
+}
@@ -0,0 +1,33 @@
+package de.qx.orbicular;
+
+/**
+ * Sub-satellite points of a trajectory on the WGS84 ellipsoid.
+ */
+public final class GroundTrack {
+
+    private GroundTrack() {
+    }
+
+    /**
+     * Calculates the ground track at the given times.
+     *
+     * @param trajectory trajectory in the inertial frame
+     * @param times      times [s]
+     * @param gmstAt0    Greenwich mean sidereal time at time 0 [rad], the earth rotates with
+     *                   {@link Constants#ROTATION_EARTH}
+     * @param geodetic   receives the geodetic latitude [rad], longitude [rad] and height [m] at times[j] at
+     *                   indices 3j to 3j + 2
+     */
+    public static void sample(Trajectory trajectory, double[] times, double gmstAt0, double[] geodetic) {
+        if (geodetic.length < 3L * times.length) {
+            throw new IllegalArgumentException("output array is too small for " + times.length + " points");
+        }
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (int j = 0; j < times.length; j++) {
+            trajectory.stateAt(times[j], position, velocity, 0);
+            Transformation.inertialToEarthFixed(gmstAt0 + Constants.ROTATION_EARTH * times[j], position, velocity, 0);
+            Transformation.earthFixedToGeodetic(position, 0, geodetic, 3 * j);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.qx.orbicular;
+
+/**
+ * Numerical integrator of the equations of motion of a {@link ForceModel}. Integrators keep scratch buffers
+ * and are therefore not thread-safe, use one per thread.
+ */
+public interface Integrator {
+
+    /**
+     * Advances a state from t0 to t1 in place.
+     *
+     * @param forces forces acting on the object
+     * @param t0     time of the state [s]
+     * @param state  position [m] at indices 0 to 2 and velocity [m/s] at indices 3 to 5, replaced by the state
+     *               at t1
+     * @param t1     target time [s], may be before t0
+     */
+    void integrate(ForceModel forces, double t0, double[] state, double t1);
+}
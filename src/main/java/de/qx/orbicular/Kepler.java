@@ -0,0 +1,194 @@
+package de.qx.orbicular;
+
+/**
+ * Solvers for Kepler's equation of elliptic, parabolic and hyperbolic orbits.
+ * <p>
+ * The elliptic and hyperbolic solvers apply Danby's quartically converging correction. Elliptic solves start
+ * from the root of the cubic expansion of Kepler's equation for small mean anomalies and from Danby's starting
+ * value otherwise, which converges within two to three corrections for all eccentricities below 1 - 1e-6.
+ * Iteration stops once the correction drops below {@link #TOLERANCE} or stops decreasing, which happens at
+ * the rounding noise floor of nearly parabolic orbits, and is bounded by {@link #MAX_ITERATIONS} in any case.
+ * Solves that hit the bound are counted by {@link Metrics} when enabled.
+ */
+public final class Kepler {
+    /**
+     * Tolerance of the correction step, relative to max(1, |anomaly|)
+     */
+    public final static double TOLERANCE = 4e-15;
+    public final static int MAX_ITERATIONS = 8;
+
+    /**
+     * Danby's method, used by {@link Position} and {@link OrbitPropagator}
+     */
+    public final static KeplerSolver DANBY = new KeplerSolver() {
+        @Override
+        public double eccentricAnomaly(double eccentricity, double meanAnomaly) {
+            return Kepler.eccentricAnomaly(eccentricity, meanAnomaly);
+        }
+    };
+
+    /**
+     * Plain Newton iteration starting at the mean anomaly, bounded by {@link #MAX_ITERATIONS} times 4
+     */
+    public final static KeplerSolver NEWTON = new KeplerSolver() {
+        @Override
+        public double eccentricAnomaly(double eccentricity, double meanAnomaly) {
+            double revolutions = Math.rint(meanAnomaly / (2 * Math.PI)) * 2 * Math.PI;
+            double M = meanAnomaly - revolutions;
+            double E = eccentricity < 0.8 ? M : Math.copySign(Math.PI, M);
+            int i = 0;
+            boolean converged = false;
+            while (i < 4 * MAX_ITERATIONS && !converged) {
+                double dE = (M + eccentricity * Math.sin(E) - E) / (1 - eccentricity * Math.cos(E));
+                E += dE;
+                i++;
+                converged = Math.abs(dE) <= TOLERANCE * Math.max(1, Math.abs(E));
+            }
+            if (Metrics.ENABLED) {
+                Metrics.keplerSolved(eccentricity, i, converged);
+            }
+            return E + revolutions;
+        }
+    };
+
+    private Kepler() {
+    }
+
+    /**
+     * Solves M = E - e * sin(E) for the eccentric anomaly E of an elliptic orbit.
+     *
+     * @param eccentricity eccentricity of orbit, 0 <= e < 1
+     * @param meanAnomaly  mean anomaly [rad]
+     * @return the eccentric anomaly [rad]
+     */
+    public static double eccentricAnomaly(double eccentricity, double meanAnomaly) {
+        double revolutions = Math.rint(meanAnomaly / (2 * Math.PI)) * 2 * Math.PI;
+        double M = meanAnomaly - revolutions;
+        return refineEccentricAnomaly(eccentricity, M, startingValue(eccentricity, M)) + revolutions;
+    }
+
+    /**
+     * Starting value of the eccentric anomaly for {@link #refineEccentricAnomaly(double, double, double)}.
+     *
+     * @param eccentricity eccentricity of orbit, 0 <= e < 1
+     * @param M            mean anomaly reduced to [-PI, PI]
+     * @return the starting value [rad]
+     */
+    static double startingValue(double eccentricity, double M) {
+        if (eccentricity > 0.1 && Math.abs(M) < 1) {
+            return Math.copySign(cubicStart(eccentricity, Math.abs(M)), M);
+        } else {
+            return M + 0.85 * eccentricity * Math.signum(M);
+        }
+    }
+
+    /**
+     * Root of M = (1 - e) * E + e * E^3 / 6, the expansion of Kepler's equation for small E.
+     */
+    private static double cubicStart(double eccentricity, double M) {
+        double p = 6 * (1 - eccentricity) / eccentricity;
+        double q = 3 * M / eccentricity;
+        double A = Math.cbrt(q + Math.sqrt(q * q + p * p * p / 27));
+        return A - p / (3 * A);
+    }
+
+    /**
+     * Applies Danby's correction to a starting value of the eccentric anomaly until it converges.
+     *
+     * @param eccentricity eccentricity of orbit, 0 <= e < 1
+     * @param M            mean anomaly reduced to [-PI, PI]
+     * @param E            starting value of the eccentric anomaly
+     * @return the eccentric anomaly [rad]
+     */
+    static double refineEccentricAnomaly(double eccentricity, double M, double E) {
+        double previous = Double.POSITIVE_INFINITY;
+        int i = 0;
+        boolean converged = false;
+        while (i < MAX_ITERATIONS) {
+            double eSinE = eccentricity * Math.sin(E);
+            double eCosE = eccentricity * Math.cos(E);
+
+            double f = E - eSinE - M;
+            double f1 = 1 - eCosE;
+            double d = danbyStep(f, f1, eSinE, eCosE);
+            double size = Math.abs(d);
+            if (size >= previous) {
+                // stalled at the rounding noise floor
+                converged = true;
+                break;
+            }
+            E += d;
+            i++;
+            if (size <= TOLERANCE * Math.max(1, Math.abs(E))) {
+                converged = true;
+                break;
+            }
+            previous = size;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.keplerSolved(eccentricity, i, converged);
+        }
+        return E;
+    }
+
+    /**
+     * Solves M = e * sinh(H) - H for the hyperbolic anomaly H of a hyperbolic orbit.
+     *
+     * @param eccentricity eccentricity of orbit, e > 1
+     * @param meanAnomaly  hyperbolic mean anomaly [rad]
+     * @return the hyperbolic anomaly
+     */
+    public static double hyperbolicAnomaly(double eccentricity, double meanAnomaly) {
+        double M = Math.abs(meanAnomaly);
+        double H = Math.log(2 * M / eccentricity + 1.8);
+        double previous = Double.POSITIVE_INFINITY;
+        int i = 0;
+        boolean converged = false;
+        while (i < 4 * MAX_ITERATIONS) {
+            double eSinhH = eccentricity * Math.sinh(H);
+            double eCoshH = eccentricity * Math.cosh(H);
+
+            double f = eSinhH - H - M;
+            double f1 = eCoshH - 1;
+            double d = danbyStep(f, f1, eSinhH, eCoshH);
+            double size = Math.abs(d);
+            if (size >= previous) {
+                converged = true;
+                break;
+            }
+            H += d;
+            i++;
+            if (size <= TOLERANCE * Math.max(1, Math.abs(H))) {
+                converged = true;
+                break;
+            }
+            previous = size;
+        }
+        if (Metrics.ENABLED) {
+            Metrics.keplerSolved(eccentricity, i, converged);
+        }
+        return Math.copySign(H, meanAnomaly);
+    }
+
+    /**
+     * Solves Barker's equation D + D^3 / 3 = 2 * M of a parabolic orbit in closed form, where
+     * M = sqrt(GM / p^3) * (t - T) with semi-latus rectum p and time of periapsis passage T.
+     *
+     * @param meanAnomaly parabolic mean anomaly
+     * @return D = tan(ν / 2)
+     */
+    public static double parabolicAnomaly(double meanAnomaly) {
+        double B = 3 * Math.abs(meanAnomaly);
+        double A = Math.cbrt(B + Math.sqrt(B * B + 1));
+        return Math.copySign(A - 1 / A, meanAnomaly);
+    }
+
+    /**
+     * Danby's quartically converging correction for a root of f with derivatives f1, f2 and f3.
+     */
+    static double danbyStep(double f, double f1, double f2, double f3) {
+        double d1 = -f / f1;
+        double d2 = -f / (f1 + 0.5 * d1 * f2);
+        return -f / (f1 + 0.5 * d2 * f2 + d2 * d2 * f3 / 6);
+    }
+}
@@ -0,0 +1,15 @@
+package de.qx.orbicular;
+
+/**
+ * Solves Kepler's equation M = E - e * sin(E) of an elliptic orbit for the eccentric anomaly E.
+ * See {@link Kepler} for the available implementations.
+ */
+public interface KeplerSolver {
+
+    /**
+     * @param eccentricity eccentricity of orbit, 0 <= e < 1
+     * @param meanAnomaly  mean anomaly [rad]
+     * @return the eccentric anomaly [rad], continuous in the mean anomaly
+     */
+    double eccentricAnomaly(double eccentricity, double meanAnomaly);
+}
@@ -0,0 +1,57 @@
+package de.qx.orbicular;
+
+/**
+ * {@link KeplerSolver} that interpolates its starting value from a precomputed table of eccentric anomalies over
+ * eccentricity and mean anomaly, so a single correction step of {@link Kepler} usually reaches machine precision.
+ * A table with 64 x 256 cells takes 130 kB and on average saves one iteration per solve compared to
+ * {@link Kepler#DANBY}.
+ */
+public final class KeplerStarterTable implements KeplerSolver {
+    private final int eccentricitySteps;
+    private final int anomalySteps;
+    private final double[] table;
+
+    /**
+     * @param eccentricitySteps number of table cells along the eccentricity axis [0, 1]
+     * @param anomalySteps      number of table cells along the mean anomaly axis [0, PI]
+     */
+    public KeplerStarterTable(int eccentricitySteps, int anomalySteps) {
+        if (eccentricitySteps < 1 || anomalySteps < 1) {
+            throw new IllegalArgumentException("table needs at least one cell along each axis");
+        }
+        this.eccentricitySteps = eccentricitySteps;
+        this.anomalySteps = anomalySteps;
+        this.table = new double[(eccentricitySteps + 1) * (anomalySteps + 1)];
+        for (int i = 0; i <= eccentricitySteps; i++) {
+            double e = Math.min((double) i / eccentricitySteps, 1 - 1e-12);
+            for (int j = 0; j <= anomalySteps; j++) {
+                table[i * (anomalySteps + 1) + j] = Kepler.eccentricAnomaly(e, Math.PI * j / anomalySteps);
+            }
+        }
+    }
+
+    @Override
+    public double eccentricAnomaly(double eccentricity, double meanAnomaly) {
+        double revolutions = Math.rint(meanAnomaly / (2 * Math.PI)) * 2 * Math.PI;
+        double M = meanAnomaly - revolutions;
+        double start = Math.copySign(lookup(eccentricity, Math.abs(M)), M);
+        return Kepler.refineEccentricAnomaly(eccentricity, M, start) + revolutions;
+    }
+
+    /**
+     * Bilinear interpolation of the table.
+     */
+    private double lookup(double eccentricity, double M) {
+        double u = eccentricity * eccentricitySteps;
+        double v = M / Math.PI * anomalySteps;
+        int i = Math.min((int) u, eccentricitySteps - 1);
+        int j = Math.min((int) v, anomalySteps - 1);
+        double fu = u - i;
+        double fv = v - j;
+
+        int k = i * (anomalySteps + 1) + j;
+        double lower = table[k] + fv * (table[k + 1] - table[k]);
+        double upper = table[k + anomalySteps + 1] + fv * (table[k + anomalySteps + 2] - table[k + anomalySteps + 1]);
+        return lower + fu * (upper - lower);
+    }
+}
@@ -0,0 +1,304 @@
+package de.qx.orbicular;
+
+/**
+ * Solves Lambert's problem, the orbit connecting two positions in a given time of flight, with the algorithm
+ * of Izzo (Revisiting Lambert's problem, 2015). The problem is reduced to the non-dimensional time of flight
+ * T(x) of one parameter λ of the geometry, which is inverted by Householder iterations of third order from an
+ * initial guess that is close enough for convergence in two to three iterations. Transfers with complete
+ * revolutions have two solutions each, left and right of the minimum time of flight of that number of
+ * revolutions.
+ * <p>
+ * The transfer direction is prograde (counterclockwise seen from +z) unless retrograde is requested. Transfer
+ * angles of exactly 0 or π do not define a plane and have no solution.
+ */
+public final class Lambert {
+    /**
+     * Tolerance of the Householder iterations on x
+     */
+    public final static double TOLERANCE = 1e-11;
+    public final static int MAX_ITERATIONS = 15;
+
+    // x2tof switches to a series around x = 1 and to Lagrange's expression near it
+    private final static double BATTIN = 0.01;
+    private final static double LAGRANGE = 0.2;
+
+    private Lambert() {
+    }
+
+    /**
+     * Finds the prograde transfer without complete revolutions.
+     *
+     * @param r1           position at departure [m]
+     * @param r2           position at arrival [m]
+     * @param timeOfFlight time of flight [s]
+     * @param mass1        mass of body 1 (e.g. sun) [kg]
+     * @param mass2        mass of body 2 [kg]
+     * @return the states at departure and arrival
+     */
+    public static State[] solve(double[] r1, double[] r2, double timeOfFlight, double mass1, double mass2) {
+        double[] v1 = new double[3];
+        double[] v2 = new double[3];
+        solve(r1, r2, timeOfFlight, mass1, mass2, false, 0, v1, v2);
+        return new State[]{new State(r1, v1), new State(r2, v2)};
+    }
+
+    /**
+     * Finds all transfers with up to the given number of complete revolutions. Solution 0 has no complete
+     * revolution, solutions 2m - 1 and 2m have m revolutions, on the left and the right branch of the minimum time
+     * of flight of m revolutions.
+     *
+     * @param r1             position at departure [m]
+     * @param r2             position at arrival [m]
+     * @param timeOfFlight   time of flight [s]
+     * @param mass1          mass of body 1 (e.g. sun) [kg]
+     * @param mass2          mass of body 2 [kg]
+     * @param retrograde     whether to transfer clockwise seen from +z
+     * @param maxRevolutions largest number of complete revolutions
+     * @param v1             receives the velocity at departure of solution k at indices 3k to 3k + 2 [m/s]
+     * @param v2             receives the velocity at arrival of solution k at indices 3k to 3k + 2 [m/s]
+     * @return the number of solutions, fewer than 2 * maxRevolutions + 1 if the time of flight is too short
+     */
+    public static int solve(double[] r1, double[] r2, double timeOfFlight, double mass1, double mass2,
+                            boolean retrograde, int maxRevolutions, double[] v1, double[] v2) {
+        if (!(timeOfFlight > 0)) {
+            throw new IllegalArgumentException("time of flight needs to be positive");
+        }
+        if (maxRevolutions < 0) {
+            throw new IllegalArgumentException("number of revolutions needs to be non-negative");
+        }
+        if (v1.length < 3 * (2 * maxRevolutions + 1) || v2.length < 3 * (2 * maxRevolutions + 1)) {
+            throw new IllegalArgumentException("output arrays are too small for " + (2 * maxRevolutions + 1)
+                    + " solutions");
+        }
+        int solutions = solve(r1, 0, r2, 0, timeOfFlight, Constants.G * (mass1 + mass2), retrograde,
+                maxRevolutions, v1, v2, 0);
+        if (solutions == 0) {
+            throw new IllegalArgumentException("positions are collinear, the transfer plane is undefined");
+        }
+        return solutions;
+    }
+
+    /**
+     * Allocation-free kernel of {@link #solve(double[], double[], double, double, double, boolean, int, double[],
+     * double[])}.
+     *
+     * @return the number of solutions, 0 if the positions are collinear
+     */
+    static int solve(double[] r1, int offset1, double[] r2, int offset2, double timeOfFlight, double GM,
+                     boolean retrograde, int maxRevolutions, double[] v1, double[] v2, int offset) {
+        double r1x = r1[offset1];
+        double r1y = r1[offset1 + 1];
+        double r1z = r1[offset1 + 2];
+        double r2x = r2[offset2];
+        double r2y = r2[offset2 + 1];
+        double r2z = r2[offset2 + 2];
+        double r1n = Math.sqrt(r1x * r1x + r1y * r1y + r1z * r1z);
+        double r2n = Math.sqrt(r2x * r2x + r2y * r2y + r2z * r2z);
+        double cx = r2x - r1x;
+        double cy = r2y - r1y;
+        double cz = r2z - r1z;
+        double c = Math.sqrt(cx * cx + cy * cy + cz * cz);
+        double s = 0.5 * (r1n + r2n + c);
+
+        // unit vectors of the radial directions and of the transfer plane normal
+        double i1x = r1x / r1n;
+        double i1y = r1y / r1n;
+        double i1z = r1z / r1n;
+        double i2x = r2x / r2n;
+        double i2y = r2y / r2n;
+        double i2z = r2z / r2n;
+        double hx = i1y * i2z - i1z * i2y;
+        double hy = i1z * i2x - i1x * i2z;
+        double hz = i1x * i2y - i1y * i2x;
+        double h = Math.sqrt(hx * hx + hy * hy + hz * hz);
+        if (!(h > 0)) {
+            return 0;
+        }
+        hx /= h;
+        hy /= h;
+        hz /= h;
+
+        double lambda = Math.sqrt(Math.max(0, 1 - c / s));
+        // tangential unit vectors in the direction of motion
+        double direction = 1;
+        if (hz < 0) {
+            lambda = -lambda;
+            direction = -1;
+        }
+        if (retrograde) {
+            lambda = -lambda;
+            direction = -direction;
+        }
+        double t1x = direction * (hy * i1z - hz * i1y);
+        double t1y = direction * (hz * i1x - hx * i1z);
+        double t1z = direction * (hx * i1y - hy * i1x);
+        double t2x = direction * (hy * i2z - hz * i2y);
+        double t2y = direction * (hz * i2x - hx * i2z);
+        double t2z = direction * (hx * i2y - hy * i2x);
+
+        double T = Math.sqrt(2 * GM / (s * s * s)) * timeOfFlight;
+        double gamma = Math.sqrt(0.5 * GM * s);
+        double rho = (r1n - r2n) / c;
+        double sigma = Math.sqrt(Math.max(0, 1 - rho * rho));
+
+        int revolutions = Math.min(maxRevolutions, revolutions(lambda, T));
+        int solutions = 0;
+        for (int m = 0; m <= revolutions; m++) {
+            for (int branch = m == 0 ? 1 : 0; branch < 2; branch++) {
+                double x = householder(lambda, T, initialGuess(lambda, T, m, branch), m);
+                double y = Math.sqrt(1 - lambda * lambda * (1 - x * x));
+                double vr1 = gamma * ((lambda * y - x) - rho * (lambda * y + x)) / r1n;
+                double vr2 = -gamma * ((lambda * y - x) + rho * (lambda * y + x)) / r2n;
+                double vt = gamma * sigma * (y + lambda * x);
+                double vt1 = vt / r1n;
+                double vt2 = vt / r2n;
+                int index = offset + 3 * solutions;
+                v1[index] = vr1 * i1x + vt1 * t1x;
+                v1[index + 1] = vr1 * i1y + vt1 * t1y;
+                v1[index + 2] = vr1 * i1z + vt1 * t1z;
+                v2[index] = vr2 * i2x + vt2 * t2x;
+                v2[index + 1] = vr2 * i2y + vt2 * t2y;
+                v2[index + 2] = vr2 * i2z + vt2 * t2z;
+                solutions++;
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Largest number of complete revolutions possible within the non-dimensional time of flight T.
+     */
+    private static int revolutions(double lambda, double T) {
+        int revolutions = (int) (T / Math.PI);
+        if (revolutions == 0) {
+            return 0;
+        }
+        double T00 = Math.acos(lambda) + lambda * Math.sqrt(1 - lambda * lambda);
+        double T0 = T00 + revolutions * Math.PI;
+        if (T >= T0) {
+            return revolutions;
+        }
+        // the minimum time of flight of this many revolutions lies at x > 0, found by Halley iterations on dT/dx
+        double x = 0;
+        double tMin = T0;
+        for (int i = 0; i < 12; i++) {
+            double umx2 = 1 - x * x;
+            double y = Math.sqrt(1 - lambda * lambda * umx2);
+            double l2 = lambda * lambda;
+            double l3 = l2 * lambda;
+            double dT = (3 * tMin * x - 2 + 2 * l3 * x / y) / umx2;
+            double ddT = (3 * tMin + 5 * x * dT + 2 * (1 - l2) * l3 / (y * y * y)) / umx2;
+            double dddT = (7 * x * ddT + 8 * dT - 6 * (1 - l2) * l2 * l3 * x / (y * y * y * y * y)) / umx2;
+            double next = x - dT * ddT / (ddT * ddT - 0.5 * dT * dddT);
+            boolean converged = Math.abs(next - x) < 1e-13;
+            x = next;
+            tMin = timeOfFlight(lambda, x, revolutions);
+            if (converged) {
+                break;
+            }
+        }
+        return tMin > T ? revolutions - 1 : revolutions;
+    }
+
+    /**
+     * Initial guess of x for the given number of revolutions, branch 0 is left and branch 1 right of the minimum.
+     */
+    private static double initialGuess(double lambda, double T, int revolutions, int branch) {
+        if (revolutions == 0) {
+            double T00 = Math.acos(lambda) + lambda * Math.sqrt(1 - lambda * lambda);
+            double T1 = 2.0 / 3 * (1 - lambda * lambda * lambda);
+            if (T >= T00) {
+                return -(T - T00) / (T - T00 + 4);
+            }
+            if (T <= T1) {
+                return T1 * (T1 - T) / (0.4 * (1 - Math.pow(lambda, 5))) + 1;
+            }
+            return Math.pow(T / T00, Math.log(2) / Math.log(T1 / T00)) - 1;
+        }
+        double ratio = branch == 0
+                ? Math.pow((revolutions * Math.PI + Math.PI) / (8 * T), 2.0 / 3)
+                : Math.pow(8 * T / (revolutions * Math.PI), 2.0 / 3);
+        return (ratio - 1) / (ratio + 1);
+    }
+
+    /**
+     * Inverts T(x) by Householder iterations of third order.
+     */
+    private static double householder(double lambda, double T, double x, int revolutions) {
+        double l2 = lambda * lambda;
+        double l3 = l2 * lambda;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double tof = timeOfFlight(lambda, x, revolutions);
+            double umx2 = 1 - x * x;
+            double y = Math.sqrt(1 - l2 * umx2);
+            double dT = (3 * tof * x - 2 + 2 * l3 * x / y) / umx2;
+            double ddT = (3 * tof + 5 * x * dT + 2 * (1 - l2) * l3 / (y * y * y)) / umx2;
+            double dddT = (7 * x * ddT + 8 * dT - 6 * (1 - l2) * l2 * l3 * x / (y * y * y * y * y)) / umx2;
+            double delta = tof - T;
+            double dT2 = dT * dT;
+            double next = x - delta * (dT2 - 0.5 * delta * ddT)
+                    / (dT * (dT2 - delta * ddT) + dddT * delta * delta / 6);
+            if (Math.abs(next - x) < TOLERANCE) {
+                return next;
+            }
+            x = next;
+        }
+        return x;
+    }
+
+    /**
+     * Non-dimensional time of flight as a function of x.
+     */
+    static double timeOfFlight(double lambda, double x, int revolutions) {
+        double distance = Math.abs(x - 1);
+        if (distance < LAGRANGE && distance > BATTIN) {
+            return lagrange(lambda, x, revolutions);
+        }
+        double K = lambda * lambda;
+        double E = x * x - 1;
+        double rho = Math.abs(E);
+        double z = Math.sqrt(1 + K * E);
+        if (distance < BATTIN) {
+            double eta = z - lambda * x;
+            double S1 = 0.5 * (1 - lambda - x * eta);
+            double Q = 4.0 / 3 * hypergeometric(S1);
+            return (eta * eta * eta * Q + 4 * lambda * eta) / 2 + revolutions * Math.PI / Math.pow(rho, 1.5);
+        }
+        double y = Math.sqrt(rho);
+        double g = x * z - lambda * E;
+        double d;
+        if (E < 0) {
+            d = revolutions * Math.PI + Math.acos(g);
+        } else {
+            double f = y * (z - lambda * x);
+            d = Math.log(f + g);
+        }
+        return (x - lambda * z - d / y) / E;
+    }
+
+    private static double lagrange(double lambda, double x, int revolutions) {
+        double a = 1 / (1 - x * x);
+        if (a > 0) {
+            double alpha = 2 * Math.acos(x);
+            double beta = Math.copySign(2 * Math.asin(Math.sqrt(lambda * lambda / a)), lambda);
+            return 0.5 * a * Math.sqrt(a) * ((alpha - Math.sin(alpha)) - (beta - Math.sin(beta))
+                    + 2 * Math.PI * revolutions);
+        }
+        double alpha = 2 * Math.log(x + Math.sqrt(x * x - 1));
+        double beta = Math.copySign(2 * Position.asinh(Math.sqrt(-lambda * lambda / a)), lambda);
+        return -0.5 * a * Math.sqrt(-a) * ((beta - Math.sinh(beta)) - (alpha - Math.sinh(alpha)));
+    }
+
+    /**
+     * Gauss' hypergeometric function 2F1(3, 1, 5/2, z) by its series.
+     */
+    private static double hypergeometric(double z) {
+        double sum = 1;
+        double term = 1;
+        for (int j = 0; j < 100 && Math.abs(term) > 1e-11; j++) {
+            term *= (3 + j) * (1 + j) / (2.5 + j) * z / (j + 1);
+            sum += term;
+        }
+        return sum;
+    }
+}
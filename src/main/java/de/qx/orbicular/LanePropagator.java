@@ -0,0 +1,186 @@
+package de.qx.orbicular;
+
+/**
+ * Batch propagation that processes {@link #LANES} orbits at once in structure-of-arrays blocks. Kepler's
+ * equation is solved lane-wise: every lane takes Danby's correction of {@link Kepler} and drops out of the
+ * iteration as soon as it has converged, the block finishes when no lane is left. The state is built from the
+ * eccentric anomaly directly, without the {@link Math#atan(double)}/{@link Math#tan(double)} round trip through
+ * the true anomaly of the scalar kernel.
+ * <p>
+ * The batch entry points run on the {@link #backend()}: the SIMD implementation of the optional orbicular-vector
+ * module if it is on the class path and the JVM runs with {@code --add-modules jdk.incubator.vector}, otherwise
+ * the portable blocked loop of this class, {@link #FALLBACK}. Both agree with
+ * {@link Position#orbitsToStates(OrbitBatch, double, double, double, double[], double[])} to rounding error but
+ * are not bit-identical. Parabolic and hyperbolic orbits are delegated to the scalar kernel.
+ */
+public final class LanePropagator {
+    public final static int LANES = 8;
+
+    /**
+     * Name of the SIMD backend in the orbicular-vector module
+     */
+    final static String VECTOR_BACKEND = "de.qx.orbicular.VectorPropagator";
+
+    /**
+     * Portable backend, blocks of {@link #LANES} orbits in plain Java
+     */
+    public final static BatchPropagator FALLBACK = new BatchPropagator() {
+        @Override
+        public void orbitsToStates(OrbitBatch orbits, int from, int to, double time, double GM,
+                                   double[] positions, double[] velocities, int offset) {
+            LanePropagator.orbitsToStates(orbits, from, to, time, GM, positions, velocities, offset);
+        }
+    };
+
+    private final static BatchPropagator BACKEND = select();
+
+    private LanePropagator() {
+    }
+
+    /**
+     * Selects the backend once. The SIMD backend is skipped if it is missing, if the incubator module is not
+     * resolved, which fails its class initialisation, or if the JVM runs with {@code -Dorbicular.vector=false}.
+     */
+    private static BatchPropagator select() {
+        if (!Boolean.parseBoolean(System.getProperty("orbicular.vector", "true"))) {
+            return FALLBACK;
+        }
+        try {
+            Class<?> backend = Class.forName(VECTOR_BACKEND, true, LanePropagator.class.getClassLoader());
+            return (BatchPropagator) backend.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return FALLBACK;
+        }
+    }
+
+    /**
+     * @return the backend of the batch entry points, the SIMD backend if available, else {@link #FALLBACK}
+     */
+    public static BatchPropagator backend() {
+        return BACKEND;
+    }
+
+    /**
+     * Calculates the states of all orbits of a batch at the given time with the {@link #backend()}, using the
+     * layout of {@link Position#orbitsToStates(OrbitBatch, double, double, double, double[], double[])}.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param time       time [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the positions, needs at least 3 * orbits.size() entries
+     * @param velocities receives the velocities, needs at least 3 * orbits.size() entries
+     */
+    public static void orbitsToStates(OrbitBatch orbits, double time, double mass1, double mass2,
+                                      double[] positions, double[] velocities) {
+        if (positions.length < 3 * orbits.size() || velocities.length < 3 * orbits.size()) {
+            throw new IllegalArgumentException("output arrays are too small for " + orbits.size() + " states");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        BACKEND.orbitsToStates(orbits, 0, orbits.size(), time, Constants.G * (mass1 + mass2), positions,
+                velocities, 0);
+        if (Metrics.ENABLED) {
+            Metrics.orbitToState(orbits.size(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Implementation of {@link #FALLBACK}, the state of orbit k is written to offset + 3k to offset + 3k + 2. The
+     * Kepler solves of all lanes are counted by {@link Metrics} when enabled, the calls by the callers.
+     */
+    static void orbitsToStates(OrbitBatch orbits, int from, int to, double time, double GM,
+                               double[] positions, double[] velocities, int offset) {
+        double[] e = new double[LANES];
+        double[] a = new double[LANES];
+        double[] M = new double[LANES];
+        double[] E = new double[LANES];
+        double[] previous = new double[LANES];
+        int[] iterations = new int[LANES];
+        boolean[] active = new boolean[LANES];
+        boolean[] elliptic = new boolean[LANES];
+        Mat3 rotation = new Mat3();
+
+        for (int block = from; block < to; block += LANES) {
+            int lanes = Math.min(LANES, to - block);
+
+            // mean anomaly and starting value
+            for (int l = 0; l < lanes; l++) {
+                int k = block + l;
+                e[l] = orbits.eccentricity[k];
+                a[l] = orbits.semiMajorAxis[k];
+                elliptic[l] = e[l] < 1;
+                active[l] = elliptic[l];
+                if (!elliptic[l]) {
+                    Position.orbitToState(a[l], e[l], orbits.inclination[k], orbits.rightAscension[k],
+                            orbits.periapsis[k], orbits.meanAnomalyAt0[k], time, orbits.epoch[k], GM,
+                            positions, velocities, offset + 3 * k);
+                    continue;
+                }
+                double n = Math.sqrt(GM / (a[l] * a[l] * a[l]));
+                double meanAnomaly = orbits.meanAnomalyAt0[k] + n * (time - orbits.epoch[k]);
+                M[l] = meanAnomaly - Math.rint(meanAnomaly / (2 * Math.PI)) * 2 * Math.PI;
+                E[l] = Kepler.startingValue(e[l], M[l]);
+                previous[l] = Double.POSITIVE_INFINITY;
+                iterations[l] = 0;
+            }
+
+            // lane-wise Danby iteration, converged lanes are masked out
+            boolean any = true;
+            for (int i = 0; i < Kepler.MAX_ITERATIONS && any; i++) {
+                any = false;
+                for (int l = 0; l < lanes; l++) {
+                    if (!active[l]) {
+                        continue;
+                    }
+                    double eSinE = e[l] * Math.sin(E[l]);
+                    double eCosE = e[l] * Math.cos(E[l]);
+                    double d = Kepler.danbyStep(E[l] - eSinE - M[l], 1 - eCosE, eSinE, eCosE);
+                    double size = Math.abs(d);
+                    if (size >= previous[l]) {
+                        active[l] = false;
+                        continue;
+                    }
+                    E[l] += d;
+                    iterations[l]++;
+                    previous[l] = size;
+                    active[l] = size > Kepler.TOLERANCE * Math.max(1, Math.abs(E[l]));
+                    any |= active[l];
+                }
+            }
+            if (Metrics.ENABLED) {
+                // lanes still active hit the iteration limit
+                for (int l = 0; l < lanes; l++) {
+                    if (elliptic[l]) {
+                        Metrics.keplerSolved(e[l], iterations[l], !active[l]);
+                    }
+                }
+            }
+
+            // perifocal state rotated to the inertial frame
+            for (int l = 0; l < lanes; l++) {
+                if (!elliptic[l]) {
+                    continue;
+                }
+                int k = block + l;
+                double cosE = Math.cos(E[l]);
+                double sinE = Math.sin(E[l]);
+                double semiMinorRatio = Math.sqrt((1 - e[l]) * (1 + e[l]));
+                double x = a[l] * (cosE - e[l]);
+                double y = a[l] * semiMinorRatio * sinE;
+                double vFactor = Math.sqrt(GM * a[l]) / (a[l] * (1 - e[l] * cosE));
+                double vx = -vFactor * sinE;
+                double vy = vFactor * semiMinorRatio * cosE;
+
+                Transformation.orbitalPlaneToInertial(orbits.rightAscension[k], orbits.periapsis[k],
+                        orbits.inclination[k], rotation);
+                int j = offset + 3 * k;
+                positions[j] = rotation.m00 * x + rotation.m01 * y;
+                positions[j + 1] = rotation.m10 * x + rotation.m11 * y;
+                positions[j + 2] = rotation.m20 * x + rotation.m21 * y;
+                velocities[j] = rotation.m00 * vx + rotation.m01 * vy;
+                velocities[j + 1] = rotation.m10 * vx + rotation.m11 * vy;
+                velocities[j + 2] = rotation.m20 * vx + rotation.m21 * vy;
+            }
+        }
+    }
+}
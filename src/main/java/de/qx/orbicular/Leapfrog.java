@@ -0,0 +1,48 @@
+package de.qx.orbicular;
+
+/**
+ * Symplectic second order integrator with a fixed step (kick-drift-kick leapfrog, velocity Verlet). For
+ * conservative forces the energy error stays bounded over arbitrarily many revolutions instead of drifting,
+ * which makes it the choice for long, coarse propagations. Velocity dependent forces such as drag are evaluated
+ * with the velocity after the first kick, the integration is then no longer exactly symplectic.
+ */
+public final class Leapfrog implements Integrator {
+    private final double step;
+
+    private final double[] acceleration = new double[3];
+
+    /**
+     * @param step largest step [s]
+     */
+    public Leapfrog(double step) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("step needs to be positive");
+        }
+        this.step = step;
+    }
+
+    @Override
+    public void integrate(ForceModel forces, double t0, double[] state, double t1) {
+        long steps = (long) Math.ceil(Math.abs(t1 - t0) / step);
+        double h = (t1 - t0) / steps;
+        accelerate(forces, t0, state);
+        for (long n = 0; n < steps; n++) {
+            // kick, drift, kick, the acceleration of the second kick is reused by the next step
+            for (int i = 0; i < 3; i++) {
+                state[i + 3] += 0.5 * h * acceleration[i];
+                state[i] += h * state[i + 3];
+            }
+            accelerate(forces, t0 + (n + 1) * h, state);
+            for (int i = 0; i < 3; i++) {
+                state[i + 3] += 0.5 * h * acceleration[i];
+            }
+        }
+    }
+
+    private void accelerate(ForceModel forces, double time, double[] state) {
+        acceleration[0] = 0;
+        acceleration[1] = 0;
+        acceleration[2] = 0;
+        forces.addAcceleration(time, state, acceleration);
+    }
+}
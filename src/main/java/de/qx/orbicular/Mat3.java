@@ -0,0 +1,144 @@
+package de.qx.orbicular;
+
+/**
+ * Mutable row-major 3x3 matrix with primitive fields, the allocation free counterpart of {@link Matrix}.
+ * All operations work in place or write to a given destination, which may alias the operands.
+ */
+public final class Mat3 {
+    public double m00, m01, m02;
+    public double m10, m11, m12;
+    public double m20, m21, m22;
+
+    public Mat3() {
+    }
+
+    public Mat3 set(double m00, double m01, double m02,
+                    double m10, double m11, double m12,
+                    double m20, double m21, double m22) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        return this;
+    }
+
+    public Mat3 identity() {
+        return set(1, 0, 0, 0, 1, 0, 0, 0, 1);
+    }
+
+    /**
+     * Sets this matrix to the coordinate system rotation of {@link Matrix#getRotationMatrix(double, int)}.
+     *
+     * @param angle rotation angle in radians
+     * @param axis  Numbers 1, 2 or 3, representing x, y and z-axis
+     * @return this matrix
+     */
+    public Mat3 rotation(double angle, int axis) {
+        double cosAlpha = rotationCos(angle);
+        double sinAlpha = rotationSin(angle);
+
+        switch (axis) {
+            case 1:
+                return set(1, 0, 0, 0, cosAlpha, sinAlpha, 0, -sinAlpha, cosAlpha);
+            case 2:
+                return set(cosAlpha, 0, -sinAlpha, 0, 1, 0, sinAlpha, 0, cosAlpha);
+            case 3:
+                return set(cosAlpha, sinAlpha, 0, -sinAlpha, cosAlpha, 0, 0, 0, 1);
+            default:
+                throw new IllegalArgumentException("Rotation axis has to be 1, 2 or 3");
+        }
+    }
+
+    /**
+     * Sets this matrix to the product a * b.
+     */
+    public Mat3 multiply(Mat3 a, Mat3 b) {
+        return set(
+                a.m00 * b.m00 + a.m01 * b.m10 + a.m02 * b.m20,
+                a.m00 * b.m01 + a.m01 * b.m11 + a.m02 * b.m21,
+                a.m00 * b.m02 + a.m01 * b.m12 + a.m02 * b.m22,
+                a.m10 * b.m00 + a.m11 * b.m10 + a.m12 * b.m20,
+                a.m10 * b.m01 + a.m11 * b.m11 + a.m12 * b.m21,
+                a.m10 * b.m02 + a.m11 * b.m12 + a.m12 * b.m22,
+                a.m20 * b.m00 + a.m21 * b.m10 + a.m22 * b.m20,
+                a.m20 * b.m01 + a.m21 * b.m11 + a.m22 * b.m21,
+                a.m20 * b.m02 + a.m21 * b.m12 + a.m22 * b.m22);
+    }
+
+    public Mat3 transpose() {
+        return set(m00, m10, m20, m01, m11, m21, m02, m12, m22);
+    }
+
+    /**
+     * Writes the product of this matrix and v to result.
+     */
+    public Vec3 multiply(Vec3 v, Vec3 result) {
+        return result.set(
+                m00 * v.x + m01 * v.y + m02 * v.z,
+                m10 * v.x + m11 * v.y + m12 * v.z,
+                m20 * v.x + m21 * v.y + m22 * v.z);
+    }
+
+    /**
+     * Writes the product of the transpose of this matrix and v to result.
+     */
+    public Vec3 transposeMultiply(Vec3 v, Vec3 result) {
+        return result.set(
+                m00 * v.x + m10 * v.y + m20 * v.z,
+                m01 * v.x + m11 * v.y + m21 * v.z,
+                m02 * v.x + m12 * v.y + m22 * v.z);
+    }
+
+    /**
+     * Cosine term of a coordinate system rotation, snapped to exact values near multiples of PI / 2.
+     *
+     * @param angle rotation angle in radians
+     * @return the cosine used for the rotation matrix
+     */
+    static double rotationCos(double angle) {
+        double alpha = angle % (2 * Math.PI);
+
+        if (isEqual(alpha, 0)) {
+            return 1;
+        } else if (alpha == Math.PI / 2 || alpha == -3 * Math.PI / 2) {
+            return 0;
+        } else if (isEqual(alpha, Math.PI) || isEqual(alpha, -Math.PI)) {
+            return -1;
+        } else if (isEqual(alpha, 3 * Math.PI / 2) || isEqual(alpha, -Math.PI / 2)) {
+            return 0;
+        } else {
+            return Math.cos(alpha);
+        }
+    }
+
+    /**
+     * Sine term of a coordinate system rotation, snapped to exact values near multiples of PI / 2.
+     *
+     * @param angle rotation angle in radians
+     * @return the sine used for the rotation matrix
+     */
+    static double rotationSin(double angle) {
+        double alpha = angle % (2 * Math.PI);
+
+        if (isEqual(alpha, 0)) {
+            return 0;
+        } else if (alpha == Math.PI / 2 || alpha == -3 * Math.PI / 2) {
+            return 1;
+        } else if (isEqual(alpha, Math.PI) || isEqual(alpha, -Math.PI)) {
+            return 0;
+        } else if (isEqual(alpha, 3 * Math.PI / 2) || isEqual(alpha, -Math.PI / 2)) {
+            return -1;
+        } else {
+            return Math.sin(alpha);
+        }
+    }
+
+    private static boolean isEqual(double a, double b) {
+        return Math.abs(b - a) <= 0.0000001;
+    }
+}
@@ -62,26 +62,8 @@ class Matrix {
      * @return a 3x3 Matrix
      */
     static Matrix getRotationMatrix(double angle, int axis) {
-        double alpha = angle % (2 * Math.PI);
-
-        double cosAlpha, sinAlpha;
-
-        if (isEqual(alpha, 0)) {
-            cosAlpha = 1;
-            sinAlpha = 0;
-        } else if (alpha == Math.PI / 2 || alpha == -3 / 2 * Math.PI) {
-            cosAlpha = 0;
-            sinAlpha = 1;
-        } else if (isEqual(alpha, Math.PI) || isEqual(alpha, -Math.PI)) {
-            cosAlpha = -1;
-            sinAlpha = 0;
-        } else if (isEqual(alpha, 3 / 2 * Math.PI) || isEqual(alpha, -Math.PI / 2)) {
-            cosAlpha = 0;
-            sinAlpha = -1;
-        } else {
-            cosAlpha = Math.cos(alpha);
-            sinAlpha = Math.sin(alpha);
-        }
+        double cosAlpha = Mat3.rotationCos(angle);
+        double sinAlpha = Mat3.rotationSin(angle);
 
         switch (axis) {
             case 1:
@@ -94,8 +76,4 @@ class Matrix {
                 throw new IllegalArgumentException("Rotation axis has to be 1, 2 or 3");
         }
     }
-
-    private static boolean isEqual(double a, double b) {
-        return Math.abs(b - a) <= 0.0000001;
-    }
 }
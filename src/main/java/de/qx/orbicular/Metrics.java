@@ -0,0 +1,218 @@
+package de.qx.orbicular;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in counters of the hot paths: iterations of the Kepler solvers per eccentricity band, solves that hit
+ * {@link Kepler#MAX_ITERATIONS} without converging, and calls and time spent converting between orbits and
+ * states.
+ * <p>
+ * Conversions are counted by the public entry points of {@link Position}, {@link LanePropagator},
+ * {@link PropagationEngine} and {@link CatalogueFile}, once per state, Kepler solves by the solvers and the lane
+ * backends. Other classes that call the allocation free kernels, e.g. the propagators and screening, are counted
+ * through the Kepler solves only.
+ * <p>
+ * Metrics are enabled by starting the JVM with {@code -Dorbicular.metrics=true}. The flag is read once into the
+ * constant {@link #ENABLED}, which the JIT folds, so the instrumentation is removed from compiled code when it is
+ * disabled. When enabled, the counters are {@link LongAdder}s, which spread concurrent updates over striped cells
+ * instead of contending on one field. Counters are global and may be read at any time, e.g. by a metrics
+ * registry polling them; a read during updates is not a consistent snapshot.
+ * <p>
+ * Java Flight Recorder events of the counters are in the optional orbicular-jfr module. The library is compiled
+ * against the Java 8 API with {@code --release 8}, which does not contain jdk.jfr even though OpenJDK 8u262 and
+ * later ship it, so the events are registered by reflection when metrics are enabled and the module is on the
+ * class path.
+ */
+public final class Metrics {
+    public final static boolean ENABLED = Boolean.getBoolean("orbicular.metrics");
+
+    /**
+     * Upper bounds of the elliptic eccentricity bands, a last band counts hyperbolic solves
+     */
+    private final static double[] BAND_BOUNDS = {0.1, 0.5, 0.9, 0.99, 1};
+    public final static int BANDS = BAND_BOUNDS.length + 1;
+
+    /**
+     * Largest iteration count of the histograms, i.e. the bound of the hyperbolic solver
+     */
+    public final static int MAX_ITERATIONS = 4 * Kepler.MAX_ITERATIONS;
+
+    private final static LongAdder[] iterations = adders(BANDS * (MAX_ITERATIONS + 1));
+    private final static LongAdder[] failures = adders(BANDS);
+    private final static LongAdder orbitToStateCalls = new LongAdder();
+    private final static LongAdder orbitToStateNanos = new LongAdder();
+    private final static LongAdder stateToOrbitCalls = new LongAdder();
+    private final static LongAdder stateToOrbitNanos = new LongAdder();
+
+    /**
+     * Registers the periodic events of the orbicular-jfr module in its static initialiser
+     */
+    final static String JFR_EVENTS = "de.qx.orbicular.MetricsEvents";
+
+    static {
+        if (ENABLED) {
+            try {
+                Class.forName(JFR_EVENTS, true, Metrics.class.getClassLoader());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // no events without the module or the jdk.jfr module of the JVM
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * @param eccentricity eccentricity of orbit
+     * @return the band the eccentricity is counted in
+     */
+    public static int band(double eccentricity) {
+        int band = 0;
+        while (band < BAND_BOUNDS.length && !(eccentricity < BAND_BOUNDS[band])) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * Counts a solve of Kepler's equation, only called when {@link #ENABLED}.
+     *
+     * @param eccentricity eccentricity of orbit
+     * @param count        number of corrections applied
+     * @param converged    false if the solver stopped at its iteration limit
+     */
+    static void keplerSolved(double eccentricity, int count, boolean converged) {
+        int band = band(eccentricity);
+        iterations[band * (MAX_ITERATIONS + 1) + Math.min(count, MAX_ITERATIONS)].increment();
+        if (!converged) {
+            failures[band].increment();
+        }
+    }
+
+    /**
+     * Counts conversions of orbits to states, only called when {@link #ENABLED}.
+     *
+     * @param count number of conversions
+     * @param nanos time spent [ns]
+     */
+    static void orbitToState(int count, long nanos) {
+        orbitToStateCalls.add(count);
+        orbitToStateNanos.add(nanos);
+    }
+
+    /**
+     * Counts conversions of states to orbits, only called when {@link #ENABLED}.
+     *
+     * @param count number of conversions
+     * @param nanos time spent [ns]
+     */
+    static void stateToOrbit(int count, long nanos) {
+        stateToOrbitCalls.add(count);
+        stateToOrbitNanos.add(nanos);
+    }
+
+    /**
+     * @param band  eccentricity band, see {@link #band(double)}
+     * @param count number of corrections, 0 to {@link #MAX_ITERATIONS}
+     * @return the number of solves that took the given number of corrections
+     */
+    public static long getKeplerIterations(int band, int count) {
+        if (band < 0 || band >= BANDS || count < 0 || count > MAX_ITERATIONS) {
+            throw new IndexOutOfBoundsException("no histogram entry for band " + band + " and count " + count);
+        }
+        return iterations[band * (MAX_ITERATIONS + 1) + count].sum();
+    }
+
+    /**
+     * @param band eccentricity band, see {@link #band(double)}
+     * @return the number of solves of the band
+     */
+    public static long getKeplerSolves(int band) {
+        long solves = 0;
+        for (int count = 0; count <= MAX_ITERATIONS; count++) {
+            solves += getKeplerIterations(band, count);
+        }
+        return solves;
+    }
+
+    /**
+     * @param band eccentricity band, see {@link #band(double)}
+     * @return the number of solves of the band that stopped at the iteration limit without converging
+     */
+    public static long getKeplerFailures(int band) {
+        if (band < 0 || band >= BANDS) {
+            throw new IndexOutOfBoundsException("no band " + band);
+        }
+        return failures[band].sum();
+    }
+
+    public static long getOrbitToStateCalls() {
+        return orbitToStateCalls.sum();
+    }
+
+    /**
+     * @return the time spent converting orbits to states [ns]
+     */
+    public static long getOrbitToStateNanos() {
+        return orbitToStateNanos.sum();
+    }
+
+    public static long getStateToOrbitCalls() {
+        return stateToOrbitCalls.sum();
+    }
+
+    /**
+     * @return the time spent converting states to orbits [ns]
+     */
+    public static long getStateToOrbitNanos() {
+        return stateToOrbitNanos.sum();
+    }
+
+    /**
+     * Sets all counters to zero, concurrent updates may or may not be kept.
+     */
+    public static void reset() {
+        for (LongAdder adder : iterations) {
+            adder.reset();
+        }
+        for (LongAdder adder : failures) {
+            adder.reset();
+        }
+        orbitToStateCalls.reset();
+        orbitToStateNanos.reset();
+        stateToOrbitCalls.reset();
+        stateToOrbitNanos.reset();
+    }
+
+    /**
+     * @return a human readable summary of all counters
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("orbitToState: ").append(getOrbitToStateCalls()).append(" calls, ")
+                .append(getOrbitToStateNanos()).append(" ns\n");
+        report.append("stateToOrbit: ").append(getStateToOrbitCalls()).append(" calls, ")
+                .append(getStateToOrbitNanos()).append(" ns\n");
+        for (int band = 0; band < BANDS; band++) {
+            report.append(band < BAND_BOUNDS.length ? "e < " + BAND_BOUNDS[band] : "e > 1")
+                    .append(": ").append(getKeplerSolves(band)).append(" solves, ")
+                    .append(getKeplerFailures(band)).append(" not converged, iterations");
+            for (int count = 0; count <= MAX_ITERATIONS; count++) {
+                long solves = getKeplerIterations(band, count);
+                if (solves > 0) {
+                    report.append(' ').append(count).append(':').append(solves);
+                }
+            }
+            report.append('\n');
+        }
+        return report.toString();
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int k = 0; k < count; k++) {
+            adders[k] = new LongAdder();
+        }
+        return adders;
+    }
+}
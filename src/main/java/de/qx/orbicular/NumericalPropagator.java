@@ -0,0 +1,106 @@
+package de.qx.orbicular;
+
+/**
+ * Propagates a {@link State} by numerical integration of the equations of motion under a sum of
+ * {@link ForceModel}s, e.g. {@link CentralGravity} with {@link ZonalHarmonics} and {@link AtmosphericDrag} for
+ * low earth orbits. The states are kept in primitive buffers (see {@link ForceModel}), so the integration does
+ * not allocate. Propagators share the scratch buffers of their integrator and forces and are not thread-safe.
+ */
+public final class NumericalPropagator {
+    private final Integrator integrator;
+    private final ForceModel[] forces;
+    private final ForceModel sum;
+
+    /**
+     * @param integrator integrator of the equations of motion
+     * @param forces     forces acting on the object, including the central body
+     */
+    public NumericalPropagator(Integrator integrator, ForceModel... forces) {
+        if (forces.length == 0) {
+            throw new IllegalArgumentException("at least one force model is needed");
+        }
+        this.integrator = integrator;
+        this.forces = forces.clone();
+        this.sum = this::addAcceleration;
+    }
+
+    private void addAcceleration(double time, double[] state, double[] acceleration) {
+        for (ForceModel force : forces) {
+            force.addAcceleration(time, state, acceleration);
+        }
+    }
+
+    /**
+     * Calculates the state at the given time.
+     *
+     * @param state state at t0
+     * @param t0    time of the state [s]
+     * @param time  time [s]
+     * @return the {@link State} at the given time
+     */
+    public State propagate(State state, double t0, double time) {
+        double[] buffer = {
+                state.getX(), state.getY(), state.getZ(),
+                state.getVx(), state.getVy(), state.getVz()
+        };
+        propagate(buffer, t0, time);
+        return new State(buffer[0], buffer[1], buffer[2], buffer[3], buffer[4], buffer[5]);
+    }
+
+    /**
+     * Advances a state in place.
+     *
+     * @param state position [m] at indices 0 to 2 and velocity [m/s] at indices 3 to 5, replaced by the state
+     *              at the given time
+     * @param t0    time of the state [s]
+     * @param time  time [s]
+     */
+    public void propagate(double[] state, double t0, double time) {
+        if (state.length < 6) {
+            throw new IllegalArgumentException("state needs 6 entries");
+        }
+        integrator.integrate(sum, t0, state, time);
+    }
+
+    /**
+     * Calculates the states at all given times, integrating from one time to the next. The state at times[k] is
+     * written to indices 3k to 3k+2, the state buffer is left at the last time.
+     *
+     * @param state      position and velocity at t0, see {@link #propagate(double[], double, double)}
+     * @param t0         time of the state [s]
+     * @param times      times [s], preferably ordered
+     * @param positions  receives the positions, needs at least 3 * times.length entries
+     * @param velocities receives the velocities, needs at least 3 * times.length entries
+     */
+    public void ephemeris(double[] state, double t0, double[] times, double[] positions, double[] velocities) {
+        if (positions.length < 3 * times.length || velocities.length < 3 * times.length) {
+            throw new IllegalArgumentException("output arrays are too small for " + times.length + " states");
+        }
+        double time = t0;
+        for (int k = 0; k < times.length; k++) {
+            propagate(state, time, times[k]);
+            time = times[k];
+            System.arraycopy(state, 0, positions, 3 * k, 3);
+            System.arraycopy(state, 3, velocities, 3 * k, 3);
+        }
+    }
+
+    /**
+     * Evaluates the derivative of a state, the velocity and the acceleration of all forces.
+     *
+     * @param acceleration scratch buffer of 3 entries
+     */
+    static void derivative(ForceModel forces, double time, double[] state, double[] derivative,
+                           double[] acceleration) {
+        acceleration[0] = 0;
+        acceleration[1] = 0;
+        acceleration[2] = 0;
+        forces.addAcceleration(time, state, acceleration);
+        derivative[0] = state[3];
+        derivative[1] = state[4];
+        derivative[2] = state[5];
+        derivative[3] = acceleration[0];
+        derivative[4] = acceleration[1];
+        derivative[5] = acceleration[2];
+    }
+}
@@ -1,12 +1,16 @@
 package de.qx.orbicular;
 
-public class Orbit {
-    private double semiMajorAxis;   // semimajor axis of orbit [m]
-    private double eccentricity;    // eccentricity of orbit
-    private double inclination;     // inclination of orbit [rad]
-    private double rightAscension;  // right ascension of orbit [rad]
-    private double periapsis;       // argument of periapsis of orbit [rad]
-    private double meanAnomalyAt0;  // mean anomaly at epoch
+/**
+ * Keplerian elements of an orbit, an immutable value. Catalogues of many orbits are better kept in an
+ * {@link OrbitBatch} or an {@link OrbitStore}.
+ */
+public final class Orbit {
+    private final double semiMajorAxis;   // semimajor axis of orbit [m]
+    private final double eccentricity;    // eccentricity of orbit
+    private final double inclination;     // inclination of orbit [rad]
+    private final double rightAscension;  // right ascension of orbit [rad]
+    private final double periapsis;       // argument of periapsis of orbit [rad]
+    private final double meanAnomalyAt0;  // mean anomaly at epoch
 
     public Orbit(double semiMajorAxis, double eccentricity, double inclination, double rightAscension, double periapsis, double meanAnomalyAt0) {
         this.semiMajorAxis = semiMajorAxis;
@@ -40,4 +44,34 @@ public class Orbit {
     public double getPeriapsis() {
         return periapsis;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Orbit)) {
+            return false;
+        }
+        Orbit orbit = (Orbit) o;
+        return Doubles.same(semiMajorAxis, orbit.semiMajorAxis) && Doubles.same(eccentricity, orbit.eccentricity)
+                && Doubles.same(inclination, orbit.inclination) && Doubles.same(rightAscension, orbit.rightAscension)
+                && Doubles.same(periapsis, orbit.periapsis) && Doubles.same(meanAnomalyAt0, orbit.meanAnomalyAt0);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(semiMajorAxis);
+        hash = 31 * hash + Double.hashCode(eccentricity);
+        hash = 31 * hash + Double.hashCode(inclination);
+        hash = 31 * hash + Double.hashCode(rightAscension);
+        hash = 31 * hash + Double.hashCode(periapsis);
+        return 31 * hash + Double.hashCode(meanAnomalyAt0);
+    }
+
+    @Override
+    public String toString() {
+        return "Orbit{a=" + semiMajorAxis + ", e=" + eccentricity + ", i=" + inclination + ", raan="
+                + rightAscension + ", periapsis=" + periapsis + ", M0=" + meanAnomalyAt0 + '}';
+    }
 }
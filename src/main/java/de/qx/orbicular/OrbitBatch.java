@@ -0,0 +1,73 @@
+package de.qx.orbicular;
+
+/**
+ * Orbital elements of many objects stored as parallel primitive columns, one entry per object.
+ * Used by the batch methods of {@link Position} to propagate whole catalogues without per-object allocation.
+ */
+public final class OrbitBatch {
+    public final double[] semiMajorAxis;   // semimajor axis of orbit [m]
+    public final double[] eccentricity;    // eccentricity of orbit
+    public final double[] inclination;     // inclination of orbit [rad]
+    public final double[] rightAscension;  // right ascension of orbit [rad]
+    public final double[] periapsis;       // argument of periapsis of orbit [rad]
+    public final double[] meanAnomalyAt0;  // mean anomaly at epoch
+    public final double[] epoch;           // epoch of given elements [s]
+
+    public OrbitBatch(int size) {
+        this(new double[size], new double[size], new double[size], new double[size],
+                new double[size], new double[size], new double[size]);
+    }
+
+    public OrbitBatch(double[] semiMajorAxis, double[] eccentricity, double[] inclination, double[] rightAscension,
+                      double[] periapsis, double[] meanAnomalyAt0, double[] epoch) {
+        int size = semiMajorAxis.length;
+        if (eccentricity.length != size || inclination.length != size || rightAscension.length != size
+                || periapsis.length != size || meanAnomalyAt0.length != size || epoch.length != size) {
+            throw new IllegalArgumentException("all element columns need to have the same length");
+        }
+        this.semiMajorAxis = semiMajorAxis;
+        this.eccentricity = eccentricity;
+        this.inclination = inclination;
+        this.rightAscension = rightAscension;
+        this.periapsis = periapsis;
+        this.meanAnomalyAt0 = meanAnomalyAt0;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Copies the given orbits into a new batch.
+     *
+     * @param orbits orbital parameters
+     * @param epochs epoch of the elements of each orbit
+     * @return a batch holding the elements of all orbits
+     */
+    public static OrbitBatch of(Orbit[] orbits, double[] epochs) {
+        if (orbits.length != epochs.length) {
+            throw new IllegalArgumentException("orbits and epochs need to have the same length");
+        }
+        OrbitBatch batch = new OrbitBatch(orbits.length);
+        for (int k = 0; k < orbits.length; k++) {
+            batch.set(k, orbits[k], epochs[k]);
+        }
+        return batch;
+    }
+
+    public int size() {
+        return semiMajorAxis.length;
+    }
+
+    public void set(int index, Orbit orbit, double t0) {
+        semiMajorAxis[index] = orbit.getSemiMajorAxis();
+        eccentricity[index] = orbit.getEccentricity();
+        inclination[index] = orbit.getInclination();
+        rightAscension[index] = orbit.getRightAscension();
+        periapsis[index] = orbit.getPeriapsis();
+        meanAnomalyAt0[index] = orbit.getMeanAnomalyAt0();
+        epoch[index] = t0;
+    }
+
+    public Orbit getOrbit(int index) {
+        return new Orbit(semiMajorAxis[index], eccentricity[index], inclination[index], rightAscension[index],
+                periapsis[index], meanAnomalyAt0[index]);
+    }
+}
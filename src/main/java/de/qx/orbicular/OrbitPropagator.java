@@ -0,0 +1,138 @@
+package de.qx.orbicular;
+
+/**
+ * Propagates a single elliptic {@link Orbit} to arbitrary points in time. All time-invariant values of
+ * {@link Position#orbitToState(Orbit, double, double, double, double)} (gravitational parameter, mean motion
+ * and the perifocal to inertial rotation) are calculated once, so each evaluation only solves Kepler's
+ * equation and rotates the perifocal position and velocity.
+ */
+public final class OrbitPropagator implements Trajectory {
+    private final Orbit orbit;
+    private final double t0;
+    private final KeplerSolver solver;
+
+    private final double eccentricity;
+    private final double semiMajorAxis;
+    private final double meanAnomalyAt0;
+    private final double meanMotion;       // [rad/s]
+    private final double semiMinorRatio;   // sqrt(1 - e^2)
+    private final double sqrtGMa;          // sqrt(GM * a)
+
+    private final Mat3 rotation;
+
+    /**
+     * @param orbit orbital parameters, the eccentricity has to be below 1
+     * @param t0    epoch of given elements
+     * @param mass1 mass of body 1 (e.g. sun) [kg]
+     * @param mass2 mass of body 2 [kg]
+     */
+    public OrbitPropagator(Orbit orbit, double t0, double mass1, double mass2) {
+        this(orbit, t0, mass1, mass2, Kepler.DANBY);
+    }
+
+    /**
+     * @param orbit  orbital parameters, the eccentricity has to be below 1
+     * @param t0     epoch of given elements
+     * @param mass1  mass of body 1 (e.g. sun) [kg]
+     * @param mass2  mass of body 2 [kg]
+     * @param solver solver for Kepler's equation
+     */
+    public OrbitPropagator(Orbit orbit, double t0, double mass1, double mass2, KeplerSolver solver) {
+        if (!(orbit.getEccentricity() >= 0 && orbit.getEccentricity() < 1)) {
+            throw new IllegalArgumentException("eccentricity needs to be in [0, 1)");
+        }
+        this.orbit = orbit;
+        this.t0 = t0;
+        this.solver = solver;
+
+        double GM = Constants.G * (mass1 + mass2);
+        double a = orbit.getSemiMajorAxis();
+        double e = orbit.getEccentricity();
+
+        this.eccentricity = e;
+        this.semiMajorAxis = a;
+        this.meanAnomalyAt0 = orbit.getMeanAnomalyAt0();
+        this.meanMotion = Math.sqrt(GM / (a * a * a));
+        this.semiMinorRatio = Math.sqrt((1 - e) * (1 + e));
+        this.sqrtGMa = Math.sqrt(GM * a);
+
+        this.rotation = Transformation.orbitalPlaneToInertial(orbit.getRightAscension(), orbit.getPeriapsis(),
+                orbit.getInclination(), new Mat3());
+    }
+
+    public Orbit getOrbit() {
+        return orbit;
+    }
+
+    public double getEpoch() {
+        return t0;
+    }
+
+    /**
+     * @return the mean motion [rad/s]
+     */
+    public double getMeanMotion() {
+        return meanMotion;
+    }
+
+    /**
+     * Calculates the state at the given time.
+     *
+     * @param time time [s]
+     * @return a {@link State} containing the position and velocity of the orbiting object
+     */
+    public State stateAt(double time) {
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        stateAt(time, position, velocity, 0);
+        return new State(position, velocity);
+    }
+
+    /**
+     * Calculates the state at the given time without allocating.
+     *
+     * @param time     time [s]
+     * @param position receives the position at indices offset to offset + 2
+     * @param velocity receives the velocity at indices offset to offset + 2
+     * @param offset   index of the x components
+     */
+    @Override
+    public void stateAt(double time, double[] position, double[] velocity, int offset) {
+        double E = solver.eccentricAnomaly(eccentricity, meanAnomalyAt0 + meanMotion * (time - t0));
+        double cosE = Math.cos(E);
+        double sinE = Math.sin(E);
+
+        // perifocal position and velocity
+        double x = semiMajorAxis * (cosE - eccentricity);
+        double y = semiMajorAxis * semiMinorRatio * sinE;
+        double vFactor = sqrtGMa / (semiMajorAxis * (1 - eccentricity * cosE));
+        double vx = -vFactor * sinE;
+        double vy = vFactor * semiMinorRatio * cosE;
+
+        // the perifocal z components are 0, only the first two columns of the rotation contribute
+        Mat3 m = rotation;
+        position[offset] = m.m00 * x + m.m01 * y;
+        position[offset + 1] = m.m10 * x + m.m11 * y;
+        position[offset + 2] = m.m20 * x + m.m21 * y;
+
+        velocity[offset] = m.m00 * vx + m.m01 * vy;
+        velocity[offset + 1] = m.m10 * vx + m.m11 * vy;
+        velocity[offset + 2] = m.m20 * vx + m.m21 * vy;
+    }
+
+    /**
+     * Calculates the states at all given times. The state at times[k] is written to indices 3k to 3k+2.
+     *
+     * @param times      times [s]
+     * @param positions  receives the positions, needs at least 3 * times.length entries
+     * @param velocities receives the velocities, needs at least 3 * times.length entries
+     */
+    public void ephemeris(double[] times, double[] positions, double[] velocities) {
+        if (positions.length < 3 * times.length || velocities.length < 3 * times.length) {
+            throw new IllegalArgumentException("output arrays are too small for " + times.length + " states");
+        }
+        for (int k = 0; k < times.length; k++) {
+            stateAt(times[k], positions, velocities, 3 * k);
+        }
+    }
+}
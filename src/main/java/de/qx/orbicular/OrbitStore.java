@@ -0,0 +1,192 @@
+package de.qx.orbicular;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Orbital elements of many objects stored off the heap, in the columns of {@link OrbitBatch}. Each column is a
+ * direct buffer in native byte order, so catalogues of millions of objects neither add to the heap the garbage
+ * collector scans nor to its pauses. Elements are read in place through a {@link Cursor}, a reusable flyweight,
+ * or propagated directly by
+ * {@link Position#orbitsToStates(OrbitStore, int, int, double, double, double, double[], double[], int)}, without
+ * materialising {@link Orbit} objects.
+ * <p>
+ * The memory of the columns is released when the store becomes unreachable. Like {@link OrbitBatch} the store
+ * may be read concurrently but needs external synchronisation while it is written.
+ */
+public final class OrbitStore {
+    /**
+     * Largest number of objects, limited by the size of a buffer
+     */
+    public final static int MAX_SIZE = Integer.MAX_VALUE / 8;
+
+    final DoubleBuffer semiMajorAxis;   // semimajor axis of orbit [m]
+    final DoubleBuffer eccentricity;    // eccentricity of orbit
+    final DoubleBuffer inclination;     // inclination of orbit [rad]
+    final DoubleBuffer rightAscension;  // right ascension of orbit [rad]
+    final DoubleBuffer periapsis;       // argument of periapsis of orbit [rad]
+    final DoubleBuffer meanAnomalyAt0;  // mean anomaly at epoch
+    final DoubleBuffer epoch;           // epoch of given elements [s]
+
+    private final int size;
+
+    /**
+     * @param size number of objects, at most {@link #MAX_SIZE}
+     */
+    public OrbitStore(int size) {
+        if (size < 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size needs to be in [0, " + MAX_SIZE + "]");
+        }
+        this.size = size;
+        this.semiMajorAxis = column(size);
+        this.eccentricity = column(size);
+        this.inclination = column(size);
+        this.rightAscension = column(size);
+        this.periapsis = column(size);
+        this.meanAnomalyAt0 = column(size);
+        this.epoch = column(size);
+    }
+
+    private static DoubleBuffer column(int size) {
+        return ByteBuffer.allocateDirect(8 * size).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    /**
+     * Copies a batch into a new store.
+     *
+     * @param batch orbital parameters and epochs
+     * @return a store holding the elements of all orbits of the batch
+     */
+    public static OrbitStore of(OrbitBatch batch) {
+        OrbitStore store = new OrbitStore(batch.size());
+        store.semiMajorAxis.put(batch.semiMajorAxis);
+        store.eccentricity.put(batch.eccentricity);
+        store.inclination.put(batch.inclination);
+        store.rightAscension.put(batch.rightAscension);
+        store.periapsis.put(batch.periapsis);
+        store.meanAnomalyAt0.put(batch.meanAnomalyAt0);
+        store.epoch.put(batch.epoch);
+        return store;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void set(int index, Orbit orbit, double t0) {
+        set(index, orbit.getSemiMajorAxis(), orbit.getEccentricity(), orbit.getInclination(),
+                orbit.getRightAscension(), orbit.getPeriapsis(), orbit.getMeanAnomalyAt0(), t0);
+    }
+
+    /**
+     * Sets the elements of an object without creating an {@link Orbit}, e.g. while loading a catalogue.
+     */
+    public void set(int index, double semiMajorAxis, double eccentricity, double inclination,
+                    double rightAscension, double periapsis, double meanAnomalyAt0, double t0) {
+        checkIndex(index);
+        this.semiMajorAxis.put(index, semiMajorAxis);
+        this.eccentricity.put(index, eccentricity);
+        this.inclination.put(index, inclination);
+        this.rightAscension.put(index, rightAscension);
+        this.periapsis.put(index, periapsis);
+        this.meanAnomalyAt0.put(index, meanAnomalyAt0);
+        this.epoch.put(index, t0);
+    }
+
+    public Orbit getOrbit(int index) {
+        checkIndex(index);
+        return new Orbit(semiMajorAxis.get(index), eccentricity.get(index), inclination.get(index),
+                rightAscension.get(index), periapsis.get(index), meanAnomalyAt0.get(index));
+    }
+
+    public double getEpoch(int index) {
+        checkIndex(index);
+        return epoch.get(index);
+    }
+
+    /**
+     * @return a new cursor positioned before the first object
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range for size " + size);
+        }
+    }
+
+    /**
+     * Flyweight view of the elements of one object of the store, moved from object to object instead of creating
+     * an {@link Orbit} per object. A cursor is not thread-safe, each thread needs its own.
+     */
+    public final class Cursor {
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next object.
+         *
+         * @return false once the cursor moved past the last object
+         */
+        public boolean next() {
+            if (index < size) {
+                index++;
+            }
+            return index < size;
+        }
+
+        /**
+         * @param index index of the object
+         * @return this cursor
+         */
+        public Cursor moveTo(int index) {
+            checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public double getSemiMajorAxis() {
+            return semiMajorAxis.get(index);
+        }
+
+        public double getEccentricity() {
+            return eccentricity.get(index);
+        }
+
+        public double getInclination() {
+            return inclination.get(index);
+        }
+
+        public double getRightAscension() {
+            return rightAscension.get(index);
+        }
+
+        public double getPeriapsis() {
+            return periapsis.get(index);
+        }
+
+        public double getMeanAnomalyAt0() {
+            return meanAnomalyAt0.get(index);
+        }
+
+        public double getEpoch() {
+            return epoch.get(index);
+        }
+
+        /**
+         * @return the elements of the current object as a new {@link Orbit}
+         */
+        public Orbit getOrbit() {
+            return OrbitStore.this.getOrbit(index);
+        }
+    }
+}
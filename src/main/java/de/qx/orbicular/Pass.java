@@ -0,0 +1,74 @@
+package de.qx.orbicular;
+
+/**
+ * Visibility of an object from a ground station found by {@link PassPredictor}.
+ */
+public final class Pass {
+    private final int station;
+    private final int object;
+    private final double acquisition;
+    private final double loss;
+    private final double timeOfMaxElevation;
+    private final double maxElevation;
+
+    /**
+     * @param station            index of the ground station
+     * @param object             index of the object
+     * @param acquisition        time the object rises above the elevation mask [s]
+     * @param loss               time the object sets below the elevation mask [s]
+     * @param timeOfMaxElevation time of the highest elevation [s]
+     * @param maxElevation       highest elevation [rad]
+     */
+    public Pass(int station, int object, double acquisition, double loss, double timeOfMaxElevation,
+                double maxElevation) {
+        this.station = station;
+        this.object = object;
+        this.acquisition = acquisition;
+        this.loss = loss;
+        this.timeOfMaxElevation = timeOfMaxElevation;
+        this.maxElevation = maxElevation;
+    }
+
+    public int getStation() {
+        return station;
+    }
+
+    public int getObject() {
+        return object;
+    }
+
+    /**
+     * @return the time of acquisition of signal (AOS) [s]
+     */
+    public double getAcquisition() {
+        return acquisition;
+    }
+
+    /**
+     * @return the time of loss of signal (LOS) [s]
+     */
+    public double getLoss() {
+        return loss;
+    }
+
+    public double getTimeOfMaxElevation() {
+        return timeOfMaxElevation;
+    }
+
+    public double getMaxElevation() {
+        return maxElevation;
+    }
+
+    /**
+     * @return the duration of the pass [s]
+     */
+    public double getDuration() {
+        return loss - acquisition;
+    }
+
+    @Override
+    public String toString() {
+        return "Pass{" + station + ", " + object + ", aos=" + acquisition + ", los=" + loss
+                + ", tmax=" + timeOfMaxElevation + ", max=" + maxElevation + '}';
+    }
+}
@@ -0,0 +1,568 @@
+package de.qx.orbicular;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Predicts the passes of objects over a set of ground stations without dense sampling.
+ * <ol>
+ * <li>Each object is propagated once per coarse step and rotated into the earth-fixed frame, the samples are
+ * shared by all stations.</li>
+ * <li>For each step only the stations within the visibility cone of the object are examined: the earth central
+ * angle at which the object sinks below the lowest elevation mask, widened by the angle the object covers within
+ * the step. The stations are binned into bands of latitude and ordered by longitude within a band,
+ * so the candidates are found by binary searches on the longitudes the cone spans in each band it touches and a
+ * dot product.</li>
+ * <li>A candidate whose elevation crosses its mask between two samples brackets an acquisition or loss of
+ * signal. A sign change of the elevation rate brackets the highest elevation, which also finds passes whose
+ * peak lies between two samples below the mask. The events are located by regula falsi on the cubic Hermite
+ * interpolation of the two samples, without propagating. Acquisition and loss are then corrected by Newton's
+ * method on the trajectory, usually with a single propagation. The highest elevation is taken from the
+ * interpolation, for steps of a minute in low earth orbit its error is below a microradian.</li>
+ * </ol>
+ * Passes have to be longer than the step to be found reliably and two passes of the same object over the same
+ * station have to be more than a step apart. Passes in progress at the edges of the window are cut at the
+ * edges. The earth rotates with the constant rate {@link Constants#ROTATION_EARTH}, precession, nutation and
+ * polar motion are neglected. Objects are searched in parallel, each object by one thread.
+ * <p>
+ * A week of 100 low earth orbits over 1000 stations with a 10 degree mask, 3.5 million passes, takes about 13 s
+ * with steps of a minute on a single core.
+ */
+public final class PassPredictor {
+    /**
+     * Accuracy of the times of acquisition, loss and highest elevation [s]
+     */
+    public final static double TIME_TOLERANCE = 1e-3;
+
+    // the angular speeds change within a step, the cone covers 10 % more than the current speeds
+    private final static double SPEED_MARGIN = 1.1;
+    // the geodetic up direction deviates up to 0.19 degrees from the geocentric one used for the cone
+    private final static double DIRECTION_MARGIN = 0.005;
+    private final static int MAX_ITERATIONS = 100;
+    private final static int MAX_NEWTON_ITERATIONS = 3;
+    private final static int CHUNK_SIZE = 16;
+    // bands hold about this many stations, but are at least one degree wide
+    private final static int STATIONS_PER_BAND = 16;
+    private final static int MAX_BANDS = 180;
+
+    private final static int VISIBILITY = 0;
+    private final static int ELEVATION_RATE = 1;
+
+    private final GroundStation[] stations;
+    private final double step;
+    private final double gmstAt0;
+    private final ForkJoinPool pool;
+
+    private final double[] sinMinElevation;
+    private final double maxRadius;
+    private final double minElevation;
+
+    // stations ordered by band of geocentric latitude and by longitude within a band, with their geocentric
+    // unit vectors; the stations of band b are at indices bandStart[b] to bandStart[b + 1] - 1
+    private final int bands;
+    private final int[] bandStart;
+    private final int[] order;
+    private final double[] longitudes;
+    private final double[] unitX;
+    private final double[] unitY;
+    private final double[] unitZ;
+
+    /**
+     * Creates a predictor searching on the common pool.
+     *
+     * @param stations ground stations
+     * @param step     step of the coarse search [s]
+     * @param gmstAt0  Greenwich mean sidereal time at time 0 [rad], see
+     *                 {@link Transformation#greenwichMeanSiderealTime(double)}
+     */
+    public PassPredictor(GroundStation[] stations, double step, double gmstAt0) {
+        this(stations, step, gmstAt0, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param stations ground stations
+     * @param step     step of the coarse search [s]
+     * @param gmstAt0  Greenwich mean sidereal time at time 0 [rad]
+     * @param pool     pool searching the objects
+     */
+    public PassPredictor(GroundStation[] stations, double step, double gmstAt0, ForkJoinPool pool) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("step needs to be positive");
+        }
+        this.stations = stations.clone();
+        this.step = step;
+        this.gmstAt0 = gmstAt0;
+        this.pool = pool;
+
+        int n = stations.length;
+        this.bands = Math.max(1, Math.min(MAX_BANDS, n / STATIONS_PER_BAND));
+        this.sinMinElevation = new double[n];
+        int[] band = new int[n];
+        double[] longitude = new double[n];
+        double largestRadius = 0;
+        double lowestMask = Math.PI / 2;
+        Integer[] sorted = new Integer[n];
+        for (int s = 0; s < n; s++) {
+            GroundStation station = stations[s];
+            double radius = Math.sqrt(station.x * station.x + station.y * station.y + station.z * station.z);
+            sinMinElevation[s] = Math.sin(station.getMinElevation());
+            band[s] = band(Math.asin(station.z / radius));
+            longitude[s] = Math.atan2(station.y, station.x);
+            largestRadius = Math.max(largestRadius, radius);
+            lowestMask = Math.min(lowestMask, station.getMinElevation());
+            sorted[s] = s;
+        }
+        Arrays.sort(sorted, Comparator.<Integer>comparingInt(s -> band[s]).thenComparingDouble(s -> longitude[s]));
+        this.maxRadius = largestRadius;
+        this.minElevation = lowestMask - DIRECTION_MARGIN;
+
+        this.bandStart = new int[bands + 1];
+        this.order = new int[n];
+        this.longitudes = new double[n];
+        this.unitX = new double[n];
+        this.unitY = new double[n];
+        this.unitZ = new double[n];
+        for (int i = 0; i < n; i++) {
+            int s = sorted[i];
+            GroundStation station = stations[s];
+            double radius = Math.sqrt(station.x * station.x + station.y * station.y + station.z * station.z);
+            bandStart[band[s] + 1] = i + 1;
+            order[i] = s;
+            longitudes[i] = longitude[s];
+            unitX[i] = station.x / radius;
+            unitY[i] = station.y / radius;
+            unitZ[i] = station.z / radius;
+        }
+        for (int b = 1; b <= bands; b++) {
+            bandStart[b] = Math.max(bandStart[b], bandStart[b - 1]);
+        }
+    }
+
+    private int band(double latitude) {
+        return Math.max(0, Math.min(bands - 1, (int) ((latitude + Math.PI / 2) / Math.PI * bands)));
+    }
+
+    /**
+     * @param time time [s]
+     * @return the Greenwich mean sidereal time used at the given time [rad]
+     */
+    public double siderealTime(double time) {
+        return gmstAt0 + Constants.ROTATION_EARTH * time;
+    }
+
+    /**
+     * Predicts the passes of one object.
+     *
+     * @param trajectory trajectory of the object in the inertial frame
+     * @param start      start of the window [s]
+     * @param stop       end of the window [s]
+     * @return the passes ordered by time of acquisition, with object index 0
+     */
+    public List<Pass> predict(Trajectory trajectory, double start, double stop) {
+        return predict(new Trajectory[]{trajectory}, start, stop);
+    }
+
+    /**
+     * Predicts the passes of a number of objects. The trajectories are only used by one thread at a time.
+     *
+     * @param objects trajectories of the objects in the inertial frame
+     * @param start   start of the window [s]
+     * @param stop    end of the window [s]
+     * @return the passes ordered by time of acquisition, with the indices of station and object
+     */
+    public List<Pass> predict(Trajectory[] objects, double start, double stop) {
+        if (!(stop > start)) {
+            throw new IllegalArgumentException("stop needs to be after start");
+        }
+        List<Pass> passes = pool.invoke(new SearchTask(objects, 0, objects.length, start, stop));
+        passes.sort((a, b) -> {
+            int order = Double.compare(a.getAcquisition(), b.getAcquisition());
+            if (order == 0) {
+                order = Integer.compare(a.getStation(), b.getStation());
+            }
+            return order != 0 ? order : Integer.compare(a.getObject(), b.getObject());
+        });
+        return passes;
+    }
+
+    private final class SearchTask extends RecursiveTask<List<Pass>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Trajectory[] objects;
+        private final int from;
+        private final int to;
+        private final double start;
+        private final double stop;
+
+        SearchTask(Trajectory[] objects, int from, int to, double start, double stop) {
+            this.objects = objects;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.stop = stop;
+        }
+
+        @Override
+        protected List<Pass> compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                SearchTask second = new SearchTask(objects, middle, to, start, stop);
+                second.fork();
+                List<Pass> passes = new SearchTask(objects, from, middle, start, stop).compute();
+                passes.addAll(second.join());
+                return passes;
+            }
+            Search search = new Search(start, stop);
+            for (int k = from; k < to; k++) {
+                search.search(k, objects[k]);
+            }
+            return search.passes;
+        }
+    }
+
+    /**
+     * Search of one thread, holding the samples of the current object and the passes in progress per station.
+     */
+    private final class Search {
+        private final double start;
+        private final double stop;
+        private final int samples;
+
+        private final double[] times;
+        private final double[] positions;
+        private final double[] velocities;
+
+        private final boolean[] open;
+        private final double[] acquisition;
+        private final double[] timeOfMaxElevation;
+        private final double[] maxSinElevation;
+
+        private final double[] position = new double[3];
+        private final double[] velocity = new double[3];
+
+        private final List<Pass> passes = new ArrayList<>();
+        private Trajectory trajectory;
+        private int object;
+
+        Search(double start, double stop) {
+            this.start = start;
+            this.stop = stop;
+            this.samples = (int) Math.ceil((stop - start) / step) + 1;
+            this.times = new double[samples];
+            this.positions = new double[3 * samples];
+            this.velocities = new double[3 * samples];
+            for (int j = 0; j < samples; j++) {
+                times[j] = j == samples - 1 ? stop : start + j * step;
+            }
+            this.open = new boolean[stations.length];
+            this.acquisition = new double[stations.length];
+            this.timeOfMaxElevation = new double[stations.length];
+            this.maxSinElevation = new double[stations.length];
+        }
+
+        void search(int object, Trajectory trajectory) {
+            this.object = object;
+            this.trajectory = trajectory;
+            for (int j = 0; j < samples; j++) {
+                trajectory.stateAt(times[j], positions, velocities, 3 * j);
+                Transformation.inertialToEarthFixed(siderealTime(times[j]), positions, velocities, 3 * j);
+            }
+            Arrays.fill(open, false);
+
+            for (int j = 0; j < samples - 1; j++) {
+                int i0 = 3 * j;
+                int i1 = 3 * j + 3;
+                double r0 = norm(positions, i0);
+                double r1 = norm(positions, i1);
+                double rate = Math.max(norm(velocities, i0) / r0, norm(velocities, i1) / r1);
+                double cosReach = Math.min(1, maxRadius * Math.cos(minElevation) / Math.max(r0, r1));
+                double cone = Math.acos(cosReach) - minElevation + SPEED_MARGIN * rate * (times[j + 1] - times[j]);
+                double cosCone = cone < Math.PI ? Math.cos(cone) : -1;
+
+                double x = positions[i0] / r0;
+                double y = positions[i0 + 1] / r0;
+                double z = positions[i0 + 2] / r0;
+                double latitude = Math.asin(z);
+                double longitude = Math.atan2(y, x);
+                // largest difference in longitude within the cone, unless the cone contains a pole
+                double width = Math.abs(latitude) + cone < Math.PI / 2
+                        ? Math.asin(Math.sin(cone) / Math.cos(latitude)) : Math.PI;
+                int last = band(latitude + cone);
+                for (int b = band(latitude - cone); b <= last; b++) {
+                    if (width >= Math.PI) {
+                        scan(j, bandStart[b], bandStart[b + 1], x, y, z, cosCone);
+                    } else {
+                        scan(j, b, longitude - width, longitude + width, x, y, z, cosCone);
+                    }
+                }
+            }
+            for (int s = 0; s < stations.length; s++) {
+                if (open[s]) {
+                    close(s, stop);
+                }
+            }
+        }
+
+        /**
+         * Looks for the events of a station between sample j and j + 1.
+         */
+        private void step(int s, int j) {
+            GroundStation station = stations[s];
+            int i0 = 3 * j;
+            int i1 = 3 * j + 3;
+            double t0 = times[j];
+            double t1 = times[j + 1];
+            double g0 = visibility(s, positions, i0);
+            double g1 = visibility(s, positions, i1);
+            double d0 = elevationRate(station, positions, velocities, i0);
+            double d1 = elevationRate(station, positions, velocities, i1);
+
+            if (j == 0 && g0 >= 0) {
+                begin(s, start, sinElevation(station, positions, i0));
+            }
+            if (!open[s]) {
+                if (g1 >= 0) {
+                    begin(s, crossing(s, j, t0, g0, t1, g1), sinMinElevation[s]);
+                } else if (d0 > 0 && d1 < 0) {
+                    // the peak between the samples may reach above the mask
+                    double peak = root(ELEVATION_RATE, s, j, t0, d0, t1, d1);
+                    double g = evaluate(VISIBILITY, s, j, peak);
+                    if (g >= 0) {
+                        double aos = crossing(s, j, t0, g0, peak, g);
+                        double los = crossing(s, j, peak, g, t1, g1);
+                        passes.add(new Pass(s, object, aos, los, peak, Math.asin(peakSinElevation(station, j, peak))));
+                    }
+                    return;
+                } else {
+                    return;
+                }
+            }
+
+            if (d0 > 0 && d1 < 0) {
+                double peak = root(ELEVATION_RATE, s, j, t0, d0, t1, d1);
+                if (peak > acquisition[s]) {
+                    update(s, peak, peakSinElevation(station, j, peak));
+                }
+            }
+            if (g1 >= 0) {
+                update(s, t1, sinElevation(station, positions, i1));
+            } else {
+                close(s, crossing(s, j, t0, g0, t1, g1));
+            }
+        }
+
+        private void begin(int s, double time, double sinElevation) {
+            open[s] = true;
+            acquisition[s] = time;
+            timeOfMaxElevation[s] = time;
+            maxSinElevation[s] = sinElevation;
+        }
+
+        private void update(int s, double time, double sinElevation) {
+            if (sinElevation > maxSinElevation[s]) {
+                timeOfMaxElevation[s] = time;
+                maxSinElevation[s] = sinElevation;
+            }
+        }
+
+        private void close(int s, double time) {
+            open[s] = false;
+            passes.add(new Pass(s, object, acquisition[s], time, timeOfMaxElevation[s],
+                    Math.asin(maxSinElevation[s])));
+        }
+
+        /**
+         * Finds the time the object crosses the elevation mask between a and b: on the interpolated samples first,
+         * then by Newton's method on the trajectory.
+         */
+        private double crossing(int s, int j, double a, double ga, double b, double gb) {
+            double t = root(VISIBILITY, s, j, a, ga, b, gb);
+            GroundStation station = stations[s];
+            for (int i = 0; i < MAX_NEWTON_ITERATIONS; i++) {
+                propagate(t);
+                double dx = position[0] - station.x;
+                double dy = position[1] - station.y;
+                double dz = position[2] - station.z;
+                double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                double rate = station.upX * velocity[0] + station.upY * velocity[1] + station.upZ * velocity[2]
+                        - sinMinElevation[s] * (dx * velocity[0] + dy * velocity[1] + dz * velocity[2]) / range;
+                double dt = -visibility(s, position, 0) / rate;
+                if (!(t + dt >= a && t + dt <= b)) {
+                    break;
+                }
+                t += dt;
+                if (Math.abs(dt) < TIME_TOLERANCE) {
+                    break;
+                }
+            }
+            return t;
+        }
+
+        private double peakSinElevation(GroundStation station, int j, double time) {
+            interpolate(j, time);
+            return sinElevation(station, position, 0);
+        }
+
+        /**
+         * Finds a sign change of a function of the elevation between a and b on the interpolated samples j and
+         * j + 1 by the Illinois variant of regula falsi.
+         */
+        private double root(int function, int s, int j, double a, double fa, double b, double fb) {
+            if ((fa < 0) == (fb < 0)) {
+                return a;
+            }
+            int side = 0;
+            double t = a;
+            for (int i = 0; i < MAX_ITERATIONS && b - a > TIME_TOLERANCE; i++) {
+                t = (a * fb - b * fa) / (fb - fa);
+                double f = evaluate(function, s, j, t);
+                if (f == 0) {
+                    break;
+                }
+                if ((f < 0) == (fa < 0)) {
+                    a = t;
+                    fa = f;
+                    if (side == -1) {
+                        fb *= 0.5;
+                    }
+                    side = -1;
+                } else {
+                    b = t;
+                    fb = f;
+                    if (side == 1) {
+                        fa *= 0.5;
+                    }
+                    side = 1;
+                }
+            }
+            return t;
+        }
+
+        private double evaluate(int function, int s, int j, double time) {
+            interpolate(j, time);
+            return function == VISIBILITY ? visibility(s, position, 0)
+                    : elevationRate(stations[s], position, velocity, 0);
+        }
+
+        /**
+         * Cubic Hermite interpolation of the earth-fixed state between the samples j and j + 1.
+         */
+        private void interpolate(int j, double time) {
+            double h = times[j + 1] - times[j];
+            double u = (time - times[j]) / h;
+            double u2 = u * u;
+            double u3 = u2 * u;
+            double p0 = 2 * u3 - 3 * u2 + 1;
+            double v0 = (u3 - 2 * u2 + u) * h;
+            double p1 = 3 * u2 - 2 * u3;
+            double v1 = (u3 - u2) * h;
+            double dp0 = (6 * u2 - 6 * u) / h;
+            double dv0 = 3 * u2 - 4 * u + 1;
+            double dv1 = 3 * u2 - 2 * u;
+            int i0 = 3 * j;
+            int i1 = 3 * j + 3;
+            for (int k = 0; k < 3; k++) {
+                double dp = positions[i1 + k] - positions[i0 + k];
+                position[k] = p0 * positions[i0 + k] + v0 * velocities[i0 + k] + p1 * positions[i1 + k]
+                        + v1 * velocities[i1 + k];
+                velocity[k] = -dp0 * dp + dv0 * velocities[i0 + k] + dv1 * velocities[i1 + k];
+            }
+        }
+
+        private void propagate(double time) {
+            trajectory.stateAt(time, position, velocity, 0);
+            Transformation.inertialToEarthFixed(siderealTime(time), position, velocity, 0);
+        }
+
+        /**
+         * Examines the stations of a band with a longitude in [from, to], an interval of less than 2π.
+         */
+        private void scan(int j, int b, double from, double to, double x, double y, double z, double cosCone) {
+            int first = bandStart[b];
+            int end = bandStart[b + 1];
+            if (from < -Math.PI) {
+                scan(j, lowerBound(first, end, from + 2 * Math.PI), end, x, y, z, cosCone);
+                scan(j, first, lowerBound(first, end, Math.nextUp(to)), x, y, z, cosCone);
+            } else if (to > Math.PI) {
+                scan(j, lowerBound(first, end, from), end, x, y, z, cosCone);
+                scan(j, first, lowerBound(first, end, Math.nextUp(to - 2 * Math.PI)), x, y, z, cosCone);
+            } else {
+                scan(j, lowerBound(first, end, from), lowerBound(first, end, Math.nextUp(to)), x, y, z, cosCone);
+            }
+        }
+
+        /**
+         * Examines the stations at indices from to to - 1 that are within the cone around (x, y, z).
+         */
+        private void scan(int j, int from, int to, double x, double y, double z, double cosCone) {
+            for (int i = from; i < to; i++) {
+                if (unitX[i] * x + unitY[i] * y + unitZ[i] * z >= cosCone) {
+                    step(order[i], j);
+                }
+            }
+        }
+
+        /**
+         * @return the first index in [from, to) with a longitude of at least the given one, or to
+         */
+        private int lowerBound(int from, int to, double longitude) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (longitudes[middle] < longitude) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Positive while the object is above the elevation mask: |ρ| (sin(elevation) - sin(mask)).
+     */
+    private double visibility(int s, double[] position, int offset) {
+        GroundStation station = stations[s];
+        double dx = position[offset] - station.x;
+        double dy = position[offset + 1] - station.y;
+        double dz = position[offset + 2] - station.z;
+        double up = station.upX * dx + station.upY * dy + station.upZ * dz;
+        return up - sinMinElevation[s] * Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Positive while the elevation increases: |ρ|^3 d sin(elevation) / dt.
+     */
+    private static double elevationRate(GroundStation station, double[] position, double[] velocity, int offset) {
+        double dx = position[offset] - station.x;
+        double dy = position[offset + 1] - station.y;
+        double dz = position[offset + 2] - station.z;
+        double vx = velocity[offset];
+        double vy = velocity[offset + 1];
+        double vz = velocity[offset + 2];
+        double up = station.upX * dx + station.upY * dy + station.upZ * dz;
+        double upRate = station.upX * vx + station.upY * vy + station.upZ * vz;
+        return upRate * (dx * dx + dy * dy + dz * dz) - up * (dx * vx + dy * vy + dz * vz);
+    }
+
+    private static double sinElevation(GroundStation station, double[] position, int offset) {
+        double dx = position[offset] - station.x;
+        double dy = position[offset + 1] - station.y;
+        double dz = position[offset + 2] - station.z;
+        double up = station.upX * dx + station.upY * dy + station.upZ * dz;
+        return up / Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static double norm(double[] vector, int offset) {
+        double x = vector[offset];
+        double y = vector[offset + 1];
+        double z = vector[offset + 2];
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+}
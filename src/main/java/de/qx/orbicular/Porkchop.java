@@ -0,0 +1,164 @@
+package de.qx.orbicular;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scans transfers between two bodies over a grid of departure and arrival times, e.g. for porkchop plots. The
+ * states of the bodies are calculated once per departure and arrival time, then each cell of the grid solves
+ * {@link Lambert}'s problem and stores the departure and arrival delta v into primitive arrays. Rows of
+ * departure times are solved in parallel on a {@link ForkJoinPool}, each cell is written by one task only, so
+ * the results do not depend on the scheduling.
+ */
+public final class Porkchop {
+    public final static int DEFAULT_CHUNK_SIZE = 4;
+
+    private final Trajectory departureBody;
+    private final Trajectory arrivalBody;
+    private final double GM;
+    private final int maxRevolutions;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Creates a scan of direct prograde transfers running on the common pool.
+     *
+     * @param departureBody trajectory of the body departed from
+     * @param arrivalBody   trajectory of the body arrived at
+     * @param mass1         mass of body 1 (e.g. sun) [kg]
+     * @param mass2         mass of body 2 [kg]
+     */
+    public Porkchop(Trajectory departureBody, Trajectory arrivalBody, double mass1, double mass2) {
+        this(departureBody, arrivalBody, mass1, mass2, 0, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param departureBody  trajectory of the body departed from
+     * @param arrivalBody    trajectory of the body arrived at
+     * @param mass1          mass of body 1 (e.g. sun) [kg]
+     * @param mass2          mass of body 2 [kg]
+     * @param maxRevolutions largest number of complete revolutions of the prograde transfers
+     * @param pool           pool solving the grid
+     * @param chunkSize      maximum number of departure times solved by one task
+     */
+    public Porkchop(Trajectory departureBody, Trajectory arrivalBody, double mass1, double mass2,
+                    int maxRevolutions, ForkJoinPool pool, int chunkSize) {
+        if (maxRevolutions < 0) {
+            throw new IllegalArgumentException("number of revolutions needs to be non-negative");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size needs to be positive");
+        }
+        this.departureBody = departureBody;
+        this.arrivalBody = arrivalBody;
+        this.GM = Constants.G * (mass1 + mass2);
+        this.maxRevolutions = maxRevolutions;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Solves the transfers of all combinations of departure and arrival times. The results of departures[i] and
+     * arrivals[j] are written to index i * arrivals.length + j. Cells without a transfer, i.e. arrival before
+     * departure or collinear positions, are NaN. With complete revolutions the transfer with the smallest sum of
+     * both delta v is chosen.
+     *
+     * @param departures      departure times [s]
+     * @param arrivals        arrival times [s]
+     * @param departureDeltaV receives the speed relative to the departure body at departure, the hyperbolic excess
+     *                        speed for planets [m/s]
+     * @param arrivalDeltaV   receives the speed relative to the arrival body at arrival [m/s]
+     */
+    public void compute(double[] departures, double[] arrivals, double[] departureDeltaV, double[] arrivalDeltaV) {
+        long required = (long) departures.length * arrivals.length;
+        if (departureDeltaV.length < required || arrivalDeltaV.length < required) {
+            throw new IllegalArgumentException("output arrays are too small for " + required + " transfers");
+        }
+        double[] departurePositions = new double[3 * departures.length];
+        double[] departureVelocities = new double[3 * departures.length];
+        for (int i = 0; i < departures.length; i++) {
+            departureBody.stateAt(departures[i], departurePositions, departureVelocities, 3 * i);
+        }
+        double[] arrivalPositions = new double[3 * arrivals.length];
+        double[] arrivalVelocities = new double[3 * arrivals.length];
+        for (int j = 0; j < arrivals.length; j++) {
+            arrivalBody.stateAt(arrivals[j], arrivalPositions, arrivalVelocities, 3 * j);
+        }
+        pool.invoke(new GridTask(departures, arrivals, departurePositions, departureVelocities, arrivalPositions,
+                arrivalVelocities, departureDeltaV, arrivalDeltaV, 0, departures.length));
+    }
+
+    private final class GridTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] departures;
+        private final double[] arrivals;
+        private final double[] departurePositions;
+        private final double[] departureVelocities;
+        private final double[] arrivalPositions;
+        private final double[] arrivalVelocities;
+        private final double[] departureDeltaV;
+        private final double[] arrivalDeltaV;
+        private final int from;
+        private final int to;
+
+        GridTask(double[] departures, double[] arrivals, double[] departurePositions, double[] departureVelocities,
+                 double[] arrivalPositions, double[] arrivalVelocities, double[] departureDeltaV,
+                 double[] arrivalDeltaV, int from, int to) {
+            this.departures = departures;
+            this.arrivals = arrivals;
+            this.departurePositions = departurePositions;
+            this.departureVelocities = departureVelocities;
+            this.arrivalPositions = arrivalPositions;
+            this.arrivalVelocities = arrivalVelocities;
+            this.departureDeltaV = departureDeltaV;
+            this.arrivalDeltaV = arrivalDeltaV;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GridTask(departures, arrivals, departurePositions, departureVelocities,
+                                arrivalPositions, arrivalVelocities, departureDeltaV, arrivalDeltaV, from, middle),
+                        new GridTask(departures, arrivals, departurePositions, departureVelocities,
+                                arrivalPositions, arrivalVelocities, departureDeltaV, arrivalDeltaV, middle, to));
+                return;
+            }
+            double[] v1 = new double[3 * (2 * maxRevolutions + 1)];
+            double[] v2 = new double[3 * (2 * maxRevolutions + 1)];
+            for (int i = from; i < to; i++) {
+                for (int j = 0; j < arrivals.length; j++) {
+                    int cell = i * arrivals.length + j;
+                    departureDeltaV[cell] = Double.NaN;
+                    arrivalDeltaV[cell] = Double.NaN;
+                    double timeOfFlight = arrivals[j] - departures[i];
+                    if (!(timeOfFlight > 0)) {
+                        continue;
+                    }
+                    int solutions = Lambert.solve(departurePositions, 3 * i, arrivalPositions, 3 * j, timeOfFlight,
+                            GM, false, maxRevolutions, v1, v2, 0);
+                    double best = Double.POSITIVE_INFINITY;
+                    for (int k = 0; k < solutions; k++) {
+                        double departure = difference(v1, 3 * k, departureVelocities, 3 * i);
+                        double arrival = difference(v2, 3 * k, arrivalVelocities, 3 * j);
+                        if (departure + arrival < best) {
+                            best = departure + arrival;
+                            departureDeltaV[cell] = departure;
+                            arrivalDeltaV[cell] = arrival;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static double difference(double[] a, int offsetA, double[] b, int offsetB) {
+        double dx = a[offsetA] - b[offsetB];
+        double dy = a[offsetA + 1] - b[offsetB + 1];
+        double dz = a[offsetA + 2] - b[offsetB + 2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
@@ -1,8 +1,16 @@
 package de.qx.orbicular;
 
 public class Position {
-    private final static double epsilon = 1e-18;
-    private final static double maxIterations = 100;
+    /**
+     * Largest |e - 1| of a state that is converted to a parabolic orbit
+     */
+    public final static double PARABOLIC_TOLERANCE = 1e-10;
+
+    /**
+     * Smallest eccentricity and sin(inclination) of a state for which the orientation angles are taken from
+     * the state, see {@link #statesToOrbits(double[], double[], double[], double, double, OrbitBatch)}
+     */
+    public final static double SINGULARITY_TOLERANCE = 1e-12;
 
     /**
      * Calculates a planet's state (e.g. position/velocity vectors) at the given time with the given orbital parameters
@@ -15,46 +23,214 @@ public class Position {
      * @return a {@link State} containing the position and velocity of the orbiting object
      */
     public static State orbitToState(Orbit orbit, double time, double t0, double mass1, double mass2) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        orbitToState(orbit.getSemiMajorAxis(), orbit.getEccentricity(), orbit.getInclination(),
+                orbit.getRightAscension(), orbit.getPeriapsis(), orbit.getMeanAnomalyAt0(),
+                time, t0, Constants.G * (mass1 + mass2), position, velocity, 0);
+        if (Metrics.ENABLED) {
+            Metrics.orbitToState(1, System.nanoTime() - start);
+        }
+        return new State(position, velocity);
+    }
+
+    /**
+     * Calculates the states of all orbits of a batch at the given time. Position and velocity of the orbit
+     * at index k are written to indices 3k to 3k+2 of the output arrays. The results are bit-identical to
+     * {@link #orbitToState(Orbit, double, double, double, double)}.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param time       time [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the positions, needs at least 3 * orbits.size() entries
+     * @param velocities receives the velocities, needs at least 3 * orbits.size() entries
+     */
+    public static void orbitsToStates(OrbitBatch orbits, double time, double mass1, double mass2,
+                                      double[] positions, double[] velocities) {
+        orbitsToStates(orbits, 0, orbits.size(), time, mass1, mass2, positions, velocities);
+    }
+
+    /**
+     * Calculates the states of the orbits with index from (inclusive) to to (exclusive) of a batch at the
+     * given time, see {@link #orbitsToStates(OrbitBatch, double, double, double, double[], double[])}.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param from       index of the first orbit
+     * @param to         index after the last orbit
+     * @param time       time [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the positions at indices 3 * from to 3 * to - 1
+     * @param velocities receives the velocities at indices 3 * from to 3 * to - 1
+     */
+    public static void orbitsToStates(OrbitBatch orbits, int from, int to, double time, double mass1, double mass2,
+                                      double[] positions, double[] velocities) {
+        if (from < 0 || to > orbits.size() || from > to) {
+            throw new IndexOutOfBoundsException("invalid range " + from + " to " + to);
+        }
+        if (positions.length < 3 * to || velocities.length < 3 * to) {
+            throw new IllegalArgumentException("output arrays are too small for " + to + " states");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        double GM = Constants.G * (mass1 + mass2);
+        for (int k = from; k < to; k++) {
+            orbitToState(orbits.semiMajorAxis[k], orbits.eccentricity[k], orbits.inclination[k],
+                    orbits.rightAscension[k], orbits.periapsis[k], orbits.meanAnomalyAt0[k],
+                    time, orbits.epoch[k], GM, positions, velocities, 3 * k);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.orbitToState(to - from, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Calculates the states of the orbits with index from (inclusive) to to (exclusive) of an off-heap store at the
+     * given time, reading the elements in place. Like the batch version the state of orbit k is written to indices
+     * 3k to 3k+2. The results are bit-identical to {@link #orbitToState(Orbit, double, double, double, double)}.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param from       index of the first orbit
+     * @param to         index after the last orbit
+     * @param time       time [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the positions at indices 3 * from to 3 * to - 1
+     * @param velocities receives the velocities at indices 3 * from to 3 * to - 1
+     */
+    public static void orbitsToStates(OrbitStore orbits, int from, int to, double time, double mass1, double mass2,
+                                      double[] positions, double[] velocities) {
+        orbitsToStates(orbits, from, to, time, mass1, mass2, positions, velocities, 3 * from);
+    }
+
+    /**
+     * Calculates the states of a range of orbits of an off-heap store like
+     * {@link #orbitsToStates(OrbitStore, int, int, double, double, double, double[], double[])}, but writes them
+     * from the given index of the output arrays on, so a large store can be propagated in chunks into small arrays.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param from       index of the first orbit
+     * @param to         index after the last orbit
+     * @param time       time [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the position of orbit k at indices offset + 3 * (k - from) to one more than that
+     * @param velocities receives the velocity of orbit k at indices offset + 3 * (k - from) to one more than that
+     * @param offset     index of the x component of the state of orbit from
+     */
+    public static void orbitsToStates(OrbitStore orbits, int from, int to, double time, double mass1, double mass2,
+                                      double[] positions, double[] velocities, int offset) {
+        if (from < 0 || to > orbits.size() || from > to) {
+            throw new IndexOutOfBoundsException("invalid range " + from + " to " + to);
+        }
+        long end = offset + 3L * (to - from);
+        if (offset < 0 || positions.length < end || velocities.length < end) {
+            throw new IllegalArgumentException("output arrays are too small for " + (to - from) + " states");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         double GM = Constants.G * (mass1 + mass2);
+        for (int k = from; k < to; k++) {
+            orbitToState(orbits.semiMajorAxis.get(k), orbits.eccentricity.get(k), orbits.inclination.get(k),
+                    orbits.rightAscension.get(k), orbits.periapsis.get(k), orbits.meanAnomalyAt0.get(k),
+                    time, orbits.epoch.get(k), GM, positions, velocities, offset + 3 * (k - from));
+        }
+        if (Metrics.ENABLED) {
+            Metrics.orbitToState(to - from, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Allocation free kernel of {@link #orbitToState(Orbit, double, double, double, double)}.
+     *
+     * @param position receives the position at indices offset to offset + 2
+     * @param velocity receives the velocity at indices offset to offset + 2
+     */
+    static void orbitToState(double semiMajorAxis, double eccentricity, double inclination,
+                             double rightAscension, double periapsis, double meanAnomalyAt0,
+                             double time, double t0, double GM,
+                             double[] position, double[] velocity, int offset) {
+        double p;
+        double ν;
 
-        double p = orbit.getSemiMajorAxis() * (1 - Math.pow(orbit.getEccentricity(), 2));
+        if (eccentricity < 1) {
+            p = semiMajorAxis * (1 - Math.pow(eccentricity, 2));
 
-        // Mean motion
-        double n = Math.sqrt(GM / Math.pow(orbit.getSemiMajorAxis(), 3));
+            // Mean motion
+            double n = Math.sqrt(GM / Math.pow(semiMajorAxis, 3));
 
-        // Mean anomaly at t
-        double M = orbit.getMeanAnomalyAt0() + n * (time - t0);
+            // Mean anomaly at t
+            double M = meanAnomalyAt0 + n * (time - t0);
 
-        // Eccentric anomaly
-        double E = keplerEquation(orbit.getEccentricity(), M);
+            // Eccentric anomaly
+            double E = keplerEquation(eccentricity, M);
 
-        // True anomaly
-        double ν = 2 * Math.atan(Math.sqrt((1 + orbit.getEccentricity()) / (1 - orbit.getEccentricity())) * Math.tan(E / 2));
-        // double ν = Math.atan2( Math.sqrt(1-e*e) * Math.sin(E), Math.cos(E) - e );
+            // True anomaly
+            ν = 2 * Math.atan(Math.sqrt((1 + eccentricity) / (1 - eccentricity)) * Math.tan(E / 2));
+            // double ν = Math.atan2( Math.sqrt(1-e*e) * Math.sin(E), Math.cos(E) - e );
+        } else if (eccentricity > 1) {
+            double a = Math.abs(semiMajorAxis);
+            p = a * (eccentricity * eccentricity - 1);
+
+            double n = Math.sqrt(GM / (a * a * a));
+            double M = meanAnomalyAt0 + n * (time - t0);
+
+            // Hyperbolic anomaly
+            double H = Kepler.hyperbolicAnomaly(eccentricity, M);
+
+            ν = 2 * Math.atan(Math.sqrt((eccentricity + 1) / (eccentricity - 1)) * Math.tanh(H / 2));
+        } else {
+            // the semimajor axis of a parabolic orbit holds the semi-latus rectum, see stateToOrbit
+            p = semiMajorAxis;
+
+            double n = Math.sqrt(GM / (p * p * p));
+            double M = meanAnomalyAt0 + n * (time - t0);
+
+            ν = 2 * Math.atan(Kepler.parabolicAnomaly(M));
+        }
+
+        double cosν = Math.cos(ν);
+        double sinν = Math.sin(ν);
 
         // radius
-        double r = p / (1 + orbit.getEccentricity() * Math.cos(ν));
-
-        // position in orbital plane
-        Matrix xOrbitalPlane = new Matrix(new double[]{
-                r * Math.cos(ν),
-                r * Math.sin(ν),
-                0
-        });
-
-        Matrix xDotOrbitalPlane = new Matrix(new double[]{
-                -Math.sqrt(GM / p) * Math.sin(ν),
-                Math.sqrt(GM / p) * (orbit.getEccentricity() + Math.cos(ν)),
-                0
-        });
-
-        return new State(
-                Transformation.orbitalPlaneToInertial(xOrbitalPlane, orbit.getRightAscension(), orbit.getPeriapsis(), orbit.getInclination()),
-                Transformation.orbitalPlaneToInertial(xDotOrbitalPlane, orbit.getRightAscension(), orbit.getPeriapsis(), orbit.getInclination()));
+        double r = p / (1 + eccentricity * cosν);
+
+        double sqrtGMp = Math.sqrt(GM / p);
+
+        // first two columns of Transformation.orbitalPlaneToInertial, kept in locals so that the kernel does not
+        // rely on escape analysis to stay allocation free
+        double cosΩ = Mat3.rotationCos(rightAscension);
+        double sinΩ = Mat3.rotationSin(rightAscension);
+        double cosω = Mat3.rotationCos(periapsis);
+        double sinω = Mat3.rotationSin(periapsis);
+        double cosI = Mat3.rotationCos(inclination);
+        double sinI = Mat3.rotationSin(inclination);
+        double m00 = cosΩ * cosω - sinΩ * sinω * cosI;
+        double m01 = -cosΩ * sinω - sinΩ * cosω * cosI;
+        double m10 = sinΩ * cosω + cosΩ * sinω * cosI;
+        double m11 = -sinΩ * sinω + cosΩ * cosω * cosI;
+        double m20 = sinω * sinI;
+        double m21 = cosω * sinI;
+
+        // position and velocity in orbital plane, rotated to the inertial frame
+        double x = r * cosν;
+        double y = r * sinν;
+        double vx = -sqrtGMp * sinν;
+        double vy = sqrtGMp * (eccentricity + cosν);
+        position[offset] = m00 * x + m01 * y;
+        position[offset + 1] = m10 * x + m11 * y;
+        position[offset + 2] = m20 * x + m21 * y;
+        velocity[offset] = m00 * vx + m01 * vy;
+        velocity[offset + 1] = m10 * vx + m11 * vy;
+        velocity[offset + 2] = m20 * vx + m21 * vy;
     }
 
     /**
      * Calculates the planet's {@link Orbit} from a {@link State} (e.g. position/velocity vectors) at a given point in time
+     * <p>
+     * Unlike the other conversions, the meanAnomalyAt0 of the returned orbit holds the time of periapsis passage
+     * [s]. See {@link #statesToOrbits(double[], double[], double[], double, double, OrbitBatch)} for the handling
+     * of circular, equatorial and parabolic orbits.
      *
      * @param state the planet's state
      * @param time  time [s]
@@ -63,72 +239,201 @@ public class Position {
      * @return the {@link Orbit} for the given {@link State}
      */
     public static Orbit stateToOrbit(State state, double time, double mass1, double mass2) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
         double GM = Constants.G * (mass1 + mass2);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        state.copyTo(position, velocity, 0);
+        double[] elements = new double[6];
+        stateToOrbit(position, velocity, 0, GM, elements);
 
-        double[] cross = new double[]{
-                state.position[1] * state.velocity[2] - state.position[2] * state.velocity[1],
-                state.position[2] * state.velocity[0] - state.position[0] * state.velocity[2],
-                state.position[0] * state.velocity[1] - state.position[1] * state.velocity[0]
-        };
+        double a = elements[0];
+        double t0 = time - elements[5] / Math.sqrt(GM / (a * a * a));
+        if (Metrics.ENABLED) {
+            Metrics.stateToOrbit(1, System.nanoTime() - start);
+        }
+        return new Orbit(a, elements[1], elements[2], elements[3], elements[4], t0);
+    }
 
-        double rightAscension = Math.atan2(cross[0], -cross[1]);
+    /**
+     * Calculates the orbits of many objects from their states at a common time, see
+     * {@link #statesToOrbits(double[], double[], double[], double, double, OrbitBatch)}.
+     *
+     * @param positions  positions, the position of object k at indices 3k to 3k+2
+     * @param velocities velocities, the velocity of object k at indices 3k to 3k+2
+     * @param time       time of the states [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param orbits     receives the orbits, one per object
+     */
+    public static void statesToOrbits(double[] positions, double[] velocities, double time, double mass1,
+                                      double mass2, OrbitBatch orbits) {
+        int n = orbits.size();
+        if (positions.length < 3 * n || velocities.length < 3 * n) {
+            throw new IllegalArgumentException("input arrays are too small for " + n + " states");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        double GM = Constants.G * (mass1 + mass2);
+        double[] elements = new double[6];
+        for (int k = 0; k < n; k++) {
+            stateToOrbit(positions, velocities, 3 * k, GM, elements);
+            set(orbits, k, elements, time);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.stateToOrbit(n, System.nanoTime() - start);
+        }
+    }
 
-        double inclination = Math.atan2(Math.hypot(cross[0], cross[1]), cross[2]);
+    /**
+     * Calculates the orbits of many objects from their states, allocating nothing per object. The orbit of object k is
+     * written to index k of the batch, with the mean anomaly at the epoch times[k]. Its states are reproduced by
+     * {@link #orbitsToStates(OrbitBatch, double, double, double, double[], double[])}.
+     * <p>
+     * Parabolic and hyperbolic orbits are stored the way the propagation expects them: an eccentricity within
+     * {@link #PARABOLIC_TOLERANCE} of 1 is set to exactly 1 and the semimajor axis holds the semi-latus rectum,
+     * hyperbolic orbits have a positive semimajor axis. Angles that are undefined are set to 0 instead of being
+     * taken from rounding noise: the right ascension of equatorial orbits (sin(i) below
+     * {@link #SINGULARITY_TOLERANCE}), so that the periapsis is measured from the x axis, and the argument of
+     * periapsis of circular orbits (e below {@link #SINGULARITY_TOLERANCE}), so that the anomaly is measured
+     * from the ascending node.
+     *
+     * @param positions  positions, the position of object k at indices 3k to 3k+2
+     * @param velocities velocities, the velocity of object k at indices 3k to 3k+2
+     * @param times      times of the states [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param orbits     receives the orbits, one per time
+     */
+    public static void statesToOrbits(double[] positions, double[] velocities, double[] times, double mass1,
+                                      double mass2, OrbitBatch orbits) {
+        int n = times.length;
+        if (orbits.size() < n) {
+            throw new IllegalArgumentException("batch is too small for " + n + " orbits");
+        }
+        if (positions.length < 3 * n || velocities.length < 3 * n) {
+            throw new IllegalArgumentException("input arrays are too small for " + n + " states");
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        double GM = Constants.G * (mass1 + mass2);
+        double[] elements = new double[6];
+        for (int k = 0; k < n; k++) {
+            stateToOrbit(positions, velocities, 3 * k, GM, elements);
+            set(orbits, k, elements, times[k]);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.stateToOrbit(n, System.nanoTime() - start);
+        }
+    }
 
-        double p = dotProduct(cross, cross) / GM;
+    /**
+     * Allocation free kernel of {@link #statesToOrbits(double[], double[], double[], double, double, OrbitBatch)}.
+     *
+     * @param position position at indices offset to offset + 2
+     * @param velocity velocity at indices offset to offset + 2
+     * @param elements receives the semimajor axis, eccentricity, inclination, right ascension, argument of
+     *                 periapsis and the mean anomaly at the time of the state
+     */
+    static void stateToOrbit(double[] position, double[] velocity, int offset, double GM, double[] elements) {
+        double x = position[offset];
+        double y = position[offset + 1];
+        double z = position[offset + 2];
+        double vx = velocity[offset];
+        double vy = velocity[offset + 1];
+        double vz = velocity[offset + 2];
 
-        double rLength = Math.sqrt(state.position[0] * state.position[0] + state.position[1] * state.position[1] + state.position[2] * state.position[2]);
+        // specific angular momentum
+        double hx = y * vz - z * vy;
+        double hy = z * vx - x * vz;
+        double hz = x * vy - y * vx;
+        double hxy = Math.sqrt(hx * hx + hy * hy);
+        double h = Math.sqrt(hx * hx + hy * hy + hz * hz);
 
-        double eccentricity = Math.sqrt(
-                p / GM * Math.pow(dotProduct(state.position, state.velocity) / rLength, 2)
-                        + Math.pow(p / rLength - 1, 2));
+        double inclination = Math.atan2(hxy, hz);
+        double rightAscension = 0;
+        double cosΩ = 1;
+        double sinΩ = 0;
+        if (hxy > SINGULARITY_TOLERANCE * h) {
+            rightAscension = Math.atan2(hx, -hy);
+            cosΩ = -hy / hxy;
+            sinΩ = hx / hxy;
+        }
 
-        double ν = Math.atan2(Math.sqrt(p / GM) * dotProduct(state.position, state.velocity), p - rLength);
+        double r = Math.sqrt(x * x + y * y + z * z);
+        double p = h * h / GM;
 
-        Matrix rb =
-                Matrix.getRotationMatrix(inclination, 1).multiplyWith(
-                        Matrix.getRotationMatrix(rightAscension, 3).multiplyWith(new Matrix(state.position)));
+        // e * cos(ν) and e * sin(ν)
+        double eCosν = p / r - 1;
+        double eSinν = h * (x * vx + y * vy + z * vz) / (GM * r);
+        double eccentricity = Math.sqrt(eCosν * eCosν + eSinν * eSinν);
 
-        double periapsis = Math.atan2(rb.get(1), rb.get(0)) - ν;
+        // argument of latitude, the angle from the ascending node to the position
+        double u = Math.atan2((hz * (y * cosΩ - x * sinΩ) + hxy * z) / h, x * cosΩ + y * sinΩ);
 
-        if (eccentricity < 1) {
-            double semiMajorAxis = p / (1 - Math.pow(eccentricity, 2));
-            double E = 2 * Math.atan(Math.sqrt((1 - eccentricity) / (1 + eccentricity)) * Math.tan(ν / 2));
-            double t0 = time - Math.sqrt(Math.pow(semiMajorAxis, 3) / GM) * (E - eccentricity * Math.sin(E));
-            return new Orbit(semiMajorAxis, eccentricity, inclination, rightAscension, periapsis, t0);
-        } else if (eccentricity > 1) {
-            double semiMajorAxis = p / (Math.pow(eccentricity, 2) - 1);
-            double H = 2 * Math.tanh(Math.sqrt((1 - eccentricity) / (1 + eccentricity)) * Math.tan(ν / 2));
-            double t0 = time - Math.sqrt(Math.pow(semiMajorAxis, 3) / GM) * (H - eccentricity * Math.sin(H));
-            return new Orbit(semiMajorAxis, eccentricity, inclination, rightAscension, periapsis, t0);
+        double periapsis = 0;
+        double cosν;
+        double sinν;
+        if (eccentricity >= SINGULARITY_TOLERANCE) {
+            periapsis = u - Math.atan2(eSinν, eCosν);
+            cosν = eCosν / eccentricity;
+            sinν = eSinν / eccentricity;
         } else {
-            double t0 = time - 0.5 * Math.sqrt(Math.pow(p, 3) / GM) * (Math.tan(ν / 2) + 1 / 3 * Math.pow(Math.tan(ν / 2), 3));
-            return new Orbit(p, eccentricity, inclination, rightAscension, periapsis, t0);
+            cosν = Math.cos(u);
+            sinν = Math.sin(u);
         }
-    }
-
-    protected static double keplerEquation(double eccentricity, double meanAnomaly) {
-        double eccentricAnomaly;
 
-        if (eccentricity < 0.8) {
-            eccentricAnomaly = meanAnomaly;
+        double semiMajorAxis;
+        double M;
+        if (Math.abs(eccentricity - 1) <= PARABOLIC_TOLERANCE) {
+            eccentricity = 1;
+            semiMajorAxis = p;
+            double D = sinν / (1 + cosν);
+            M = 0.5 * (D + D * D * D / 3);
+        } else if (eccentricity < 1) {
+            double semiMinorRatio = Math.sqrt((1 - eccentricity) * (1 + eccentricity));
+            semiMajorAxis = p / ((1 - eccentricity) * (1 + eccentricity));
+            double sinE = semiMinorRatio * sinν / (1 + eccentricity * cosν);
+            double E = Math.atan2(sinE, (eccentricity + cosν) / (1 + eccentricity * cosν));
+            M = E - eccentricity * sinE;
         } else {
-            eccentricAnomaly = Math.PI;
+            semiMajorAxis = p / ((eccentricity - 1) * (eccentricity + 1));
+            double sinhH = Math.sqrt((eccentricity - 1) * (eccentricity + 1)) * sinν / (1 + eccentricity * cosν);
+            M = eccentricity * sinhH - asinh(sinhH);
         }
 
-        double dE = 1.0;
-        int i = 0;
-        while (Math.abs(dE) > epsilon && i < maxIterations) {
-            dE = (meanAnomaly + eccentricity * Math.sin(eccentricAnomaly) - eccentricAnomaly) /
-                    (1 - eccentricity * Math.cos(eccentricAnomaly));
-            eccentricAnomaly = eccentricAnomaly + dE;
-            i++;
-        }
+        elements[0] = semiMajorAxis;
+        elements[1] = eccentricity;
+        elements[2] = inclination;
+        elements[3] = rightAscension;
+        elements[4] = periapsis;
+        elements[5] = M;
+    }
 
-        return eccentricAnomaly;
+    private static void set(OrbitBatch orbits, int index, double[] elements, double epoch) {
+        orbits.semiMajorAxis[index] = elements[0];
+        orbits.eccentricity[index] = elements[1];
+        orbits.inclination[index] = elements[2];
+        orbits.rightAscension[index] = elements[3];
+        orbits.periapsis[index] = elements[4];
+        orbits.meanAnomalyAt0[index] = elements[5];
+        orbits.epoch[index] = epoch;
     }
 
-    private static double dotProduct(double[] a, double[] b) {
-        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    /**
+     * Inverse hyperbolic sine, accurate for small arguments.
+     */
+    static double asinh(double x) {
+        double a = Math.abs(x);
+        return Math.copySign(Math.log1p(a + a * a / (1 + Math.sqrt(1 + a * a))), x);
+    }
+
+    /**
+     * Solves Kepler's equation with {@link Kepler#DANBY}.
+     *
+     * @param eccentricity eccentricity of orbit, 0 <= e < 1
+     * @param meanAnomaly  mean anomaly [rad]
+     * @return the eccentric anomaly [rad]
+     */
+    protected static double keplerEquation(double eccentricity, double meanAnomaly) {
+        return Kepler.eccentricAnomaly(eccentricity, meanAnomaly);
     }
 }
@@ -0,0 +1,210 @@
+package de.qx.orbicular;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Propagates whole catalogues in parallel on a {@link ForkJoinPool}. The catalogue is split recursively into
+ * chunks of at most chunkSize orbits. Each chunk runs the kernel of
+ * {@link Position#orbitsToStates(OrbitBatch, double, double, double, double[], double[])} for all times and
+ * writes to its own fixed slots of the output arrays, so the results do not depend on the scheduling and are
+ * bit-identical to a sequential propagation. Optionally the chunks run on the {@link LanePropagator#backend()}
+ * instead, the SIMD backend when it is available, which is faster but only agrees with the scalar kernel to rounding
+ * error.
+ */
+public final class PropagationEngine {
+    public final static int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final boolean lanes;
+
+    /**
+     * Creates an engine running on the common pool with the default chunk size.
+     */
+    public PropagationEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool      pool executing the propagation
+     * @param chunkSize maximum number of orbits propagated by one task
+     */
+    public PropagationEngine(ForkJoinPool pool, int chunkSize) {
+        this(pool, chunkSize, false);
+    }
+
+    /**
+     * @param pool      pool executing the propagation
+     * @param chunkSize maximum number of orbits propagated by one task
+     * @param lanes     whether to propagate the chunks with the {@link LanePropagator#backend()}
+     */
+    public PropagationEngine(ForkJoinPool pool, int chunkSize, boolean lanes) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size needs to be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.lanes = lanes;
+    }
+
+    /**
+     * Calculates the states of all orbits at the given time, see
+     * {@link Position#orbitsToStates(OrbitBatch, double, double, double, double[], double[])} for the layout.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param time       time [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the positions, needs at least 3 * orbits.size() entries
+     * @param velocities receives the velocities, needs at least 3 * orbits.size() entries
+     */
+    public void propagate(OrbitBatch orbits, double time, double mass1, double mass2,
+                          double[] positions, double[] velocities) {
+        propagate(orbits, new double[]{time}, mass1, mass2, positions, velocities);
+    }
+
+    /**
+     * Calculates the states of all orbits at each time of a time grid. The state of orbit k at times[j] is
+     * written to indices 3 * (j * n + k) to 3 * (j * n + k) + 2, where n is the number of orbits.
+     *
+     * @param orbits     orbital parameters and epochs
+     * @param times      times [s]
+     * @param mass1      mass of body 1 (e.g. sun) [kg]
+     * @param mass2      mass of body 2 [kg]
+     * @param positions  receives the positions, needs at least 3 * times.length * orbits.size() entries
+     * @param velocities receives the velocities, needs at least 3 * times.length * orbits.size() entries
+     */
+    public void propagate(OrbitBatch orbits, double[] times, double mass1, double mass2,
+                          double[] positions, double[] velocities) {
+        long required = 3L * times.length * orbits.size();
+        if (positions.length < required || velocities.length < required) {
+            throw new IllegalArgumentException("output arrays are too small for " + required / 3 + " states");
+        }
+        double GM = Constants.G * (mass1 + mass2);
+        pool.invoke(new PropagationTask(orbits, 0, orbits.size(), times, GM, positions, velocities));
+    }
+
+    /**
+     * Calculates the positions of all orbits at the given time in reduced precision, e.g. for rendering. Each
+     * chunk propagates into its own scratch arrays and encodes its positions directly into the buffer, the
+     * positions of the whole catalogue are never held as doubles.
+     *
+     * @param orbits   orbital parameters and epochs
+     * @param time     time [s]
+     * @param mass1    mass of body 1 (e.g. sun) [kg]
+     * @param mass2    mass of body 2 [kg]
+     * @param encoding encoding of the positions
+     * @param buffer   receives the header and the position of orbit k at index k, needs at least
+     *                 {@link CompactPositions#size(int)} bytes, e.g. a direct buffer
+     */
+    public void propagate(OrbitBatch orbits, double time, double mass1, double mass2, CompactPositions encoding,
+                          ByteBuffer buffer) {
+        encoding.writeHeader(buffer, orbits.size());
+        double GM = Constants.G * (mass1 + mass2);
+        pool.invoke(new CompactTask(orbits, 0, orbits.size(), time, GM, encoding, buffer));
+    }
+
+    private final class PropagationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final OrbitBatch orbits;
+        private final int from;
+        private final int to;
+        private final double[] times;
+        private final double GM;
+        private final double[] positions;
+        private final double[] velocities;
+
+        PropagationTask(OrbitBatch orbits, int from, int to, double[] times, double GM,
+                        double[] positions, double[] velocities) {
+            this.orbits = orbits;
+            this.from = from;
+            this.to = to;
+            this.times = times;
+            this.GM = GM;
+            this.positions = positions;
+            this.velocities = velocities;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PropagationTask(orbits, from, middle, times, GM, positions, velocities),
+                        new PropagationTask(orbits, middle, to, times, GM, positions, velocities));
+                return;
+            }
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            int size = orbits.size();
+            if (lanes) {
+                BatchPropagator backend = LanePropagator.backend();
+                for (int j = 0; j < times.length; j++) {
+                    backend.orbitsToStates(orbits, from, to, times[j], GM, positions, velocities, 3 * j * size);
+                }
+            } else {
+                for (int k = from; k < to; k++) {
+                    for (int j = 0; j < times.length; j++) {
+                        Position.orbitToState(orbits.semiMajorAxis[k], orbits.eccentricity[k],
+                                orbits.inclination[k], orbits.rightAscension[k], orbits.periapsis[k],
+                                orbits.meanAnomalyAt0[k], times[j], orbits.epoch[k], GM, positions, velocities,
+                                3 * (j * size + k));
+                    }
+                }
+            }
+            if (Metrics.ENABLED) {
+                Metrics.orbitToState((to - from) * times.length, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private final class CompactTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final OrbitBatch orbits;
+        private final int from;
+        private final int to;
+        private final double time;
+        private final double GM;
+        private final CompactPositions encoding;
+        private final ByteBuffer buffer;
+
+        CompactTask(OrbitBatch orbits, int from, int to, double time, double GM, CompactPositions encoding,
+                    ByteBuffer buffer) {
+            this.orbits = orbits;
+            this.from = from;
+            this.to = to;
+            this.time = time;
+            this.GM = GM;
+            this.encoding = encoding;
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CompactTask(orbits, from, middle, time, GM, encoding, buffer),
+                        new CompactTask(orbits, middle, to, time, GM, encoding, buffer));
+                return;
+            }
+            double[] positions = new double[3 * (to - from)];
+            double[] velocities = new double[3 * (to - from)];
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            if (lanes) {
+                LanePropagator.backend().orbitsToStates(orbits, from, to, time, GM, positions, velocities, -3 * from);
+            } else {
+                for (int k = from; k < to; k++) {
+                    Position.orbitToState(orbits.semiMajorAxis[k], orbits.eccentricity[k], orbits.inclination[k],
+                            orbits.rightAscension[k], orbits.periapsis[k], orbits.meanAnomalyAt0[k],
+                            time, orbits.epoch[k], GM, positions, velocities, 3 * (k - from));
+                }
+            }
+            if (Metrics.ENABLED) {
+                Metrics.orbitToState(to - from, System.nanoTime() - start);
+            }
+            encoding.encode(positions, 0, to - from, buffer, from);
+        }
+    }
+}
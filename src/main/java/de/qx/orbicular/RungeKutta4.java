@@ -0,0 +1,51 @@
+package de.qx.orbicular;
+
+/**
+ * Classical fourth order Runge-Kutta integrator with a fixed step. The span is divided into equal steps no
+ * longer than the given step.
+ */
+public final class RungeKutta4 implements Integrator {
+    private final double step;
+
+    private final double[] k1 = new double[6];
+    private final double[] k2 = new double[6];
+    private final double[] k3 = new double[6];
+    private final double[] k4 = new double[6];
+    private final double[] stage = new double[6];
+    private final double[] acceleration = new double[3];
+
+    /**
+     * @param step largest step [s]
+     */
+    public RungeKutta4(double step) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("step needs to be positive");
+        }
+        this.step = step;
+    }
+
+    @Override
+    public void integrate(ForceModel forces, double t0, double[] state, double t1) {
+        long steps = (long) Math.ceil(Math.abs(t1 - t0) / step);
+        double h = (t1 - t0) / steps;
+        for (long n = 0; n < steps; n++) {
+            double t = t0 + n * h;
+            NumericalPropagator.derivative(forces, t, state, k1, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + 0.5 * h * k1[i];
+            }
+            NumericalPropagator.derivative(forces, t + 0.5 * h, stage, k2, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + 0.5 * h * k2[i];
+            }
+            NumericalPropagator.derivative(forces, t + 0.5 * h, stage, k3, acceleration);
+            for (int i = 0; i < 6; i++) {
+                stage[i] = state[i] + h * k3[i];
+            }
+            NumericalPropagator.derivative(forces, t + h, stage, k4, acceleration);
+            for (int i = 0; i < 6; i++) {
+                state[i] += h / 6 * (k1[i] + 2 * (k2[i] + k3[i]) + k4[i]);
+            }
+        }
+    }
+}
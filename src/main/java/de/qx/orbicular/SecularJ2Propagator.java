@@ -0,0 +1,221 @@
+package de.qx.orbicular;
+
+/**
+ * Propagates an elliptic {@link Orbit} analytically with the secular effect of the J2 zonal harmonic: the node
+ * regresses, the periapsis precesses and the mean motion is corrected, all at constant rates. The elements are
+ * taken as mean elements. Compared to {@link OrbitPropagator} this removes the dominant error of Kepler orbits
+ * in low earth orbit, nodal regression of several degrees per day, at nearly the same cost per evaluation.
+ * Short periodic J2 terms are not modelled, use {@link NumericalPropagator} with {@link ZonalHarmonics} for
+ * those. Osculating elements, e.g. from {@link Position#stateToOrbit(State, double, double, double)}, differ from
+ * the mean elements by these terms; taken as mean elements, the error of the semimajor axis alone makes the
+ * position drift along the track by about a thousand kilometres per day in low earth orbit. Use
+ * {@link #fromOsculating(Orbit, double, double, double)} for them.
+ * <p>
+ * The perifocal to inertial rotation is only rebuilt when the drifted right ascension or argument of periapsis
+ * changed by more than the angle tolerance since the last rebuild. With the default tolerance of 0 it is rebuilt
+ * whenever the time changes, with a tolerance of d the position error is below about |r| * 2d. Propagators
+ * cache the rotation and are not thread-safe.
+ */
+public final class SecularJ2Propagator implements Trajectory {
+    private final Orbit orbit;
+    private final double t0;
+    private final double angleTolerance;
+
+    private final double eccentricity;
+    private final double semiMajorAxis;
+    private final double inclination;
+    private final double meanMotion;       // perturbed mean motion [rad/s]
+    private final double nodalRate;        // [rad/s]
+    private final double apsidalRate;      // [rad/s]
+    private final double semiMinorRatio;   // sqrt(1 - e^2)
+    private final double sqrtGMa;          // sqrt(GM * a)
+
+    private final Mat3 rotation = new Mat3();
+    private double rotationRightAscension = Double.NaN;
+    private double rotationPeriapsis = Double.NaN;
+
+    /**
+     * Creates a propagator for an orbit around the earth.
+     *
+     * @param orbit mean orbital parameters, the eccentricity has to be below 1
+     * @param t0    epoch of given elements
+     * @param mass1 mass of body 1 (e.g. earth) [kg]
+     * @param mass2 mass of body 2 [kg]
+     */
+    public SecularJ2Propagator(Orbit orbit, double t0, double mass1, double mass2) {
+        this(orbit, t0, mass1, mass2, Constants.RADIUS_EARTH, Constants.J2_EARTH, 0);
+    }
+
+    /**
+     * @param orbit          mean orbital parameters, the eccentricity has to be below 1
+     * @param t0             epoch of given elements
+     * @param mass1          mass of body 1 (e.g. earth) [kg]
+     * @param mass2          mass of body 2 [kg]
+     * @param radius         reference radius of J2 [m]
+     * @param J2             unnormalized J2 coefficient
+     * @param angleTolerance drift of the angles [rad] up to which the rotation is reused
+     */
+    public SecularJ2Propagator(Orbit orbit, double t0, double mass1, double mass2, double radius, double J2,
+                               double angleTolerance) {
+        if (!(orbit.getEccentricity() >= 0 && orbit.getEccentricity() < 1)) {
+            throw new IllegalArgumentException("eccentricity needs to be in [0, 1)");
+        }
+        if (!(angleTolerance >= 0)) {
+            throw new IllegalArgumentException("angle tolerance must not be negative");
+        }
+        this.orbit = orbit;
+        this.t0 = t0;
+        this.angleTolerance = angleTolerance;
+
+        double GM = Constants.G * (mass1 + mass2);
+        double a = orbit.getSemiMajorAxis();
+        double e = orbit.getEccentricity();
+        double i = orbit.getInclination();
+
+        this.eccentricity = e;
+        this.semiMajorAxis = a;
+        this.inclination = i;
+        this.semiMinorRatio = Math.sqrt((1 - e) * (1 + e));
+        this.sqrtGMa = Math.sqrt(GM * a);
+
+        double n = Math.sqrt(GM / (a * a * a));
+        double p = a * (1 - e) * (1 + e);
+        double k = 1.5 * n * J2 * (radius / p) * (radius / p);
+        double sin2i = Math.sin(i) * Math.sin(i);
+        this.nodalRate = -k * Math.cos(i);
+        this.apsidalRate = k * (2 - 2.5 * sin2i);
+        this.meanMotion = n + k * semiMinorRatio * (1 - 1.5 * sin2i);
+    }
+
+    /**
+     * Creates a propagator for osculating elements of an orbit around the earth. The semimajor axis is
+     * converted to its mean value with the first order short periodic J2 term of Brouwer's theory, the other
+     * elements are used as they are, their short periodic terms only cause bounded errors of a few kilometres in
+     * low earth orbit.
+     *
+     * @param orbit osculating orbital parameters at t0, the eccentricity has to be below 1
+     * @param t0    epoch of given elements
+     * @param mass1 mass of body 1 (e.g. earth) [kg]
+     * @param mass2 mass of body 2 [kg]
+     * @return the propagator of the mean orbit
+     */
+    public static SecularJ2Propagator fromOsculating(Orbit orbit, double t0, double mass1, double mass2) {
+        double a = orbit.getSemiMajorAxis();
+        double e = orbit.getEccentricity();
+        if (!(e >= 0 && e < 1)) {
+            throw new IllegalArgumentException("eccentricity needs to be in [0, 1)");
+        }
+        double cosI = Math.cos(orbit.getInclination());
+        double eta = Math.sqrt((1 - e) * (1 + e));
+
+        double E = Kepler.eccentricAnomaly(e, orbit.getMeanAnomalyAt0());
+        double cosE = Math.cos(E);
+        double ν = Math.atan2(eta * Math.sin(E), cosE - e);
+        double aByR = 1 / (1 - e * cosE);
+        double aByR3 = aByR * aByR * aByR;
+
+        double gamma2 = 0.5 * Constants.J2_EARTH * (Constants.RADIUS_EARTH / a) * (Constants.RADIUS_EARTH / a);
+        double shortPeriodic = a * gamma2 * ((3 * cosI * cosI - 1) * (aByR3 - 1 / (eta * eta * eta))
+                + 3 * (1 - cosI * cosI) * aByR3 * Math.cos(2 * (orbit.getPeriapsis() + ν)));
+
+        Orbit mean = new Orbit(a - shortPeriodic, e, orbit.getInclination(), orbit.getRightAscension(),
+                orbit.getPeriapsis(), orbit.getMeanAnomalyAt0());
+        return new SecularJ2Propagator(mean, t0, mass1, mass2);
+    }
+
+    public Orbit getOrbit() {
+        return orbit;
+    }
+
+    public double getEpoch() {
+        return t0;
+    }
+
+    /**
+     * @return the mean motion including the J2 correction [rad/s]
+     */
+    public double getMeanMotion() {
+        return meanMotion;
+    }
+
+    /**
+     * @return the rate of change of the right ascension [rad/s]
+     */
+    public double getNodalRate() {
+        return nodalRate;
+    }
+
+    /**
+     * @return the rate of change of the argument of periapsis [rad/s]
+     */
+    public double getApsidalRate() {
+        return apsidalRate;
+    }
+
+    /**
+     * Calculates the mean orbital parameters at the given time.
+     *
+     * @param time time [s]
+     * @return the drifted {@link Orbit} with the mean anomaly at the given time
+     */
+    public Orbit orbitAt(double time) {
+        double dt = time - t0;
+        return new Orbit(semiMajorAxis, eccentricity, inclination, orbit.getRightAscension() + nodalRate * dt,
+                orbit.getPeriapsis() + apsidalRate * dt, orbit.getMeanAnomalyAt0() + meanMotion * dt);
+    }
+
+    /**
+     * Calculates the state at the given time.
+     *
+     * @param time time [s]
+     * @return a {@link State} containing the position and velocity of the orbiting object
+     */
+    public State stateAt(double time) {
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        stateAt(time, position, velocity, 0);
+        return new State(position, velocity);
+    }
+
+    /**
+     * Calculates the state at the given time without allocating.
+     *
+     * @param time     time [s]
+     * @param position receives the position at indices offset to offset + 2
+     * @param velocity receives the velocity at indices offset to offset + 2
+     * @param offset   index of the x components
+     */
+    @Override
+    public void stateAt(double time, double[] position, double[] velocity, int offset) {
+        double dt = time - t0;
+        double rightAscension = orbit.getRightAscension() + nodalRate * dt;
+        double periapsis = orbit.getPeriapsis() + apsidalRate * dt;
+        if (!(Math.abs(rightAscension - rotationRightAscension) <= angleTolerance
+                && Math.abs(periapsis - rotationPeriapsis) <= angleTolerance)) {
+            Transformation.orbitalPlaneToInertial(rightAscension, periapsis, inclination, rotation);
+            rotationRightAscension = rightAscension;
+            rotationPeriapsis = periapsis;
+        }
+
+        double E = Kepler.eccentricAnomaly(eccentricity, orbit.getMeanAnomalyAt0() + meanMotion * dt);
+        double cosE = Math.cos(E);
+        double sinE = Math.sin(E);
+
+        // perifocal position and velocity
+        double x = semiMajorAxis * (cosE - eccentricity);
+        double y = semiMajorAxis * semiMinorRatio * sinE;
+        double vFactor = sqrtGMa / (semiMajorAxis * (1 - eccentricity * cosE));
+        double vx = -vFactor * sinE;
+        double vy = vFactor * semiMinorRatio * cosE;
+
+        // the perifocal z components are 0, only the first two columns of the rotation contribute
+        Mat3 m = rotation;
+        position[offset] = m.m00 * x + m.m01 * y;
+        position[offset + 1] = m.m10 * x + m.m11 * y;
+        position[offset + 2] = m.m20 * x + m.m21 * y;
+
+        velocity[offset] = m.m00 * vx + m.m01 * vy;
+        velocity[offset + 1] = m.m10 * vx + m.m11 * vy;
+        velocity[offset + 2] = m.m20 * vx + m.m21 * vy;
+    }
+}
@@ -1,16 +1,126 @@
 package de.qx.orbicular;
 
-public class State {
-    public final double[] position;
-    public final double[] velocity;
+/**
+ * Position and velocity of an object, an immutable value. The components are copied in and out, so a state never
+ * shares an array with its caller. Bulk code should not create states at all but use the kernels writing to flat
+ * arrays, e.g. {@link Position#orbitsToStates(OrbitBatch, double, double, double, double[], double[])}.
+ */
+public final class State {
+    private final double x;
+    private final double y;
+    private final double z;
+    private final double vx;
+    private final double vy;
+    private final double vz;
+
+    /**
+     * @param x  x component of the position [m]
+     * @param y  y component of the position [m]
+     * @param z  z component of the position [m]
+     * @param vx x component of the velocity [m/s]
+     * @param vy y component of the velocity [m/s]
+     * @param vz z component of the velocity [m/s]
+     */
+    public State(double x, double y, double z, double vx, double vy, double vz) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.vx = vx;
+        this.vy = vy;
+        this.vz = vz;
+    }
 
     public State(Matrix position, Matrix velocity) {
-        this.position = new double[]{position.get(0), position.get(1), position.get(2)};
-        this.velocity = new double[]{velocity.get(0), velocity.get(1), velocity.get(2)};
+        this(position.get(0), position.get(1), position.get(2), velocity.get(0), velocity.get(1), velocity.get(2));
     }
 
+    /**
+     * @param position position, the components are copied [m]
+     * @param velocity velocity, the components are copied [m/s]
+     */
     public State(double[] position, double[] velocity) {
-        this.position = position;
-        this.velocity = velocity;
+        this(position[0], position[1], position[2], velocity[0], velocity[1], velocity[2]);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public double getVx() {
+        return vx;
+    }
+
+    public double getVy() {
+        return vy;
+    }
+
+    public double getVz() {
+        return vz;
+    }
+
+    /**
+     * @return a new array holding the position [m]
+     */
+    public double[] getPosition() {
+        return new double[]{x, y, z};
+    }
+
+    /**
+     * @return a new array holding the velocity [m/s]
+     */
+    public double[] getVelocity() {
+        return new double[]{vx, vy, vz};
+    }
+
+    /**
+     * Copies the state into flat arrays without allocating.
+     *
+     * @param position receives the position at indices offset to offset + 2
+     * @param velocity receives the velocity at indices offset to offset + 2
+     * @param offset   index of the x components
+     */
+    public void copyTo(double[] position, double[] velocity, int offset) {
+        position[offset] = x;
+        position[offset + 1] = y;
+        position[offset + 2] = z;
+        velocity[offset] = vx;
+        velocity[offset + 1] = vy;
+        velocity[offset + 2] = vz;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof State)) {
+            return false;
+        }
+        State state = (State) o;
+        return Doubles.same(x, state.x) && Doubles.same(y, state.y) && Doubles.same(z, state.z)
+                && Doubles.same(vx, state.vx) && Doubles.same(vy, state.vy) && Doubles.same(vz, state.vz);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(x);
+        hash = 31 * hash + Double.hashCode(y);
+        hash = 31 * hash + Double.hashCode(z);
+        hash = 31 * hash + Double.hashCode(vx);
+        hash = 31 * hash + Double.hashCode(vy);
+        return 31 * hash + Double.hashCode(vz);
+    }
+
+    @Override
+    public String toString() {
+        return "State{position=[" + x + ", " + y + ", " + z + "], velocity=[" + vx + ", " + vy + ", " + vz + "]}";
     }
 }
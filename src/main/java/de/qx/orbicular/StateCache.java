@@ -0,0 +1,365 @@
+package de.qx.orbicular;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of propagated states for services that answer repeated queries for the same objects at the
+ * same or nearby times. Entries are keyed on an object id and the time quantised to a multiple of the
+ * resolution; queries are answered with the state at the quantised time, so nearby times share one entry.
+ * <p>
+ * The cache is split into lock stripes selected by the hash of the key. Each stripe is an open-addressing
+ * table of primitive keys with linear probing and stores the states in a flat array, so lookups neither box
+ * nor allocate. When a stripe is full its least recently used entry is evicted, i.e. the eviction is LRU per
+ * stripe. States are computed outside the stripe lock while holding the monitor of the trajectory, so
+ * trajectories that are not thread-safe, e.g. a {@link SecularJ2Propagator} caching its rotation, can be shared
+ * by all threads querying the cache. Concurrent misses on the same key may compute the state twice but store the
+ * same state. The trajectory must not be evaluated concurrently outside the cache unless it is thread-safe.
+ */
+public final class StateCache {
+    public final static int DEFAULT_STRIPES = 16;
+
+    private final double resolution;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity   maximum number of cached states
+     * @param resolution quantisation of the time [s]
+     */
+    public StateCache(int capacity, double resolution) {
+        this(capacity, resolution, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param capacity   maximum number of cached states, split evenly across the stripes and rounded up to a
+     *                   multiple of their number
+     * @param resolution quantisation of the time [s]
+     * @param stripes    number of lock stripes, rounded up to a power of two but at most the capacity
+     */
+    public StateCache(int capacity, double resolution, int stripes) {
+        if (capacity < 1 || stripes < 1) {
+            throw new IllegalArgumentException("capacity and stripes need to be positive");
+        }
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("resolution needs to be positive");
+        }
+        int count = Integer.highestOneBit(Math.min(stripes, capacity) - 1) << 1;
+        count = Math.max(1, Math.min(count, Integer.highestOneBit(capacity)));
+        this.resolution = resolution;
+        this.stripes = new Stripe[count];
+        this.stripeMask = count - 1;
+        int perStripe = (capacity + count - 1) / count;
+        for (int s = 0; s < count; s++) {
+            this.stripes[s] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * @param time time [s]
+     * @return the time rounded to the nearest multiple of the resolution [s]
+     */
+    public double quantise(double time) {
+        return Math.rint(time / resolution) * resolution;
+    }
+
+    /**
+     * Looks up the state of an object at the quantised time and calculates it with the trajectory on a miss.
+     * Misses evaluate the trajectory while holding its monitor, other threads may only use a trajectory that is
+     * not thread-safe by synchronising on it as well.
+     *
+     * @param id         identity of the object, has to change when its trajectory changes
+     * @param trajectory trajectory of the object, only used on a miss
+     * @param time       time [s]
+     * @param position   receives the position at the quantised time at indices offset to offset + 2
+     * @param velocity   receives the velocity at the quantised time at indices offset to offset + 2
+     * @param offset     index of the x components
+     */
+    public void stateAt(long id, Trajectory trajectory, double time, double[] position, double[] velocity,
+                        int offset) {
+        double bucket = Math.rint(time / resolution);
+        if (!(Math.abs(bucket) < 0x1p62)) {
+            throw new IllegalArgumentException("time " + time + " out of range for resolution " + resolution);
+        }
+        long key = (long) bucket;
+        long hash = hash(id, key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        if (stripe.get(id, key, (int) hash, position, velocity, offset)) {
+            hits.increment();
+            return;
+        }
+        misses.increment();
+        synchronized (trajectory) {
+            trajectory.stateAt(bucket * resolution, position, velocity, offset);
+        }
+        if (stripe.put(id, key, (int) hash, position, velocity, offset)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes all states of an object, e.g. after its elements were updated.
+     *
+     * @param id identity of the object
+     */
+    public void invalidate(long id) {
+        for (Stripe stripe : stripes) {
+            stripe.removeAll(id);
+        }
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached states
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public int capacity() {
+        return stripes.length * stripes[0].capacity;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    static long hash(long id, long bucket) {
+        // splitmix64 finaliser
+        long h = id * 0x9E3779B97F4A7C15L + bucket;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Fixed-capacity LRU table guarded by its own monitor. Entries occupy the indices 0 to size - 1 of the entry
+     * arrays and are chained from most to least recently used through previous/next, the hash table holds
+     * entry index + 1 with 0 marking a free slot.
+     */
+    private static final class Stripe {
+        private final int capacity;
+        private final int[] table;
+        private final int mask;
+
+        private final long[] ids;
+        private final long[] buckets;
+        private final int[] hashes;
+        private final double[] states;
+        private final int[] previous;
+        private final int[] next;
+
+        private int size;
+        private int head = -1;
+        private int tail = -1;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            int tableSize = Integer.highestOneBit(Math.max(2, 2 * capacity - 1)) << 1;
+            this.table = new int[tableSize];
+            this.mask = tableSize - 1;
+            this.ids = new long[capacity];
+            this.buckets = new long[capacity];
+            this.hashes = new int[capacity];
+            this.states = new double[6 * capacity];
+            this.previous = new int[capacity];
+            this.next = new int[capacity];
+        }
+
+        synchronized boolean get(long id, long bucket, int hash, double[] position, double[] velocity, int offset) {
+            int entry = find(id, bucket, hash);
+            if (entry < 0) {
+                return false;
+            }
+            moveToFront(entry);
+            int base = 6 * entry;
+            position[offset] = states[base];
+            position[offset + 1] = states[base + 1];
+            position[offset + 2] = states[base + 2];
+            velocity[offset] = states[base + 3];
+            velocity[offset + 1] = states[base + 4];
+            velocity[offset + 2] = states[base + 5];
+            return true;
+        }
+
+        /**
+         * @return whether an entry was evicted
+         */
+        synchronized boolean put(long id, long bucket, int hash, double[] position, double[] velocity,
+                                 int offset) {
+            boolean evicted = false;
+            int entry = find(id, bucket, hash);
+            if (entry >= 0) {
+                unlink(entry);
+            } else {
+                if (size == capacity) {
+                    remove(tail);
+                    evicted = true;
+                }
+                entry = size++;
+                ids[entry] = id;
+                buckets[entry] = bucket;
+                hashes[entry] = hash;
+                int slot = hash & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry + 1;
+            }
+            linkFirst(entry);
+            int base = 6 * entry;
+            states[base] = position[offset];
+            states[base + 1] = position[offset + 1];
+            states[base + 2] = position[offset + 2];
+            states[base + 3] = velocity[offset];
+            states[base + 4] = velocity[offset + 1];
+            states[base + 5] = velocity[offset + 2];
+            return evicted;
+        }
+
+        synchronized void removeAll(long id) {
+            for (int entry = size - 1; entry >= 0; entry--) {
+                // remove moves the last entry into the freed index, which has already been checked
+                if (ids[entry] == id) {
+                    remove(entry);
+                }
+            }
+        }
+
+        synchronized void clear() {
+            Arrays.fill(table, 0);
+            size = 0;
+            head = -1;
+            tail = -1;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long id, long bucket, int hash) {
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot] - 1;
+                if (entry < 0) {
+                    return -1;
+                }
+                if (ids[entry] == id && buckets[entry] == bucket) {
+                    return entry;
+                }
+            }
+        }
+
+        private int slotOf(int entry) {
+            int slot = hashes[entry] & mask;
+            while (table[slot] != entry + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Removes an entry from table and list and moves the last entry into its index.
+         */
+        private void remove(int entry) {
+            deleteSlot(slotOf(entry));
+            unlink(entry);
+            int last = --size;
+            if (entry == last) {
+                return;
+            }
+            table[slotOf(last)] = entry + 1;
+            ids[entry] = ids[last];
+            buckets[entry] = buckets[last];
+            hashes[entry] = hashes[last];
+            System.arraycopy(states, 6 * last, states, 6 * entry, 6);
+            previous[entry] = previous[last];
+            next[entry] = next[last];
+            if (previous[entry] >= 0) {
+                next[previous[entry]] = entry;
+            } else {
+                head = entry;
+            }
+            if (next[entry] >= 0) {
+                previous[next[entry]] = entry;
+            } else {
+                tail = entry;
+            }
+        }
+
+        /**
+         * Frees a slot, shifting back later entries of the probe sequence so that lookups still find them.
+         */
+        private void deleteSlot(int slot) {
+            int free = slot;
+            table[free] = 0;
+            for (int j = (free + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = hashes[table[j] - 1] & mask;
+                // the entry at j may move to the free slot unless its home lies cyclically in (free, j]
+                boolean stays = free <= j ? (home > free && home <= j) : (home > free || home <= j);
+                if (!stays) {
+                    table[free] = table[j];
+                    table[j] = 0;
+                    free = j;
+                }
+            }
+        }
+
+        private void moveToFront(int entry) {
+            if (entry != head) {
+                unlink(entry);
+                linkFirst(entry);
+            }
+        }
+
+        private void unlink(int entry) {
+            int p = previous[entry];
+            int n = next[entry];
+            if (p >= 0) {
+                next[p] = n;
+            } else {
+                head = n;
+            }
+            if (n >= 0) {
+                previous[n] = p;
+            } else {
+                tail = p;
+            }
+        }
+
+        private void linkFirst(int entry) {
+            previous[entry] = -1;
+            next[entry] = head;
+            if (head >= 0) {
+                previous[head] = entry;
+            } else {
+                tail = entry;
+            }
+            head = entry;
+        }
+    }
+}
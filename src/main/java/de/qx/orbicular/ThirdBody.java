@@ -0,0 +1,42 @@
+package de.qx.orbicular;
+
+/**
+ * Perturbing acceleration of a third body (e.g. the moon) on an orbit relative to the central body, the
+ * difference of its attraction on the object and on the central body. The position of the third body is taken
+ * from an {@link OrbitPropagator} at each evaluation. Not thread-safe.
+ */
+public final class ThirdBody implements ForceModel {
+    private final OrbitPropagator body;
+    private final double GM;
+
+    private final double[] position = new double[3];
+    private final double[] velocity = new double[3];
+
+    /**
+     * @param body orbit of the third body relative to the central body
+     * @param mass mass of the third body [kg]
+     */
+    public ThirdBody(OrbitPropagator body, double mass) {
+        this.body = body;
+        this.GM = Constants.G * mass;
+    }
+
+    @Override
+    public void addAcceleration(double time, double[] state, double[] acceleration) {
+        body.stateAt(time, position, velocity, 0);
+        double sx = position[0];
+        double sy = position[1];
+        double sz = position[2];
+        double dx = sx - state[0];
+        double dy = sy - state[1];
+        double dz = sz - state[2];
+
+        double d2 = dx * dx + dy * dy + dz * dz;
+        double s2 = sx * sx + sy * sy + sz * sz;
+        double fd = GM / (d2 * Math.sqrt(d2));
+        double fs = GM / (s2 * Math.sqrt(s2));
+        acceleration[0] += fd * dx - fs * sx;
+        acceleration[1] += fd * dy - fs * sy;
+        acceleration[2] += fd * dz - fs * sz;
+    }
+}
@@ -0,0 +1,19 @@
+package de.qx.orbicular;
+
+/**
+ * Position and velocity of an object as a function of time, e.g. an {@link OrbitPropagator} or a
+ * {@link ChebyshevEphemeris}. Implementations need not be thread-safe, e.g. {@link SecularJ2Propagator} caches
+ * its rotation between calls; callers sharing a trajectory between threads have to synchronise on it.
+ */
+public interface Trajectory {
+
+    /**
+     * Calculates the state at the given time without allocating.
+     *
+     * @param time     time [s]
+     * @param position receives the position [m] at indices offset to offset + 2
+     * @param velocity receives the velocity [m/s] at indices offset to offset + 2
+     * @param offset   index of the x components
+     */
+    void stateAt(double time, double[] position, double[] velocity, int offset);
+}
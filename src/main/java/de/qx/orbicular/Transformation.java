@@ -3,12 +3,150 @@ package de.qx.orbicular;
 public class Transformation {
 
     public static Matrix orbitalPlaneToInertial(Matrix x, double Ω, double ω, double i) {
-        Matrix r1 = Matrix.getRotationMatrix(-ω, 3).multiplyWith(x);
+        Vec3 result = orbitalPlaneToInertial(new Vec3(x.get(0), x.get(1), x.get(2)), Ω, ω, i, new Vec3());
+        return new Matrix(new double[]{result.x, result.y, result.z});
+    }
+
+    /**
+     * Rotates a vector from the orbital plane to the inertial frame.
+     *
+     * @param x      vector in the orbital plane
+     * @param Ω      right ascension of orbit [rad]
+     * @param ω      argument of periapsis of orbit [rad]
+     * @param i      inclination of orbit [rad]
+     * @param result receives the inertial vector, may be x
+     * @return result
+     */
+    public static Vec3 orbitalPlaneToInertial(Vec3 x, double Ω, double ω, double i, Vec3 result) {
+        Mat3 rotation = orbitalPlaneToInertial(Ω, ω, i, new Mat3());
+        return rotation.multiply(x, result);
+    }
+
+    /**
+     * Builds the rotation from the orbital plane to the inertial frame, the product of the coordinate system
+     * rotations by -Ω around the z-axis, -i around the x-axis and -ω around the z-axis. Its columns are the
+     * inertial directions of periapsis, of the semi-latus rectum and of the orbit normal.
+     *
+     * @param Ω      right ascension of orbit [rad]
+     * @param ω      argument of periapsis of orbit [rad]
+     * @param i      inclination of orbit [rad]
+     * @param result receives the rotation matrix
+     * @return result
+     */
+    public static Mat3 orbitalPlaneToInertial(double Ω, double ω, double i, Mat3 result) {
+        double cosΩ = Mat3.rotationCos(Ω);
+        double sinΩ = Mat3.rotationSin(Ω);
+        double cosω = Mat3.rotationCos(ω);
+        double sinω = Mat3.rotationSin(ω);
+        double cosI = Mat3.rotationCos(i);
+        double sinI = Mat3.rotationSin(i);
 
-        Matrix r2 = Matrix.getRotationMatrix(-i, 1).multiplyWith(r1);
+        return result.set(
+                cosΩ * cosω - sinΩ * sinω * cosI, -cosΩ * sinω - sinΩ * cosω * cosI, sinΩ * sinI,
+                sinΩ * cosω + cosΩ * sinω * cosI, -sinΩ * sinω + cosΩ * cosω * cosI, -cosΩ * sinI,
+                sinω * sinI, cosω * sinI, cosI);
+    }
+
+    /**
+     * Calculates the Greenwich mean sidereal time with the IAU 1982 model.
+     *
+     * @param julianDate julian date in UT1 [d]
+     * @return the Greenwich mean sidereal time in [0, 2π) [rad]
+     */
+    public static double greenwichMeanSiderealTime(double julianDate) {
+        double d = julianDate - 2451545.0;
+        double T = d / 36525;
+        double degrees = 280.46061837 + 360.98564736629 * d + T * T * (0.000387933 - T / 38710000);
+        double angle = Math.toRadians(degrees % 360);
+        return angle < 0 ? angle + 2 * Math.PI : angle;
+    }
+
+    /**
+     * Builds the rotation from the inertial to the earth-fixed frame, a rotation by the sidereal time around the
+     * z-axis. Precession, nutation and polar motion are neglected.
+     *
+     * @param gmst   Greenwich mean sidereal time [rad]
+     * @param result receives the rotation matrix
+     * @return result
+     */
+    public static Mat3 inertialToEarthFixed(double gmst, Mat3 result) {
+        double cos = Math.cos(gmst);
+        double sin = Math.sin(gmst);
+        return result.set(
+                cos, sin, 0,
+                -sin, cos, 0,
+                0, 0, 1);
+    }
+
+    /**
+     * Transforms a state from the inertial to the earth-fixed frame in place. The velocity is relative to the
+     * rotating earth.
+     *
+     * @param gmst     Greenwich mean sidereal time [rad]
+     * @param position position [m] at indices offset to offset + 2
+     * @param velocity velocity [m/s] at indices offset to offset + 2
+     * @param offset   index of the x components
+     */
+    public static void inertialToEarthFixed(double gmst, double[] position, double[] velocity, int offset) {
+        double cos = Math.cos(gmst);
+        double sin = Math.sin(gmst);
+        double x = cos * position[offset] + sin * position[offset + 1];
+        double y = -sin * position[offset] + cos * position[offset + 1];
+        double vx = cos * velocity[offset] + sin * velocity[offset + 1];
+        double vy = -sin * velocity[offset] + cos * velocity[offset + 1];
+        position[offset] = x;
+        position[offset + 1] = y;
+        velocity[offset] = vx + Constants.ROTATION_EARTH * y;
+        velocity[offset + 1] = vy - Constants.ROTATION_EARTH * x;
+    }
+
+    /**
+     * Converts geodetic coordinates on the WGS84 ellipsoid to an earth-fixed position.
+     *
+     * @param latitude  geodetic latitude [rad]
+     * @param longitude longitude [rad]
+     * @param altitude  height above the ellipsoid [m]
+     * @param result    receives the position [m] at indices offset to offset + 2
+     * @param offset    index of the x component
+     */
+    public static void geodeticToEarthFixed(double latitude, double longitude, double altitude,
+                                            double[] result, int offset) {
+        double e2 = Constants.FLATTENING_EARTH * (2 - Constants.FLATTENING_EARTH);
+        double sinLatitude = Math.sin(latitude);
+        double cosLatitude = Math.cos(latitude);
+        double N = Constants.RADIUS_EARTH / Math.sqrt(1 - e2 * sinLatitude * sinLatitude);
+        result[offset] = (N + altitude) * cosLatitude * Math.cos(longitude);
+        result[offset + 1] = (N + altitude) * cosLatitude * Math.sin(longitude);
+        result[offset + 2] = (N * (1 - e2) + altitude) * sinLatitude;
+    }
 
-        Matrix r3 = Matrix.getRotationMatrix(-Ω, 3).multiplyWith(r2);
+    /**
+     * Converts an earth-fixed position to geodetic coordinates on the WGS84 ellipsoid. The latitude is found by
+     * fixed-point iteration, which gains a factor of about 1/300 per iteration above the surface.
+     *
+     * @param position     position [m] at indices offset to offset + 2
+     * @param offset       index of the x component
+     * @param result       receives the geodetic latitude [rad], the longitude in (-π, π] [rad] and the height
+     *                     above the ellipsoid [m] at indices resultOffset to resultOffset + 2
+     * @param resultOffset index of the latitude
+     */
+    public static void earthFixedToGeodetic(double[] position, int offset, double[] result, int resultOffset) {
+        double e2 = Constants.FLATTENING_EARTH * (2 - Constants.FLATTENING_EARTH);
+        double x = position[offset];
+        double y = position[offset + 1];
+        double z = position[offset + 2];
+        double p = Math.sqrt(x * x + y * y);
 
-        return r3;
+        double latitude = Math.atan2(z, p * (1 - e2));
+        double sinLatitude = Math.sin(latitude);
+        for (int i = 0; i < 5; i++) {
+            double N = Constants.RADIUS_EARTH / Math.sqrt(1 - e2 * sinLatitude * sinLatitude);
+            latitude = Math.atan2(z + e2 * N * sinLatitude, p);
+            sinLatitude = Math.sin(latitude);
+        }
+        result[resultOffset] = latitude;
+        result[resultOffset + 1] = Math.atan2(y, x);
+        result[resultOffset + 2] = p * Math.cos(latitude) + z * sinLatitude
+                - Constants.RADIUS_EARTH * Math.sqrt(1 - e2 * sinLatitude * sinLatitude);
     }
 }
@@ -0,0 +1,76 @@
+package de.qx.orbicular;
+
+/**
+ * Mutable 3 element vector with primitive fields. All operations work in place or write to a given destination,
+ * so short-lived instances can be scalar replaced by the JIT and hot loops do not allocate.
+ */
+public final class Vec3 {
+    public double x;
+    public double y;
+    public double z;
+
+    public Vec3() {
+    }
+
+    public Vec3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public Vec3 set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public Vec3 set(Vec3 v) {
+        return set(v.x, v.y, v.z);
+    }
+
+    /**
+     * Reads the vector from array[offset] to array[offset + 2].
+     */
+    public Vec3 set(double[] array, int offset) {
+        return set(array[offset], array[offset + 1], array[offset + 2]);
+    }
+
+    /**
+     * Writes the vector to array[offset] to array[offset + 2].
+     */
+    public void get(double[] array, int offset) {
+        array[offset] = x;
+        array[offset + 1] = y;
+        array[offset + 2] = z;
+    }
+
+    public Vec3 add(Vec3 v) {
+        return set(x + v.x, y + v.y, z + v.z);
+    }
+
+    public Vec3 subtract(Vec3 v) {
+        return set(x - v.x, y - v.y, z - v.z);
+    }
+
+    public Vec3 scale(double s) {
+        return set(s * x, s * y, s * z);
+    }
+
+    /**
+     * Sets this vector to the cross product a x b, a and b may be this vector.
+     */
+    public Vec3 cross(Vec3 a, Vec3 b) {
+        return set(a.y * b.z - a.z * b.y,
+                a.z * b.x - a.x * b.z,
+                a.x * b.y - a.y * b.x);
+    }
+
+    public double dot(Vec3 v) {
+        return x * v.x + y * v.y + z * v.z;
+    }
+
+    public double norm() {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+}
@@ -0,0 +1,56 @@
+package de.qx.orbicular;
+
+/**
+ * Perturbing acceleration of the J2 and J3 zonal harmonics of an axially symmetric central body whose
+ * rotation axis is the z axis. The central term is not included, combine with {@link CentralGravity}.
+ */
+public final class ZonalHarmonics implements ForceModel {
+    private final double GM;
+    private final double radius;
+    private final double J2;
+    private final double J3;
+
+    /**
+     * Zonal harmonics of the earth.
+     */
+    public ZonalHarmonics() {
+        this(Constants.MASS_EARTH, Constants.RADIUS_EARTH, Constants.J2_EARTH, Constants.J3_EARTH);
+    }
+
+    /**
+     * @param mass   mass of the central body [kg]
+     * @param radius reference (equatorial) radius of the coefficients [m]
+     * @param J2     unnormalized J2 coefficient
+     * @param J3     unnormalized J3 coefficient
+     */
+    public ZonalHarmonics(double mass, double radius, double J2, double J3) {
+        this.GM = Constants.G * mass;
+        this.radius = radius;
+        this.J2 = J2;
+        this.J3 = J3;
+    }
+
+    @Override
+    public void addAcceleration(double time, double[] state, double[] acceleration) {
+        double x = state[0];
+        double y = state[1];
+        double z = state[2];
+        double r2 = x * x + y * y + z * z;
+        double r = Math.sqrt(r2);
+        double z2r2 = z * z / r2;
+
+        // J2
+        double f2 = -1.5 * J2 * GM * radius * radius / (r2 * r2 * r);
+        double xy2 = f2 * (1 - 5 * z2r2);
+        acceleration[0] += xy2 * x;
+        acceleration[1] += xy2 * y;
+        acceleration[2] += f2 * (3 - 5 * z2r2) * z;
+
+        // J3
+        double f3 = -2.5 * J3 * GM * radius * radius * radius / (r2 * r2 * r2 * r);
+        double xy3 = f3 * z * (3 - 7 * z2r2);
+        acceleration[0] += xy3 * x;
+        acceleration[1] += xy3 * y;
+        acceleration[2] += f3 * (6 * z * z - 7 * z * z * z2r2 - 0.6 * r2);
+    }
+}
@@ -0,0 +1,88 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CatalogueFileTest {
+
+    @Test
+    public void testWrittenRecordsAreReadBack() throws IOException {
+        Path file = Files.createTempFile("catalogue", ".orbc");
+        try {
+            Random random = new Random(11);
+            Orbit[] orbits = new Orbit[3000];
+            try (CatalogueWriter writer = new CatalogueWriter(file)) {
+                for (int k = 0; k < orbits.length; k++) {
+                    orbits[k] = Catalogues.orbit(random);
+                    writer.write(40000L + k, orbits[k], 10.0 * k, Constants.MASS_EARTH, 0);
+                }
+            }
+
+            CatalogueFile catalogue = CatalogueFile.open(file);
+            assertEquals(orbits.length, catalogue.size());
+            assertEquals(CatalogueFile.HEADER_SIZE + orbits.length * CatalogueFile.RECORD_SIZE, Files.size(file));
+
+            CatalogueFile.Record record = catalogue.record();
+            for (int k = orbits.length - 1; k >= 0; k--) {
+                record.moveTo(k);
+                assertEquals(40000L + k, record.getId());
+                assertEquals(orbits[k].getSemiMajorAxis(), record.getSemiMajorAxis(), 0.0);
+                assertEquals(orbits[k].getEccentricity(), record.getEccentricity(), 0.0);
+                assertEquals(orbits[k].getInclination(), record.getInclination(), 0.0);
+                assertEquals(orbits[k].getRightAscension(), record.getRightAscension(), 0.0);
+                assertEquals(orbits[k].getPeriapsis(), record.getPeriapsis(), 0.0);
+                assertEquals(orbits[k].getMeanAnomalyAt0(), record.getMeanAnomalyAt0(), 0.0);
+                assertEquals(10.0 * k, record.getEpoch(), 0.0);
+                assertEquals(Constants.G * Constants.MASS_EARTH, record.getGM(), 0.0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPropagateMatchesBatchPropagation() throws IOException {
+        Path file = Files.createTempFile("catalogue", ".orbc");
+        try {
+            Random random = new Random(12);
+            OrbitBatch batch = new OrbitBatch(500);
+            try (CatalogueWriter writer = new CatalogueWriter(file)) {
+                for (int k = 0; k < batch.size(); k++) {
+                    batch.set(k, Catalogues.orbit(random), 5.0 * k);
+                    writer.write(k, batch.getOrbit(k), batch.epoch[k], Constants.MASS_EARTH, 0);
+                }
+            }
+
+            double[] expectedPositions = new double[3 * batch.size()];
+            double[] expectedVelocities = new double[3 * batch.size()];
+            Position.orbitsToStates(batch, 7200, Constants.MASS_EARTH, 0, expectedPositions, expectedVelocities);
+
+            double[] positions = new double[3 * batch.size()];
+            double[] velocities = new double[3 * batch.size()];
+            CatalogueFile.open(file).propagate(0, batch.size(), 7200, positions, velocities);
+
+            assertArrayEquals(expectedPositions, positions, 0.0);
+            assertArrayEquals(expectedVelocities, velocities, 0.0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpeningOtherFileFails() throws IOException {
+        Path file = Files.createTempFile("catalogue", ".txt");
+        try {
+            Files.write(file, "1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927".getBytes("UTF-8"));
+            CatalogueFile.open(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.qx.orbicular;
+
+import java.util.Random;
+
+/**
+ * Reproducible random catalogues for the tests.
+ */
+final class Catalogues {
+
+    private Catalogues() {
+    }
+
+    /**
+     * @return an orbit with a semimajor axis of 6700 to 36700 km, an eccentricity below 0.8 and random angles
+     */
+    static Orbit orbit(Random random) {
+        return new Orbit(6700e3 + random.nextDouble() * 30000e3, random.nextDouble() * 0.8,
+                random.nextDouble() * Math.PI, random.nextDouble() * 2 * Math.PI,
+                random.nextDouble() * 2 * Math.PI, random.nextDouble() * 2 * Math.PI);
+    }
+
+    /**
+     * @return a catalogue of {@link #orbit(Random)}s with epochs in [0, 1000) s
+     */
+    static OrbitBatch catalogue(int size, long seed) {
+        Random random = new Random(seed);
+        OrbitBatch batch = new OrbitBatch(size);
+        for (int k = 0; k < size; k++) {
+            batch.set(k, orbit(random), random.nextDouble() * 1000);
+        }
+        return batch;
+    }
+
+    /**
+     * @return a catalogue of nearly circular orbits with a semimajor axis of 6700 to 8200 km and epoch 0
+     */
+    static OrbitBatch lowEarthOrbits(int size, long seed) {
+        Random random = new Random(seed);
+        OrbitBatch batch = new OrbitBatch(size);
+        for (int k = 0; k < size; k++) {
+            batch.set(k, new Orbit(6700e3 + random.nextDouble() * 1500e3, random.nextDouble() * 0.05,
+                    random.nextDouble() * Math.PI, random.nextDouble() * 2 * Math.PI,
+                    random.nextDouble() * 2 * Math.PI, random.nextDouble() * 2 * Math.PI), 0);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,110 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChebyshevEphemerisTest {
+
+    private static final OrbitPropagator LEO = new OrbitPropagator(
+            new Orbit(6778e3, 0.001, 51.6 * Math.PI / 180, 0.3, 1.2, 0.5), 0, Constants.MASS_EARTH, 0);
+
+    @Test
+    public void testPositionsMatchTrajectory() {
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.fit(LEO, 0, 86400, 600, 12);
+        assertEquals(144, ephemeris.getSegmentCount());
+        assertEquals(86400, ephemeris.getStop(), 0);
+        assertTrue(ephemeris.maxError(LEO, 50) < 1e-3);
+
+        double[] position = new double[3];
+        for (double t = 0; t <= 86400; t += 317) {
+            State expected = LEO.stateAt(t);
+            ephemeris.positionAt(t, position, 0);
+            assertEquals(expected.getX(), position[0], 1e-3);
+            assertEquals(expected.getY(), position[1], 1e-3);
+            assertEquals(expected.getZ(), position[2], 1e-3);
+        }
+    }
+
+    @Test
+    public void testVelocitiesMatchTrajectory() {
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.fit(LEO, 0, 86400, 600, 12);
+        double[] position = new double[6];
+        double[] velocity = new double[6];
+        double[] positionOnly = new double[3];
+        for (double t = 0; t <= 86400; t += 317) {
+            State expected = LEO.stateAt(t);
+            ephemeris.stateAt(t, position, velocity, 3);
+            ephemeris.positionAt(t, positionOnly, 0);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(positionOnly[i], position[3 + i], 0);
+                assertEquals(expected.getVelocity()[i], velocity[3 + i], 1e-5);
+            }
+        }
+    }
+
+    @Test
+    public void testFitWithinChoosesSmallestDegree() {
+        ChebyshevEphemeris ephemeris = ChebyshevEphemeris.fitWithin(LEO, 0, 6000, 600, 1.0);
+        int degree = ephemeris.getDegree();
+        assertTrue(ephemeris.maxError(LEO, 50) <= 1.0);
+        assertTrue(ChebyshevEphemeris.fit(LEO, 0, 6000, 600, degree - 1).maxError(LEO, 2 * degree) > 1.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnreachableToleranceFails() {
+        ChebyshevEphemeris.fitWithin(LEO, 0, 86400, 86400, 1e-3);
+    }
+
+    @Test
+    public void testTradeOffErrorDecreasesWithDegree() {
+        int[] degrees = {4, 8, 12, 16};
+        double[][] errors = ChebyshevEphemeris.tradeOff(LEO, 0, 6000, new double[]{300, 600, 1200}, degrees);
+        for (double[] row : errors) {
+            for (int j = 1; j < degrees.length; j++) {
+                assertTrue(row[j] < row[j - 1] || row[j] < 1e-6);
+            }
+        }
+        assertTrue(errors[0][1] < errors[2][1]);
+        assertEquals(ChebyshevEphemeris.HEADER_SIZE + 10 * 3 * 13 * 8,
+                ChebyshevEphemeris.size(0, 6000, 600, 12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimeOutsideRangeFails() {
+        ChebyshevEphemeris.fit(LEO, 0, 6000, 600, 8).positionAt(6001, new double[3], 0);
+    }
+
+    @Test
+    public void testWrittenEphemerisIsReadBack() throws IOException {
+        Path file = Files.createTempFile("ephemeris", ".cheb");
+        try {
+            ChebyshevEphemeris ephemeris = ChebyshevEphemeris.fit(LEO, 100, 20000, 900, 14);
+            ephemeris.write(file);
+            assertEquals(ChebyshevEphemeris.size(100, 20000, 900, 14), Files.size(file));
+
+            ChebyshevEphemeris read = ChebyshevEphemeris.read(file);
+            assertEquals(ephemeris.getDegree(), read.getDegree());
+            assertEquals(ephemeris.getSegmentCount(), read.getSegmentCount());
+            assertEquals(ephemeris.getStart(), read.getStart(), 0);
+            assertEquals(ephemeris.getSpan(), read.getSpan(), 0);
+
+            double[] expected = new double[3];
+            double[] position = new double[3];
+            for (double t = 100; t <= read.getStop(); t += 123) {
+                ephemeris.positionAt(t, expected, 0);
+                read.positionAt(t, position, 0);
+                assertEquals(expected[0], position[0], 0);
+                assertEquals(expected[1], position[1], 0);
+                assertEquals(expected[2], position[2], 0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactPositionsTest {
+    private static final double[] CENTER = {0, 0, 0};
+
+    private static double[] positions(OrbitBatch batch) {
+        double[] positions = new double[3 * batch.size()];
+        Position.orbitsToStates(batch, 5000, Constants.MASS_EARTH, 0, positions, new double[3 * batch.size()]);
+        return positions;
+    }
+
+    /**
+     * Encodes and decodes positions, checking the error of each component against the documented bound.
+     */
+    private static double roundTrip(CompactPositions encoding, double[] positions) {
+        int count = positions.length / 3;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoding.size(count));
+        encoding.writeHeader(buffer, count);
+        encoding.encode(positions, 0, count, buffer, 0);
+        double[] decoded = new double[positions.length];
+        assertEquals(count, CompactPositions.decode(buffer, decoded));
+
+        double[] origin = encoding.getOrigin();
+        double largest = 0;
+        for (int i = 0; i < positions.length; i += 3) {
+            double dx = positions[i] - origin[0];
+            double dy = positions[i + 1] - origin[1];
+            double dz = positions[i + 2] - origin[2];
+            double bound = encoding.maxError(Math.sqrt(dx * dx + dy * dy + dz * dz));
+            for (int c = 0; c < 3; c++) {
+                double error = Math.abs(decoded[i + c] - positions[i + c]);
+                assertTrue(error + " > " + bound, error <= bound * (1 + 1e-9) + Math.ulp(positions[i + c]));
+                largest = Math.max(largest, error);
+            }
+        }
+        return largest;
+    }
+
+    @Test
+    public void testFloatErrorBound() {
+        double[] positions = positions(Catalogues.lowEarthOrbits(2000, 11));
+        double error = roundTrip(CompactPositions.floats(CENTER), positions);
+        assertTrue(error < 0.5);
+        assertTrue(error > 0.01);
+    }
+
+    @Test
+    public void testOriginNearPositions() {
+        double[] positions = positions(Catalogues.lowEarthOrbits(2000, 11));
+        double[] origin = {positions[0], positions[1], positions[2]};
+        // a cluster around the origin, e.g. objects close to a conjunction
+        double[] cluster = new double[300];
+        Random random = new Random(3);
+        for (int i = 0; i < cluster.length; i++) {
+            cluster[i] = origin[i % 3] + (random.nextDouble() - 0.5) * 2000;
+        }
+        assertTrue(roundTrip(CompactPositions.floats(origin), cluster) < 1e-4);
+        assertTrue(roundTrip(CompactPositions.floats(CENTER), cluster) > 1e-2);
+    }
+
+    @Test
+    public void testFixedPointErrorBound() {
+        OrbitBatch batch = Catalogues.lowEarthOrbits(2000, 11);
+        double[] positions = positions(batch);
+        double range = CompactPositions.range(batch, CENTER);
+
+        CompactPositions ints = CompactPositions.fixedPoint(CompactPositions.Encoding.INT, CENTER, range);
+        assertTrue(roundTrip(ints, positions) < 5e-3);
+
+        CompactPositions shorts = CompactPositions.fixedPoint(CompactPositions.Encoding.SHORT, CENTER, range);
+        assertEquals(6 * 2000 + CompactPositions.HEADER_SIZE, shorts.size(2000));
+        double error = roundTrip(shorts, positions);
+        assertTrue(error <= shorts.getResolution() / 2 * (1 + 1e-9));
+        assertTrue(error > shorts.getResolution() / 4);
+    }
+
+    @Test
+    public void testFixedPointClampsToRange() {
+        CompactPositions shorts = CompactPositions.fixedPoint(CompactPositions.Encoding.SHORT, CENTER, 1000);
+        ByteBuffer buffer = ByteBuffer.allocate(shorts.size(1));
+        shorts.writeHeader(buffer, 1);
+        shorts.encode(new double[]{5000, -5000, 500}, 0, 1, buffer, 0);
+        double[] decoded = new double[3];
+        CompactPositions.decode(buffer, decoded);
+        assertArrayEquals(new double[]{1000, -1000, 500}, decoded, shorts.getResolution());
+        assertEquals(Double.POSITIVE_INFINITY, shorts.maxError(2000), 0);
+    }
+
+    @Test
+    public void testEngineMatchesSequentialEncoding() {
+        OrbitBatch batch = Catalogues.lowEarthOrbits(1000, 11);
+        double[] positions = new double[3000];
+        Position.orbitsToStates(batch, 3600, Constants.MASS_EARTH, 0, positions, new double[3000]);
+        CompactPositions encoding = CompactPositions.floats(new double[]{1e6, -2e6, 3e5});
+        ByteBuffer expected = ByteBuffer.allocate(encoding.size(1000));
+        encoding.writeHeader(expected, 1000);
+        encoding.encode(positions, 0, 1000, expected, 0);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(encoding.size(1000));
+            new PropagationEngine(pool, 37).propagate(batch, 3600, Constants.MASS_EARTH, 0, encoding, buffer);
+            assertEquals(0, buffer.position());
+            assertEquals(expected, buffer);
+
+            // the lane propagator agrees to rounding error of the doubles, far below the float error
+            ByteBuffer lanes = ByteBuffer.allocateDirect(encoding.size(1000));
+            new PropagationEngine(pool, 37, true).propagate(batch, 3600, Constants.MASS_EARTH, 0, encoding, lanes);
+            double[] decoded = new double[3000];
+            CompactPositions.decode(lanes, decoded);
+            assertArrayEquals(positions, decoded, 1.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferTooSmall() {
+        CompactPositions encoding = CompactPositions.floats(CENTER);
+        encoding.writeHeader(ByteBuffer.allocate(encoding.size(10) - 1), 10);
+    }
+}
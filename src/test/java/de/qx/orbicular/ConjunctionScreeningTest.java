@@ -0,0 +1,154 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConjunctionScreeningTest {
+
+    @Test
+    public void testDesignedEncounter() {
+        double GM = Constants.G * Constants.MASS_EARTH;
+        double a = 7000e3;
+        double n = Math.sqrt(GM / (a * a * a));
+        double tca = 1000;
+
+        // an equatorial and a polar orbit, both at the ascending node at tca, 1 km apart radially
+        OrbitBatch batch = new OrbitBatch(4);
+        batch.set(0, new Orbit(a, 0, 0, 0, 0, -n * tca), 0);
+        double n1 = Math.sqrt(GM / Math.pow(a + 1e3, 3));
+        batch.set(1, new Orbit(a + 1e3, 0, Math.PI / 2, 0, 0, -n1 * tca), 0);
+        // far away
+        batch.set(2, new Orbit(42164e3, 0, 0, 0, 0, 0), 0);
+        batch.set(3, new Orbit(42164e3, 0, 0.1, 1, 0, 2), 0);
+
+        List<Conjunction> conjunctions = new ConjunctionScreening(5e3, 30).screen(batch, Constants.MASS_EARTH, 0,
+                0, 3600);
+        assertEquals(1, conjunctions.size());
+        Conjunction conjunction = conjunctions.get(0);
+        assertEquals(0, conjunction.getFirst());
+        assertEquals(1, conjunction.getSecond());
+        assertEquals(tca, conjunction.getTimeOfClosestApproach(), 1e-3);
+        assertEquals(1e3, conjunction.getMissDistance(), 1e-3);
+        assertEquals(Math.sqrt(2) * a * n, conjunction.getRelativeSpeed(), 10);
+    }
+
+    @Test
+    public void testEccentricCrossingAtCoarseStep() {
+        double GM = Constants.G * Constants.MASS_EARTH;
+        double step = 1800;
+        double tca = 1.35 * step;
+
+        // a transfer orbit crossing a radius of 7000 km inbound at tca, and a circular orbit 1 km above it
+        // through the crossing point
+        double a = 26600e3;
+        double e = 0.74;
+        double r = 7000e3;
+        double trueAnomaly = -Math.acos((a * (1 - e * e) / r - 1) / e);
+        double E = 2 * Math.atan(Math.sqrt((1 - e) / (1 + e)) * Math.tan(trueAnomaly / 2));
+        double n = Math.sqrt(GM / (a * a * a));
+        double n1 = Math.sqrt(GM / Math.pow(r + 1e3, 3));
+        OrbitBatch batch = new OrbitBatch(2);
+        batch.set(0, new Orbit(a, e, 0, 0, 0, E - e * Math.sin(E) - n * tca), 0);
+        batch.set(1, new Orbit(r + 1e3, 0, 1.9, trueAnomaly, 0, -n1 * tca), 0);
+
+        List<Conjunction> conjunctions = new ConjunctionScreening(10e3, step).screen(batch, Constants.MASS_EARTH,
+                0, 0, 3 * step);
+        assertEquals(1, conjunctions.size());
+        Conjunction conjunction = conjunctions.get(0);
+        assertEquals(tca, conjunction.getTimeOfClosestApproach(), 60);
+        assertTrue(conjunction.getMissDistance() < 1e3);
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(5);
+        int count = 150;
+        OrbitBatch batch = new OrbitBatch(count);
+        for (int k = 0; k < count; k++) {
+            batch.set(k, new Orbit(7000e3 + random.nextDouble() * 30e3, random.nextDouble() * 0.002,
+                    random.nextDouble() * Math.PI, 2 * Math.PI * random.nextDouble(),
+                    2 * Math.PI * random.nextDouble(), 2 * Math.PI * random.nextDouble()), 0);
+        }
+        // a few objects in much higher orbits, removed by the perigee/apogee filter
+        batch.set(0, new Orbit(26600e3, 0.0, 1.1, 0, 0, 0), 0);
+        batch.set(1, new Orbit(42164e3, 0.0, 0.0, 0, 0, 0), 0);
+
+        double threshold = 100e3;
+        double stop = 3000;
+        List<Conjunction> conjunctions = new ConjunctionScreening(threshold, 20).screen(batch,
+                Constants.MASS_EARTH, 0, 0, stop);
+
+        // all pairs sampled every second
+        int samples = (int) stop + 1;
+        double[] positions = new double[3 * count * samples];
+        double[] velocities = new double[3 * count * samples];
+        double[] times = new double[samples];
+        for (int j = 0; j < samples; j++) {
+            times[j] = j;
+        }
+        new PropagationEngine().propagate(batch, times, Constants.MASS_EARTH, 0, positions, velocities);
+
+        int found = 0;
+        for (int k = 0; k < count; k++) {
+            for (int l = k + 1; l < count; l++) {
+                double before = Double.POSITIVE_INFINITY;
+                double current = distance(positions, count, 0, k, l);
+                for (int j = 0; j < samples; j++) {
+                    double after = j + 1 < samples ? distance(positions, count, j + 1, k, l) : Double.POSITIVE_INFINITY;
+                    if (current <= before && current < after && current < 0.9 * threshold) {
+                        assertTrue(contains(conjunctions, k, l, j, current));
+                        found++;
+                    }
+                    before = current;
+                    current = after;
+                }
+            }
+        }
+        assertTrue(found > 0);
+        for (Conjunction conjunction : conjunctions) {
+            assertTrue(conjunction.getMissDistance() <= threshold);
+            assertTrue(conjunction.getFirst() > 1);
+        }
+    }
+
+    private static double distance(double[] positions, int count, int sample, int k, int l) {
+        int a = 3 * (sample * count + k);
+        int b = 3 * (sample * count + l);
+        double dx = positions[a] - positions[b];
+        double dy = positions[a + 1] - positions[b + 1];
+        double dz = positions[a + 2] - positions[b + 2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static boolean contains(List<Conjunction> conjunctions, int k, int l, double time, double distance) {
+        for (Conjunction conjunction : conjunctions) {
+            if (conjunction.getFirst() == k && conjunction.getSecond() == l
+                    && Math.abs(conjunction.getTimeOfClosestApproach() - time) <= 1
+                    && conjunction.getMissDistance() <= distance + 1e-3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testPerigeeApogeeFilter() {
+        double[] perigee = {7000e3, 7100e3, 20000e3, 7050e3, 40000e3, 6600e3};
+        double[] apogee = {7020e3, 7150e3, 30000e3, 7060e3, 40100e3, 6700e3};
+        assertArrayEquals(new int[]{0, 1, 3}, ConjunctionScreening.overlapping(perigee, apogee, 40e3));
+        assertArrayEquals(new int[]{0, 1, 3, 5}, ConjunctionScreening.overlapping(perigee, apogee, 300e3));
+    }
+
+    @Test
+    public void testSortedIndices() {
+        double[] keys = {7000e3, 6600e3, 7000e3, Double.POSITIVE_INFINITY, 6500e3, 7000e3};
+        assertArrayEquals(new int[]{4, 1, 0, 2, 5, 3}, ConjunctionScreening.sortedIndices(keys));
+        assertArrayEquals(new int[0], ConjunctionScreening.sortedIndices(new double[0]));
+    }
+}
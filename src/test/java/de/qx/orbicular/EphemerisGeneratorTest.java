@@ -0,0 +1,167 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EphemerisGeneratorTest {
+
+    private static final Orbit LEO = new Orbit(6778e3, 0.001, 0.9, 0.3, 1.2, 0.5);
+    private static final Orbit HEO = new Orbit(26600e3, 0.74, 1.1, 2.0, 4.7, 0.1);
+
+    private static List<double[]> collect(EphemerisGenerator generator, Trajectory[] trajectories) {
+        List<double[]> samples = new ArrayList<>();
+        generator.generate(trajectories, (object, time, x, y, z, vx, vy, vz) ->
+                samples.add(new double[]{object, time, x, y, z, vx, vy, vz}));
+        return samples;
+    }
+
+    @Test
+    public void testFixedStepMatchesPropagator() {
+        OrbitPropagator leo = new OrbitPropagator(LEO, 0, Constants.MASS_EARTH, 0);
+        OrbitPropagator heo = new OrbitPropagator(HEO, 100, Constants.MASS_EARTH, 0);
+        List<double[]> samples = collect(new EphemerisGenerator(1000, 1600, 60),
+                new OrbitPropagator[]{leo, heo});
+
+        assertEquals(22, samples.size());
+        for (int s = 0; s < samples.size(); s++) {
+            double[] sample = samples.get(s);
+            assertEquals(s / 11, (int) sample[0]);
+            assertEquals(1000 + (s % 11) * 60, sample[1], 0.0);
+
+            State state = (s < 11 ? leo : heo).stateAt(sample[1]);
+            assertArrayEquals(state.getPosition(), new double[]{sample[2], sample[3], sample[4]}, 0.0);
+            assertArrayEquals(state.getVelocity(), new double[]{sample[5], sample[6], sample[7]}, 0.0);
+        }
+    }
+
+    @Test
+    public void testBatchMatchesScalarKernel() {
+        OrbitBatch batch = OrbitBatch.of(new Orbit[]{LEO, HEO, new Orbit(7000e3, 1.5, 0.2, 0.1, 0.3, 0.0)},
+                new double[]{0, 50, 100});
+        List<double[]> samples = new ArrayList<>();
+        new EphemerisGenerator(0, 3600, 600).generate(batch, Constants.MASS_EARTH, 0,
+                (object, time, x, y, z, vx, vy, vz) -> samples.add(new double[]{object, time, x, y, z, vx, vy, vz}));
+
+        assertEquals(21, samples.size());
+        for (double[] sample : samples) {
+            int k = (int) sample[0];
+            State state = Position.orbitToState(batch.getOrbit(k), sample[1], batch.epoch[k], Constants.MASS_EARTH, 0);
+            assertArrayEquals(state.getPosition(), new double[]{sample[2], sample[3], sample[4]}, 0.0);
+            assertArrayEquals(state.getVelocity(), new double[]{sample[5], sample[6], sample[7]}, 0.0);
+        }
+    }
+
+    @Test
+    public void testAdaptiveStepRefinesAtPeriapsis() {
+        OrbitPropagator heo = new OrbitPropagator(HEO, 0, Constants.MASS_EARTH, 0);
+        double period = 2 * Math.PI / heo.getMeanMotion();
+        List<double[]> samples = collect(new EphemerisGenerator(0, period, 1, 3600, 0.02),
+                new OrbitPropagator[]{heo});
+
+        assertEquals(0, samples.get(0)[1], 0.0);
+        assertEquals(period, samples.get(samples.size() - 1)[1], 0.0);
+
+        double smallest = Double.POSITIVE_INFINITY;
+        double largest = 0;
+        for (int s = 1; s < samples.size(); s++) {
+            double step = samples.get(s)[1] - samples.get(s - 1)[1];
+            assertTrue(step > 0 && step <= 3600);
+            if (s < samples.size() - 1) {
+                smallest = Math.min(smallest, step);
+            }
+            largest = Math.max(largest, step);
+        }
+        // the angular rate at periapsis exceeds the one at apoapsis by ((1 + e) / (1 - e))^2
+        assertTrue(largest > 20 * smallest);
+    }
+
+    @Test
+    public void testStreamsAnyTrajectory() {
+        SecularJ2Propagator j2 = new SecularJ2Propagator(LEO, 0, Constants.MASS_EARTH, 0);
+        ChebyshevEphemeris chebyshev = ChebyshevEphemeris.fit(new OrbitPropagator(HEO, 0, Constants.MASS_EARTH, 0),
+                0, 3600, 600, 12);
+        List<double[]> samples = collect(new EphemerisGenerator(0, 3600, 300), new Trajectory[]{j2, chebyshev});
+
+        assertEquals(26, samples.size());
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (double[] sample : samples) {
+            Trajectory trajectory = sample[0] == 0 ? j2 : chebyshev;
+            trajectory.stateAt(sample[1], position, velocity, 0);
+            assertArrayEquals(position, new double[]{sample[2], sample[3], sample[4]}, 0.0);
+            assertArrayEquals(velocity, new double[]{sample[5], sample[6], sample[7]}, 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInfiniteStop() {
+        new EphemerisGenerator(0, Double.POSITIVE_INFINITY, 60);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInfiniteStep() {
+        new EphemerisGenerator(0, 3600, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testDoubleBufferSinkFlushesFullBuffers() {
+        OrbitPropagator leo = new OrbitPropagator(LEO, 0, Constants.MASS_EARTH, 0);
+        List<Integer> flushed = new ArrayList<>();
+        double[] last = new double[DoubleBufferSink.SAMPLE_SIZE];
+        DoubleBufferSink sink = new DoubleBufferSink(DoubleBuffer.allocate(10 * DoubleBufferSink.SAMPLE_SIZE + 3),
+                buffer -> {
+                    flushed.add(buffer.remaining() / DoubleBufferSink.SAMPLE_SIZE);
+                    buffer.position(buffer.limit() - DoubleBufferSink.SAMPLE_SIZE);
+                    buffer.get(last);
+                });
+        new EphemerisGenerator(0, 2400, 100).generate(leo, 7, sink);
+        sink.flush();
+
+        assertEquals(3, flushed.size());
+        assertEquals(10, (int) flushed.get(0));
+        assertEquals(10, (int) flushed.get(1));
+        assertEquals(5, (int) flushed.get(2));
+        assertEquals(7, last[0], 0.0);
+        assertEquals(2400, last[1], 0.0);
+        assertArrayEquals(leo.stateAt(2400).getPosition(),
+                new double[]{last[2], last[3], last[4]}, 0.0);
+    }
+
+    @Test
+    public void testFileWriterRecords() throws IOException {
+        Path file = Files.createTempFile("ephemeris", ".bin");
+        try {
+            OrbitPropagator heo = new OrbitPropagator(HEO, 0, Constants.MASS_EARTH, 0);
+            EphemerisGenerator generator = new EphemerisGenerator(0, 86400, 30);
+            try (EphemerisFileWriter writer = new EphemerisFileWriter(file)) {
+                generator.generate(heo, 3, writer);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(2881 * EphemerisFileWriter.RECORD_SIZE, buffer.capacity());
+            for (int s = 0; s < 2881; s += 719) {
+                int base = s * EphemerisFileWriter.RECORD_SIZE;
+                State state = heo.stateAt(30.0 * s);
+                assertEquals(3, buffer.getInt(base));
+                assertEquals(30.0 * s, buffer.getDouble(base + 8), 0.0);
+                assertEquals(state.getX(), buffer.getDouble(base + 16), 0.0);
+                assertEquals(state.getZ(), buffer.getDouble(base + 32), 0.0);
+                assertEquals(state.getVy(), buffer.getDouble(base + 48), 0.0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ForceModelTest {
+
+    private static double zonalPotential(double x, double y, double z) {
+        double GM = Constants.G * Constants.MASS_EARTH;
+        double R = Constants.RADIUS_EARTH;
+        double r = Math.sqrt(x * x + y * y + z * z);
+        double s = z / r;
+        double P2 = (3 * s * s - 1) / 2;
+        double P3 = (5 * s * s * s - 3 * s) / 2;
+        return -GM / r * (Constants.J2_EARTH * Math.pow(R / r, 2) * P2 + Constants.J3_EARTH * Math.pow(R / r, 3) * P3);
+    }
+
+    @Test
+    public void testZonalHarmonicsIsGradientOfPotential() {
+        ZonalHarmonics zonal = new ZonalHarmonics();
+        double[][] points = {{7000e3, 0, 0}, {3000e3, -4000e3, 5000e3}, {100e3, 200e3, -6900e3}};
+        for (double[] point : points) {
+            double[] acceleration = new double[3];
+            zonal.addAcceleration(0, new double[]{point[0], point[1], point[2], 0, 0, 0}, acceleration);
+
+            double h = 1;
+            for (int i = 0; i < 3; i++) {
+                double[] plus = point.clone();
+                double[] minus = point.clone();
+                plus[i] += h;
+                minus[i] -= h;
+                double gradient = (zonalPotential(plus[0], plus[1], plus[2])
+                        - zonalPotential(minus[0], minus[1], minus[2])) / (2 * h);
+                assertEquals(gradient, acceleration[i], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testCentralGravity() {
+        double[] acceleration = {1, 2, 3};
+        new CentralGravity(Constants.MASS_EARTH, 0).addAcceleration(0, new double[]{0, 7000e3, 0, 0, 0, 0}, acceleration);
+        assertEquals(1, acceleration[0], 0.0);
+        assertEquals(2 - Constants.G * Constants.MASS_EARTH / (7000e3 * 7000e3), acceleration[1], 1e-12);
+        assertEquals(3, acceleration[2], 0.0);
+    }
+
+    @Test
+    public void testThirdBodyIsTidal() {
+        double massMoon = 7.342e22;
+        OrbitPropagator moon = new OrbitPropagator(new Orbit(384400e3, 0, 0, 0, 0, 0), 0, Constants.MASS_EARTH,
+                massMoon);
+        ThirdBody thirdBody = new ThirdBody(moon, massMoon);
+        double GM = Constants.G * massMoon;
+
+        // the central body feels the same attraction, no relative acceleration
+        double[] acceleration = new double[3];
+        thirdBody.addAcceleration(0, new double[6], acceleration);
+        assertEquals(0, acceleration[0], 1e-20);
+
+        // on the line to the moon, tidal acceleration of about 2 * GM * r / d^3
+        thirdBody.addAcceleration(0, new double[]{7000e3, 0, 0, 0, 0, 0}, acceleration);
+        double d = 384400e3;
+        assertEquals(GM / Math.pow(d - 7000e3, 2) - GM / (d * d), acceleration[0], 1e-18);
+        assertEquals(0, acceleration[1], 1e-15);
+    }
+
+    @Test
+    public void testDragOpposesRelativeVelocity() {
+        double[] acceleration = new double[3];
+        double v = 7700;
+        new AtmosphericDrag(0.01).addAcceleration(0,
+                new double[]{Constants.RADIUS_EARTH + 400e3, 0, 0, 0, v, 0}, acceleration);
+        double relative = v - Constants.ROTATION_EARTH * (Constants.RADIUS_EARTH + 400e3);
+        assertEquals(0, acceleration[0], 0.0);
+        assertEquals(-0.5 * AtmosphericDrag.DENSITY_400_KM * 0.01 * relative * relative, acceleration[1], 1e-15);
+    }
+}
@@ -0,0 +1,62 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class KeplerTest {
+
+    @Test
+    public void testEccentricAnomalySolvesKeplersEquationForAllEccentricities() {
+        for (double e = 0; e < 1; e += 0.01) {
+            for (double M = -7; M <= 7; M += 0.05) {
+                double E = Kepler.eccentricAnomaly(e, M);
+                assertEquals("e=" + e + ", M=" + M, M, E - e * Math.sin(E), 1e-13);
+            }
+        }
+    }
+
+    @Test
+    public void testEccentricAnomalyNearParabolicLimit() {
+        double[] eccentricities = {0.99, 0.999, 0.999999};
+        double[] anomalies = {1e-9, 1e-6, 1e-3, 0.1, Math.PI - 1e-9};
+        for (double e : eccentricities) {
+            for (double M : anomalies) {
+                double E = Kepler.eccentricAnomaly(e, M);
+                assertEquals(M, E - e * Math.sin(E), 1e-14);
+                assertEquals(-E, Kepler.eccentricAnomaly(e, -M), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testSolversAgree() {
+        KeplerSolver table = new KeplerStarterTable(64, 256);
+        for (double e = 0; e < 1; e += 0.03) {
+            for (double M = -20; M <= 20; M += 0.37) {
+                double E = Kepler.eccentricAnomaly(e, M);
+                assertEquals(E, table.eccentricAnomaly(e, M), 1e-12);
+                assertEquals(E, Kepler.NEWTON.eccentricAnomaly(e, M), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testHyperbolicAnomalySolvesKeplersEquation() {
+        double[] eccentricities = {1.0001, 1.01, 1.5, 3, 50};
+        for (double e : eccentricities) {
+            for (double M = -100; M <= 100; M += 0.5) {
+                double H = Kepler.hyperbolicAnomaly(e, M);
+                assertEquals("e=" + e + ", M=" + M, M, e * Math.sinh(H) - H, 1e-12 * Math.max(1, Math.abs(M)));
+            }
+        }
+    }
+
+    @Test
+    public void testParabolicAnomalySolvesBarkersEquation() {
+        for (double M = -50; M <= 50; M += 0.25) {
+            double D = Kepler.parabolicAnomaly(M);
+            assertEquals(2 * M, D + D * D * D / 3, 1e-13 * Math.max(1, Math.abs(M)));
+        }
+    }
+}
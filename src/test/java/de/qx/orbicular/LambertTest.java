@@ -0,0 +1,108 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LambertTest {
+
+    private static final Orbit ORBIT = new Orbit(12000e3, 0.3, 0.5, 1.0, 2.0, 0.3);
+
+    private static double distance(double[] a, int offset, double[] b) {
+        double dx = a[offset] - b[0];
+        double dy = a[offset + 1] - b[1];
+        double dz = a[offset + 2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Integrates the transfer numerically and returns the distance to the target.
+     */
+    private static double miss(double[] r1, double[] v1, int offset, double timeOfFlight, double[] r2) {
+        NumericalPropagator propagator = new NumericalPropagator(new DormandPrince(1e-13, 1e-6, 1e-9),
+                new CentralGravity(Constants.MASS_EARTH, 0));
+        double[] state = {r1[0], r1[1], r1[2], v1[offset], v1[offset + 1], v1[offset + 2]};
+        propagator.propagate(state, 0, timeOfFlight);
+        return distance(state, 0, r2);
+    }
+
+    @Test
+    public void testRecoversVelocitiesOfOrbit() {
+        OrbitPropagator propagator = new OrbitPropagator(ORBIT, 0, Constants.MASS_EARTH, 0);
+        State departure = propagator.stateAt(1000);
+        State arrival = propagator.stateAt(6000);
+        State[] transfer = Lambert.solve(departure.getPosition(), arrival.getPosition(), 5000, Constants.MASS_EARTH, 0);
+        assertEquals(0, distance(transfer[0].getVelocity(), 0, departure.getVelocity()), 1e-6);
+        assertEquals(0, distance(transfer[1].getVelocity(), 0, arrival.getVelocity()), 1e-6);
+        assertEquals(0, distance(transfer[1].getPosition(), 0, arrival.getPosition()), 0);
+    }
+
+    @Test
+    public void testMultipleRevolutionsContainOrbit() {
+        OrbitPropagator propagator = new OrbitPropagator(ORBIT, 0, Constants.MASS_EARTH, 0);
+        double period = 2 * Math.PI / propagator.getMeanMotion();
+        double timeOfFlight = 2.4 * period;
+        State departure = propagator.stateAt(0);
+        State arrival = propagator.stateAt(timeOfFlight);
+
+        double[] v1 = new double[15];
+        double[] v2 = new double[15];
+        int solutions = Lambert.solve(departure.getPosition(), arrival.getPosition(), timeOfFlight,
+                Constants.MASS_EARTH, 0, false, 2, v1, v2);
+        assertEquals(5, solutions);
+        double closest = Double.MAX_VALUE;
+        for (int k = 0; k < solutions; k++) {
+            closest = Math.min(closest, distance(v1, 3 * k, departure.getVelocity()));
+            assertEquals(0, miss(departure.getPosition(), v1, 3 * k, timeOfFlight, arrival.getPosition()), 1e-2);
+        }
+        assertEquals(0, closest, 1e-6);
+    }
+
+    @Test
+    public void testShortTimeOfFlightLimitsRevolutions() {
+        double[] r1 = {7000e3, 0, 0};
+        double[] r2 = {0, 8000e3, 0};
+        double[] v1 = new double[9];
+        double[] v2 = new double[9];
+        assertEquals(1, Lambert.solve(r1, r2, 3000, Constants.MASS_EARTH, 0, false, 1, v1, v2));
+        assertEquals(3, Lambert.solve(r1, r2, 20000, Constants.MASS_EARTH, 0, false, 1, v1, v2));
+    }
+
+    @Test
+    public void testHyperbolicAndRetrogradeTransfers() {
+        double[] r1 = {7000e3, 1000e3, -500e3};
+        double[] r2 = {-2000e3, 9000e3, 1500e3};
+        double[] v1 = new double[3];
+        double[] v2 = new double[3];
+        for (double timeOfFlight : new double[]{300, 1200, 4000}) {
+            for (boolean retrograde : new boolean[]{false, true}) {
+                Lambert.solve(r1, r2, timeOfFlight, Constants.MASS_EARTH, 0, retrograde, 0, v1, v2);
+                assertEquals(0, miss(r1, v1, 0, timeOfFlight, r2), 1e-2);
+                double hz = r1[0] * v1[1] - r1[1] * v1[0];
+                assertTrue(retrograde ? hz < 0 : hz > 0);
+            }
+        }
+        // the fast transfer is hyperbolic
+        Lambert.solve(r1, r2, 300, Constants.MASS_EARTH, 0, false, 0, v1, v2);
+        double speed2 = v1[0] * v1[0] + v1[1] * v1[1] + v1[2] * v1[2];
+        assertTrue(speed2 > 2 * Constants.G * Constants.MASS_EARTH / 7088.7e3);
+    }
+
+    @Test
+    public void testTimeOfFlightSeriesAreContinuous() {
+        // the evaluation switches between Battin's series, Lagrange's expression and the general one near x = 1
+        for (double lambda : new double[]{-0.9, -0.3, 0.2, 0.8}) {
+            for (double x : new double[]{0.8, 0.99, 1.01, 1.2}) {
+                double below = Lambert.timeOfFlight(lambda, Math.nextDown(x), 0);
+                double above = Lambert.timeOfFlight(lambda, Math.nextUp(x), 0);
+                assertEquals(below, above, 1e-10 * Math.abs(below));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCollinearPositionsFail() {
+        Lambert.solve(new double[]{7000e3, 0, 0}, new double[]{-8000e3, 0, 0}, 3000, Constants.MASS_EARTH, 0);
+    }
+}
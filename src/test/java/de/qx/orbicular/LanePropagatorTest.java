@@ -0,0 +1,63 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LanePropagatorTest {
+
+    @Test
+    public void testFallbackWithoutVectorModule() {
+        // the core tests run without the orbicular-vector module
+        assertSame(LanePropagator.FALLBACK, LanePropagator.backend());
+    }
+
+    @Test
+    public void testOrbitsToStatesMatchesScalarReference() {
+        Random random = new Random(3);
+        // not a multiple of the lane count, with all eccentricity regimes mixed into the blocks
+        OrbitBatch batch = new OrbitBatch(8 * LanePropagator.LANES + 5);
+        for (int k = 0; k < batch.size(); k++) {
+            double e;
+            switch (k % 5) {
+                case 0:
+                    e = 0;
+                    break;
+                case 1:
+                    e = 0.999 + 0.000999 * random.nextDouble();
+                    break;
+                case 2:
+                    e = 1.0 + random.nextDouble();
+                    break;
+                default:
+                    e = random.nextDouble();
+            }
+            batch.set(k, new Orbit(6700e3 + random.nextDouble() * 40000e3, e, random.nextDouble() * Math.PI,
+                    random.nextDouble() * 2 * Math.PI, random.nextDouble() * 2 * Math.PI,
+                    random.nextDouble() * 2 * Math.PI), random.nextDouble() * 1000);
+        }
+
+        for (double time = 0; time < 86400; time += 3599) {
+            double[] positions = new double[3 * batch.size()];
+            double[] velocities = new double[3 * batch.size()];
+            LanePropagator.orbitsToStates(batch, time, Constants.MASS_EARTH, 0, positions, velocities);
+
+            for (int k = 0; k < batch.size(); k++) {
+                State expected = Position.orbitToState(batch.getOrbit(k), time, batch.epoch[k], Constants.MASS_EARTH, 0);
+                double r = Math.sqrt(dot(expected.getPosition()));
+                double v = Math.sqrt(dot(expected.getVelocity()));
+                for (int j = 0; j < 3; j++) {
+                    assertEquals(expected.getPosition()[j], positions[3 * k + j], 1e-9 * r);
+                    assertEquals(expected.getVelocity()[j], velocities[3 * k + j], 1e-9 * v);
+                }
+            }
+        }
+    }
+
+    private static double dot(double[] a) {
+        return a[0] * a[0] + a[1] * a[1] + a[2] * a[2];
+    }
+}
@@ -0,0 +1,70 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Mat3Test {
+
+    @Test
+    public void testMatrixMultiplication() {
+        Mat3 m1 = new Mat3().set(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Mat3 m2 = new Mat3().set(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        Mat3 result = new Mat3().multiply(m1, m2);
+
+        assertArrayEquals(new double[]{24, 30, 36, 51, 66, 81, 78, 102, 126}, toArray(result), 0.0);
+    }
+
+    @Test
+    public void testMatrixMultiplicationIntoOperand() {
+        Mat3 m1 = new Mat3().set(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Mat3 m2 = new Mat3().set(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        m1.multiply(m1, m2);
+
+        assertArrayEquals(new double[]{24, 30, 36, 51, 66, 81, 78, 102, 126}, toArray(m1), 0.0);
+    }
+
+    @Test
+    public void testVectorMultiplication() {
+        Mat3 m = new Mat3().set(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Vec3 v = new Vec3(0, 1, 2);
+
+        Vec3 result = m.multiply(v, new Vec3());
+        assertEquals(8, result.x, 0.0);
+        assertEquals(17, result.y, 0.0);
+        assertEquals(26, result.z, 0.0);
+
+        m.transposeMultiply(v, v);
+        assertEquals(18, v.x, 0.0);
+        assertEquals(21, v.y, 0.0);
+        assertEquals(24, v.z, 0.0);
+    }
+
+    @Test
+    public void testRotationMatchesMatrix() {
+        double[] angles = {0, 2 * Math.PI, -4 * Math.PI, Math.PI / 4, -Math.PI / 3, 7 * Math.PI / 6, 1.234};
+        for (double angle : angles) {
+            for (int axis = 1; axis <= 3; axis++) {
+                assertArrayEquals(Matrix.getRotationMatrix(angle, axis).data, toArray(new Mat3().rotation(angle, axis)), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testOrbitalPlaneToInertialMatchesSequentialRotations() {
+        double Ω = 2.1;
+        double ω = -0.4;
+        double i = 1.69;
+
+        Matrix expected = Matrix.getRotationMatrix(-Ω, 3).multiplyWith(
+                Matrix.getRotationMatrix(-i, 1).multiplyWith(Matrix.getRotationMatrix(-ω, 3)));
+        Mat3 result = Transformation.orbitalPlaneToInertial(Ω, ω, i, new Mat3());
+
+        assertArrayEquals(expected.data, toArray(result), 1e-15);
+    }
+
+    private static double[] toArray(Mat3 m) {
+        return new double[]{m.m00, m.m01, m.m02, m.m10, m.m11, m.m12, m.m20, m.m21, m.m22};
+    }
+}
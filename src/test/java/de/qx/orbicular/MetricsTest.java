@@ -0,0 +1,109 @@
+package de.qx.orbicular;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class MetricsTest {
+
+    @Before
+    public void setUp() {
+        Metrics.reset();
+    }
+
+    @Test
+    public void testBands() {
+        assertEquals(0, Metrics.band(0));
+        assertEquals(0, Metrics.band(0.05));
+        assertEquals(1, Metrics.band(0.1));
+        assertEquals(3, Metrics.band(0.95));
+        assertEquals(4, Metrics.band(0.999));
+        assertEquals(Metrics.BANDS - 1, Metrics.band(1.5));
+    }
+
+    @Test
+    public void testHistogram() {
+        Metrics.keplerSolved(0.3, 2, true);
+        Metrics.keplerSolved(0.3, 2, true);
+        Metrics.keplerSolved(0.3, 3, true);
+        Metrics.keplerSolved(0.995, Kepler.MAX_ITERATIONS, false);
+
+        assertEquals(2, Metrics.getKeplerIterations(1, 2));
+        assertEquals(1, Metrics.getKeplerIterations(1, 3));
+        assertEquals(3, Metrics.getKeplerSolves(1));
+        assertEquals(0, Metrics.getKeplerFailures(1));
+        assertEquals(1, Metrics.getKeplerSolves(4));
+        assertEquals(1, Metrics.getKeplerFailures(4));
+        assertTrue(Metrics.report().contains("e < 0.5: 3 solves, 0 not converged, iterations 2:2 3:1"));
+
+        Metrics.reset();
+        assertEquals(0, Metrics.getKeplerSolves(1));
+        assertEquals(0, Metrics.getKeplerFailures(4));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIterationsOutOfRange() {
+        Metrics.getKeplerIterations(0, Metrics.MAX_ITERATIONS + 1);
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assumeFalse(Metrics.ENABLED);
+        Kepler.eccentricAnomaly(0.2, 1);
+        Position.orbitToState(new Orbit(7e6, 0.01, 0.5, 1, 2, 0), 100, 0, Constants.MASS_EARTH, 0);
+        assertEquals(0, Metrics.getKeplerSolves(1));
+        assertEquals(0, Metrics.getOrbitToStateCalls());
+    }
+
+    /**
+     * Runs with metrics enabled in the instrumented test configuration only, see build.sbt.
+     */
+    @Test
+    public void testInstrumentation() {
+        assumeTrue(Metrics.ENABLED);
+        for (int k = 0; k < 100; k++) {
+            Kepler.eccentricAnomaly(0.2, 0.06 * k);
+        }
+        assertEquals(100, Metrics.getKeplerSolves(1));
+        assertEquals(0, Metrics.getKeplerFailures(1));
+        for (int count = 5; count <= Metrics.MAX_ITERATIONS; count++) {
+            assertEquals(0, Metrics.getKeplerIterations(1, count));
+        }
+
+        Orbit orbit = new Orbit(7e6, 0.01, 0.5, 1, 2, 0);
+        State state = Position.orbitToState(orbit, 100, 0, Constants.MASS_EARTH, 0);
+        Position.stateToOrbit(state, 100, Constants.MASS_EARTH, 0);
+        assertEquals(1, Metrics.getOrbitToStateCalls());
+        assertEquals(1, Metrics.getStateToOrbitCalls());
+        assertTrue(Metrics.getOrbitToStateNanos() > 0);
+    }
+
+    @Test
+    public void testBatchInstrumentation() {
+        assumeTrue(Metrics.ENABLED);
+        OrbitBatch batch = new OrbitBatch(10);
+        for (int k = 0; k < batch.size(); k++) {
+            batch.set(k, new Orbit(7e6, 0.2, 0.5, 1, 2, 0.3 * k), 0);
+        }
+        double[] positions = new double[2 * 3 * batch.size()];
+        double[] velocities = new double[2 * 3 * batch.size()];
+
+        // the lane backend solves Kepler's equation itself
+        LanePropagator.orbitsToStates(batch, 100, Constants.MASS_EARTH, 0, positions, velocities);
+        assertEquals(10, Metrics.getOrbitToStateCalls());
+        assertEquals(10, Metrics.getKeplerSolves(1));
+
+        Metrics.reset();
+        new PropagationEngine(ForkJoinPool.commonPool(), 4, true).propagate(batch, new double[]{100, 200},
+                Constants.MASS_EARTH, 0, positions, velocities);
+        assertEquals(20, Metrics.getOrbitToStateCalls());
+        assertEquals(20, Metrics.getKeplerSolves(1));
+        assertEquals(0, Metrics.getKeplerFailures(1));
+    }
+}
@@ -0,0 +1,145 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NumericalPropagatorTest {
+
+    private static final Orbit LEO = new Orbit(6778e3, 0.001, 51.6 * Math.PI / 180, 0.3, 1.2, 0.5);
+    private static final Orbit HEO = new Orbit(26600e3, 0.74, 63.4 * Math.PI / 180, 2.0, 4.7, 0.1);
+
+    private static double[] initialState(Orbit orbit) {
+        State state = Position.orbitToState(orbit, 0, 0, Constants.MASS_EARTH, 0);
+        return new double[]{
+                state.getX(), state.getY(), state.getZ(),
+                state.getVx(), state.getVy(), state.getVz()
+        };
+    }
+
+    private static double distance(double[] state, State expected) {
+        double dx = state[0] - expected.getX();
+        double dy = state[1] - expected.getY();
+        double dz = state[2] - expected.getZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static double energy(double[] state) {
+        double r = Math.sqrt(state[0] * state[0] + state[1] * state[1] + state[2] * state[2]);
+        double v2 = state[3] * state[3] + state[4] * state[4] + state[5] * state[5];
+        return v2 / 2 - Constants.G * Constants.MASS_EARTH / r;
+    }
+
+    @Test
+    public void testRungeKutta4MatchesKeplerOrbit() {
+        NumericalPropagator propagator = new NumericalPropagator(new RungeKutta4(10),
+                new CentralGravity(Constants.MASS_EARTH, 0));
+        double[] state = initialState(LEO);
+        propagator.propagate(state, 0, 86400);
+
+        assertEquals(0, distance(state, Position.orbitToState(LEO, 86400, 0, Constants.MASS_EARTH, 0)), 1);
+    }
+
+    @Test
+    public void testDormandPrinceMatchesKeplerOrbit() {
+        NumericalPropagator propagator = new NumericalPropagator(new DormandPrince(1e-13, 1e-6, 1e-9),
+                new CentralGravity(Constants.MASS_EARTH, 0));
+        for (Orbit orbit : new Orbit[]{LEO, HEO}) {
+            double[] state = initialState(orbit);
+            propagator.propagate(state, 0, 86400);
+            assertEquals(0, distance(state, Position.orbitToState(orbit, 86400, 0, Constants.MASS_EARTH, 0)), 1);
+
+            // and back
+            propagator.propagate(state, 86400, 0);
+            assertEquals(0, distance(state, Position.orbitToState(orbit, 0, 0, Constants.MASS_EARTH, 0)), 2);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDormandPrinceRejectsNaNForce() {
+        ForceModel broken = new ForceModel() {
+            @Override
+            public void addAcceleration(double time, double[] state, double[] acceleration) {
+                if (time > 600) {
+                    acceleration[0] += Double.NaN;
+                }
+            }
+        };
+        NumericalPropagator propagator = new NumericalPropagator(new DormandPrince(1e-13, 1e-6, 1e-9),
+                new CentralGravity(Constants.MASS_EARTH, 0), broken);
+        propagator.propagate(initialState(LEO), 0, 86400);
+    }
+
+    @Test
+    public void testEphemerisMatchesPropagation() {
+        NumericalPropagator propagator = new NumericalPropagator(new DormandPrince(1e-13, 1e-6, 1e-9),
+                new CentralGravity(Constants.MASS_EARTH, 0), new ZonalHarmonics());
+        double[] times = {600, 1200, 3600, 7200};
+        double[] positions = new double[12];
+        double[] velocities = new double[12];
+        propagator.ephemeris(initialState(LEO), 0, times, positions, velocities);
+
+        double[] state = initialState(LEO);
+        propagator.propagate(state, 0, 3600);
+        assertEquals(state[0], positions[6], 1e-2);
+        assertEquals(state[4], velocities[7], 1e-5);
+    }
+
+    @Test
+    public void testLeapfrogEnergyErrorIsBounded() {
+        NumericalPropagator propagator = new NumericalPropagator(new Leapfrog(30),
+                new CentralGravity(Constants.MASS_EARTH, 0));
+        double[] state = initialState(LEO);
+        double initial = energy(state);
+        double period = 2 * Math.PI / Math.sqrt(Constants.G * Constants.MASS_EARTH / Math.pow(LEO.getSemiMajorAxis(), 3));
+
+        // the error oscillates with the precession of the numerical orbit instead of growing with time
+        for (int revolution = 1; revolution <= 500; revolution++) {
+            propagator.propagate(state, (revolution - 1) * period, revolution * period);
+            assertEquals(0, (energy(state) - initial) / initial, 1e-7);
+        }
+    }
+
+    @Test
+    public void testLeapfrogIsTimeReversible() {
+        NumericalPropagator propagator = new NumericalPropagator(new Leapfrog(60),
+                new CentralGravity(Constants.MASS_EARTH, 0));
+        double[] initial = initialState(HEO);
+        double[] state = initial.clone();
+        propagator.propagate(state, 0, 10 * 86400);
+        propagator.propagate(state, 10 * 86400, 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(initial[i], state[i], 1e-3);
+        }
+    }
+
+    @Test
+    public void testJ2RegressesNode() {
+        NumericalPropagator propagator = new NumericalPropagator(new DormandPrince(1e-12, 1e-6, 1e-9),
+                new CentralGravity(Constants.MASS_EARTH, 0), new ZonalHarmonics());
+        double[] state = initialState(LEO);
+        propagator.propagate(state, 0, 86400);
+        OrbitBatch elements = new OrbitBatch(1);
+        Position.statesToOrbits(new double[]{state[0], state[1], state[2]}, new double[]{state[3], state[4], state[5]},
+                86400, Constants.MASS_EARTH, 0, elements);
+
+        double a = LEO.getSemiMajorAxis();
+        double n = Math.sqrt(Constants.G * Constants.MASS_EARTH / (a * a * a));
+        double p = a * (1 - LEO.getEccentricity() * LEO.getEccentricity());
+        double rate = -1.5 * n * Constants.J2_EARTH * Math.pow(Constants.RADIUS_EARTH / p, 2)
+                * Math.cos(LEO.getInclination());
+        // osculating elements oscillate around the secular drift by a few percent of a day's regression
+        assertEquals(rate * 86400, elements.rightAscension[0] - LEO.getRightAscension(), 0.05 * Math.abs(rate * 86400));
+    }
+
+    @Test
+    public void testDragLowersOrbit() {
+        NumericalPropagator propagator = new NumericalPropagator(new RungeKutta4(10),
+                new CentralGravity(Constants.MASS_EARTH, 0), new AtmosphericDrag(0.01));
+        double[] state = initialState(LEO);
+        double initial = energy(state);
+        propagator.propagate(state, 0, 86400);
+        assertTrue(energy(state) < initial);
+    }
+}
@@ -0,0 +1,67 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrbitPropagatorTest {
+
+    @Test
+    public void testStateAtMatchesOrbitToStateOfSatellite() {
+        double massEarth = 5.972580e24;
+        Orbit orbit = new Orbit(6649e3, 0.002, 97.0 * Math.PI / 180.0, 118.0 * Math.PI / 180.0, -250.0 * Math.PI / 180.0, 0.0);
+        OrbitPropagator propagator = new OrbitPropagator(orbit, 0.0, massEarth, 0);
+
+        for (double t = 0; t < 86400; t += 900) {
+            State expected = Position.orbitToState(orbit, t, 0.0, massEarth, 0);
+            State state = propagator.stateAt(t);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(expected.getPosition()[j], state.getPosition()[j], 1e-6);
+                assertEquals(expected.getVelocity()[j], state.getVelocity()[j], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testStateAtMatchesOrbitToStateOfEarthAfter1Year() {
+        double massEarth = 1.988546944e30;
+        double massSun = 5.9725801308e24 * 1.0123000371;
+        Orbit orbit = new Orbit(149598261150.0, 0.01671123, 7.155 * Math.PI / 180.0, 348.73936 * Math.PI / 180.0,
+                114.20783 * Math.PI / 180.0, 0.0);
+        OrbitPropagator propagator = new OrbitPropagator(orbit, 0.0, massEarth, massSun);
+
+        State state = propagator.stateAt(365.256363004 * 86400.0);
+
+        assertEquals(-33158216645.818844, state.getX(), 1e-3);
+        assertEquals(142334785036.72403, state.getY(), 1e-3);
+        assertEquals(16710733601.488567, state.getZ(), 1e-3);
+
+        assertEquals(-29497.972100017116, state.getVx(), 1e-6);
+        assertEquals(-6690.245698136594, state.getVy(), 1e-6);
+        assertEquals(-1546.7484094314725, state.getVz(), 1e-6);
+    }
+
+    @Test
+    public void testEphemerisMatchesStateAt() {
+        Orbit orbit = new Orbit(26600e3, 0.74, 63.4 * Math.PI / 180.0, 1.0, 270.0 * Math.PI / 180.0, 3.0);
+        OrbitPropagator propagator = new OrbitPropagator(orbit, 100.0, Constants.MASS_EARTH, 0);
+
+        double[] times = {0.0, 600.0, 1200.0, 43200.0};
+        double[] positions = new double[3 * times.length];
+        double[] velocities = new double[3 * times.length];
+        propagator.ephemeris(times, positions, velocities);
+
+        for (int k = 0; k < times.length; k++) {
+            State state = propagator.stateAt(times[k]);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(state.getPosition()[j], positions[3 * k + j], 0.0);
+                assertEquals(state.getVelocity()[j], velocities[3 * k + j], 0.0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHyperbolicOrbitIsRejected() {
+        new OrbitPropagator(new Orbit(7000e3, 1.2, 0, 0, 0, 0), 0, Constants.MASS_EARTH, 0);
+    }
+}
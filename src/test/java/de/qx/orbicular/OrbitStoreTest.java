@@ -0,0 +1,106 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrbitStoreTest {
+
+    @Test
+    public void testPropagationMatchesBatch() {
+        OrbitBatch batch = Catalogues.catalogue(500, 5);
+        OrbitStore store = OrbitStore.of(batch);
+        double[] expectedPositions = new double[1500];
+        double[] expectedVelocities = new double[1500];
+        Position.orbitsToStates(batch, 7200, Constants.MASS_EARTH, 0, expectedPositions, expectedVelocities);
+
+        // propagate in chunks into arrays of the chunk size
+        double[] positions = new double[300];
+        double[] velocities = new double[300];
+        for (int from = 0; from < 500; from += 100) {
+            Position.orbitsToStates(store, from, from + 100, 7200, Constants.MASS_EARTH, 0, positions, velocities,
+                    0);
+            for (int i = 0; i < 300; i++) {
+                assertEquals(expectedPositions[3 * from + i], positions[i], 0.0);
+                assertEquals(expectedVelocities[3 * from + i], velocities[i], 0.0);
+            }
+        }
+
+        // without an offset the states are written at the indices of the batch version
+        double[] rangePositions = new double[3 * 300];
+        double[] rangeVelocities = new double[3 * 300];
+        Position.orbitsToStates(store, 200, 300, 7200, Constants.MASS_EARTH, 0, rangePositions, rangeVelocities);
+        for (int i = 0; i < 3 * 300; i++) {
+            assertEquals(i < 3 * 200 ? 0 : expectedPositions[i], rangePositions[i], 0.0);
+            assertEquals(i < 3 * 200 ? 0 : expectedVelocities[i], rangeVelocities[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testCursor() {
+        OrbitBatch batch = Catalogues.catalogue(50, 5);
+        OrbitStore store = OrbitStore.of(batch);
+        OrbitStore.Cursor cursor = store.cursor();
+        int count = 0;
+        while (cursor.next()) {
+            int k = cursor.getIndex();
+            assertEquals(batch.semiMajorAxis[k], cursor.getSemiMajorAxis(), 0.0);
+            assertEquals(batch.eccentricity[k], cursor.getEccentricity(), 0.0);
+            assertEquals(batch.inclination[k], cursor.getInclination(), 0.0);
+            assertEquals(batch.rightAscension[k], cursor.getRightAscension(), 0.0);
+            assertEquals(batch.periapsis[k], cursor.getPeriapsis(), 0.0);
+            assertEquals(batch.meanAnomalyAt0[k], cursor.getMeanAnomalyAt0(), 0.0);
+            assertEquals(batch.epoch[k], cursor.getEpoch(), 0.0);
+            assertEquals(batch.getOrbit(k), cursor.getOrbit());
+            count++;
+        }
+        assertEquals(50, count);
+        assertFalse(cursor.next());
+        assertEquals(batch.getOrbit(7), cursor.moveTo(7).getOrbit());
+    }
+
+    @Test
+    public void testSet() {
+        OrbitStore store = new OrbitStore(3);
+        Orbit orbit = new Orbit(7e6, 0.01, 0.5, 1, 2, 3);
+        store.set(1, orbit, 42);
+        assertEquals(orbit, store.getOrbit(1));
+        assertEquals(42, store.getEpoch(1), 0.0);
+        assertEquals(new Orbit(0, 0, 0, 0, 0, 0), store.getOrbit(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexOutOfRange() {
+        new OrbitStore(3).getOrbit(3);
+    }
+
+    @Test
+    public void testValues() {
+        double[] position = {1, 2, 3};
+        double[] velocity = {4, 5, 6};
+        State state = new State(position, velocity);
+        position[0] = 10;
+        velocity[0] = 40;
+        assertEquals(new State(1, 2, 3, 4, 5, 6), state);
+        assertEquals(new State(1, 2, 3, 4, 5, 6).hashCode(), state.hashCode());
+        state.getPosition()[1] = 20;
+        assertArrayEquals(new double[]{1, 2, 3}, state.getPosition(), 0.0);
+        assertNotEquals(new State(1, 2, 3, 4, 5, -6), state);
+
+        double[] positions = new double[6];
+        double[] velocities = new double[6];
+        state.copyTo(positions, velocities, 3);
+        assertArrayEquals(new double[]{0, 0, 0, 1, 2, 3}, positions, 0.0);
+        assertArrayEquals(new double[]{0, 0, 0, 4, 5, 6}, velocities, 0.0);
+
+        Orbit orbit = new Orbit(7e6, 0.01, 0.5, 1, 2, 3);
+        assertEquals(new Orbit(7e6, 0.01, 0.5, 1, 2, 3), orbit);
+        assertNotEquals(new Orbit(7e6, 0.01, 0.5, 1, 2, 4), orbit);
+        assertTrue(orbit.toString().contains("e=0.01"));
+    }
+}
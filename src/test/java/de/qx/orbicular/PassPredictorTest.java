@@ -0,0 +1,186 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PassPredictorTest {
+
+    private static final GroundStation[] STATIONS = {
+            new GroundStation(Math.toRadians(48.1), Math.toRadians(11.6), 500),
+            new GroundStation(Math.toRadians(-33.9), Math.toRadians(18.4), 0, Math.toRadians(10)),
+            new GroundStation(Math.toRadians(64.8), Math.toRadians(-147.7), 200, Math.toRadians(5)),
+            new GroundStation(Math.toRadians(0.5), Math.toRadians(-70), 3000, Math.toRadians(30)),
+            new GroundStation(Math.toRadians(78.2), Math.toRadians(15.4), 0),
+    };
+
+    private static final double GMST_AT_0 = 1.7;
+
+    private static OrbitPropagator propagator(Orbit orbit) {
+        return new OrbitPropagator(orbit, 0, Constants.MASS_EARTH, 0);
+    }
+
+    /**
+     * Finds the passes by sampling every second.
+     */
+    private static List<Pass> bruteForce(int s, Trajectory trajectory, double start, double stop) {
+        GroundStation station = STATIONS[s];
+        List<Pass> passes = new ArrayList<>();
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        double[] look = new double[3];
+        double aos = Double.NaN;
+        double peak = 0;
+        double max = -Math.PI;
+        double previous = 0;
+        for (double t = start; t <= stop; t += 1) {
+            trajectory.stateAt(t, position, velocity, 0);
+            Transformation.inertialToEarthFixed(GMST_AT_0 + Constants.ROTATION_EARTH * t, position, velocity, 0);
+            station.look(position, 0, look, 0);
+            double elevation = look[1] - station.getMinElevation();
+            if (elevation >= 0 && Double.isNaN(aos)) {
+                aos = t == start ? t : t - elevation / (elevation - previous);
+                max = -Math.PI;
+            }
+            if (elevation >= 0 && look[1] > max) {
+                max = look[1];
+                peak = t;
+            }
+            if (elevation < 0 && !Double.isNaN(aos)) {
+                passes.add(new Pass(s, 0, aos, t - elevation / (elevation - previous), peak, max));
+                aos = Double.NaN;
+            }
+            previous = elevation;
+        }
+        if (!Double.isNaN(aos)) {
+            passes.add(new Pass(s, 0, aos, stop, peak, max));
+        }
+        return passes;
+    }
+
+    private static void assertMatchesBruteForce(Orbit orbit, double step, double minDuration) {
+        OrbitPropagator trajectory = propagator(orbit);
+        List<Pass> passes = new PassPredictor(STATIONS, step, GMST_AT_0).predict(trajectory, 0, 86400);
+        int found = 0;
+        for (int s = 0; s < STATIONS.length; s++) {
+            List<Pass> expected = bruteForce(s, trajectory, 0, 86400);
+            for (Pass pass : expected) {
+                if (pass.getDuration() < minDuration) {
+                    continue;
+                }
+                Pass match = null;
+                for (Pass candidate : passes) {
+                    if (candidate.getStation() == s
+                            && Math.abs(candidate.getAcquisition() - pass.getAcquisition()) < 1) {
+                        match = candidate;
+                    }
+                }
+                assertTrue("missed " + pass, match != null);
+                assertEquals(pass.getAcquisition(), match.getAcquisition(), 0.1);
+                assertEquals(pass.getLoss(), match.getLoss(), 0.1);
+                assertEquals(pass.getTimeOfMaxElevation(), match.getTimeOfMaxElevation(), 1);
+                // near the zenith the elevation changes by up to a few mrad within the second between samples
+                assertEquals(pass.getMaxElevation(), match.getMaxElevation(), 3e-3);
+                found++;
+            }
+        }
+        assertTrue(found > 5);
+        for (Pass pass : passes) {
+            assertTrue(pass.getLoss() > pass.getAcquisition());
+        }
+    }
+
+    @Test
+    public void testLowEarthOrbitMatchesDenseSampling() {
+        assertMatchesBruteForce(new Orbit(6778e3, 0.001, Math.toRadians(51.6), 0.3, 1.2, 0.5), 60, 0);
+    }
+
+    @Test
+    public void testEccentricOrbitMatchesDenseSampling() {
+        assertMatchesBruteForce(new Orbit(12000e3, 0.4, Math.toRadians(63.4), 2.0, 4.0, 1.0), 60, 0);
+    }
+
+    @Test
+    public void testPassesShorterThanStepAreFoundFromPeak() {
+        // with a step of 5 minutes most passes above the 30 degree mask start and end between two samples
+        assertMatchesBruteForce(new Orbit(6878e3, 0.001, Math.toRadians(97.4), 1.0, 0.0, 0.0), 300, 240);
+    }
+
+    @Test
+    public void testPassesAreCutAtWindow() {
+        OrbitPropagator trajectory = propagator(new Orbit(6778e3, 0.001, Math.toRadians(51.6), 0.3, 1.2, 0.5));
+        PassPredictor predictor = new PassPredictor(STATIONS, 60, GMST_AT_0);
+        Pass first = predictor.predict(trajectory, 0, 86400).get(3);
+        double middle = 0.5 * (first.getAcquisition() + first.getLoss());
+
+        List<Pass> passes = predictor.predict(trajectory, middle, middle + 7200);
+        Pass cut = passes.get(0);
+        assertEquals(first.getStation(), cut.getStation());
+        assertEquals(middle, cut.getAcquisition(), 0);
+        assertEquals(first.getLoss(), cut.getLoss(), 0.01);
+    }
+
+    @Test
+    public void testObjectsAreIndexed() {
+        OrbitPropagator first = propagator(new Orbit(6778e3, 0.001, Math.toRadians(51.6), 0.3, 1.2, 0.5));
+        OrbitPropagator second = propagator(new Orbit(7200e3, 0.01, Math.toRadians(98), 2.3, 0.2, 4.0));
+        PassPredictor predictor = new PassPredictor(STATIONS, 60, GMST_AT_0);
+        List<Pass> both = predictor.predict(new Trajectory[]{first, second}, 0, 86400);
+        List<Pass> single = predictor.predict(second, 0, 86400);
+
+        List<Pass> ofSecond = new ArrayList<>();
+        for (Pass pass : both) {
+            if (pass.getObject() == 1) {
+                ofSecond.add(pass);
+            }
+        }
+        assertEquals(single.size(), ofSecond.size());
+        for (int n = 0; n < single.size(); n++) {
+            assertEquals(single.get(n).getAcquisition(), ofSecond.get(n).getAcquisition(), 0);
+            assertEquals(single.get(n).getStation(), ofSecond.get(n).getStation());
+        }
+        for (int n = 1; n < both.size(); n++) {
+            assertTrue(both.get(n).getAcquisition() >= both.get(n - 1).getAcquisition());
+        }
+    }
+
+    @Test
+    public void testLookAngles() {
+        GroundStation station = new GroundStation(Math.toRadians(45), Math.toRadians(10), 0);
+        double[] position = new double[3];
+        double[] look = new double[3];
+
+        // straight up
+        Transformation.geodeticToEarthFixed(station.getLatitude(), station.getLongitude(), 1000e3, position, 0);
+        station.look(position, 0, look, 0);
+        assertEquals(Math.PI / 2, look[1], 1e-9);
+        assertEquals(1000e3, look[2], 1e-6);
+
+        // due east on the horizon plane
+        position[0] = station.x + 1000 * station.eastX;
+        position[1] = station.y + 1000 * station.eastY;
+        position[2] = station.z;
+        station.look(position, 0, look, 0);
+        assertEquals(Math.PI / 2, look[0], 1e-12);
+        assertEquals(0, look[1], 1e-12);
+        assertEquals(1000, look[2], 1e-9);
+    }
+
+    @Test
+    public void testGroundTrackOfEquatorialOrbit() {
+        OrbitPropagator trajectory = propagator(new Orbit(7000e3, 0, 0, 0, 0, 0));
+        double[] times = {0, 600, 1200, 1800};
+        double[] geodetic = new double[3 * times.length];
+        GroundTrack.sample(trajectory, times, 0, geodetic);
+        double rate = trajectory.getMeanMotion() - Constants.ROTATION_EARTH;
+        for (int j = 0; j < times.length; j++) {
+            assertEquals(0, geodetic[3 * j], 1e-12);
+            assertEquals(Math.IEEEremainder(rate * times[j], 2 * Math.PI), geodetic[3 * j + 1], 1e-9);
+            assertEquals(7000e3 - Constants.RADIUS_EARTH, geodetic[3 * j + 2], 1e-6);
+        }
+    }
+}
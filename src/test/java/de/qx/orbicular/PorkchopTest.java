@@ -0,0 +1,120 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PorkchopTest {
+
+    private static final double EARTH = 1.496e11;
+    private static final double MARS = 2.279e11;
+    private static final double GM = Constants.G * Constants.MASS_SUN;
+    private static final double HOHMANN_TIME = Math.PI * Math.sqrt(Math.pow(EARTH + MARS, 3) / (8 * GM));
+
+    private static OrbitPropagator circular(double radius, double meanAnomaly) {
+        return new OrbitPropagator(new Orbit(radius, 0, 0, 0, 0, meanAnomaly), 0, Constants.MASS_SUN, 0);
+    }
+
+    private static double[] range(double from, double step, int count) {
+        double[] values = new double[count];
+        for (int k = 0; k < count; k++) {
+            values[k] = from + k * step;
+        }
+        return values;
+    }
+
+    @Test
+    public void testMinimumApproachesHohmannTransfer() {
+        // Mars leads such that the Hohmann transfer departs at time 0
+        double marsPhase = Math.PI - Math.sqrt(GM / (MARS * MARS * MARS)) * HOHMANN_TIME;
+        Porkchop porkchop = new Porkchop(circular(EARTH, 0), circular(MARS, marsPhase), Constants.MASS_SUN, 0);
+        double[] departures = range(-20 * 86400, 2 * 86400, 21);
+        double[] arrivals = range(HOHMANN_TIME - 30 * 86400, 2 * 86400, 31);
+        double[] departureDeltaV = new double[departures.length * arrivals.length];
+        double[] arrivalDeltaV = new double[departures.length * arrivals.length];
+        porkchop.compute(departures, arrivals, departureDeltaV, arrivalDeltaV);
+
+        double departureHohmann = Math.sqrt(GM / EARTH) * (Math.sqrt(2 * MARS / (EARTH + MARS)) - 1);
+        double arrivalHohmann = Math.sqrt(GM / MARS) * (1 - Math.sqrt(2 * EARTH / (EARTH + MARS)));
+        double best = Double.POSITIVE_INFINITY;
+        int cell = -1;
+        for (int k = 0; k < departureDeltaV.length; k++) {
+            if (departureDeltaV[k] + arrivalDeltaV[k] < best) {
+                best = departureDeltaV[k] + arrivalDeltaV[k];
+                cell = k;
+            }
+        }
+        assertTrue(best >= departureHohmann + arrivalHohmann - 1);
+        assertEquals(departureHohmann + arrivalHohmann, best, 0.02 * best);
+        assertEquals(0, departures[cell / arrivals.length], 4 * 86400);
+        assertEquals(HOHMANN_TIME, arrivals[cell % arrivals.length], 4 * 86400);
+    }
+
+    @Test
+    public void testCellsMatchSingleTransfers() {
+        OrbitPropagator earth = circular(EARTH, 0);
+        OrbitPropagator mars = new OrbitPropagator(new Orbit(MARS, 0.09, 0.03, 0.9, 5.0, 1.0), 0,
+                Constants.MASS_SUN, 0);
+        double[] departures = range(0, 10 * 86400, 5);
+        double[] arrivals = range(60 * 86400, 60 * 86400, 6);
+        double[] departureDeltaV = new double[30];
+        double[] arrivalDeltaV = new double[30];
+        new Porkchop(earth, mars, Constants.MASS_SUN, 0).compute(departures, arrivals, departureDeltaV,
+                arrivalDeltaV);
+
+        for (int i = 0; i < departures.length; i++) {
+            for (int j = 0; j < arrivals.length; j++) {
+                State departure = earth.stateAt(departures[i]);
+                State arrival = mars.stateAt(arrivals[j]);
+                State[] transfer = Lambert.solve(departure.getPosition(), arrival.getPosition(),
+                        arrivals[j] - departures[i], Constants.MASS_SUN, 0);
+                double dx = transfer[0].getVx() - departure.getVx();
+                double dy = transfer[0].getVy() - departure.getVy();
+                double dz = transfer[0].getVz() - departure.getVz();
+                assertEquals(Math.sqrt(dx * dx + dy * dy + dz * dz), departureDeltaV[i * arrivals.length + j],
+                        1e-9);
+                assertTrue(arrivalDeltaV[i * arrivals.length + j] > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testArrivalBeforeDepartureIsNaN() {
+        double[] departures = {100 * 86400, 200 * 86400};
+        double[] arrivals = {150 * 86400, 400 * 86400};
+        double[] departureDeltaV = new double[4];
+        double[] arrivalDeltaV = new double[4];
+        new Porkchop(circular(EARTH, 0), circular(MARS, 1), Constants.MASS_SUN, 0).compute(departures, arrivals,
+                departureDeltaV, arrivalDeltaV);
+        assertTrue(Double.isNaN(departureDeltaV[2]));
+        assertTrue(Double.isNaN(arrivalDeltaV[2]));
+        assertTrue(departureDeltaV[0] > 0 && departureDeltaV[1] > 0 && departureDeltaV[3] > 0);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        double[] departures = range(0, 3 * 86400, 40);
+        double[] arrivals = range(150 * 86400, 3 * 86400, 50);
+        double[] sequential = new double[2000];
+        double[] parallel = new double[2000];
+        double[] sequentialArrival = new double[2000];
+        double[] parallelArrival = new double[2000];
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            new Porkchop(circular(EARTH, 0), circular(MARS, 1), Constants.MASS_SUN, 0, 1, single, 1000)
+                    .compute(departures, arrivals, sequential, sequentialArrival);
+            new Porkchop(circular(EARTH, 0), circular(MARS, 1), Constants.MASS_SUN, 0, 1, four, 1)
+                    .compute(departures, arrivals, parallel, parallelArrival);
+        } finally {
+            single.shutdown();
+            four.shutdown();
+        }
+        assertArrayEquals(sequential, parallel, 0);
+        assertArrayEquals(sequentialArrival, parallelArrival, 0);
+    }
+}
@@ -2,7 +2,14 @@ package de.qx.orbicular;
 
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 public class PositionTest {
 
@@ -33,13 +40,13 @@ public class PositionTest {
         Orbit orbit = new Orbit(a, e, i, Ω, ω, 0.0);
         State state = Position.orbitToState(orbit, t, T0, massEarth, 0);
 
-        assertEquals(3194418.35653, state.position[0], 1e1);
-        assertEquals(-5715730.19269, state.position[1], 1e-1);
-        assertEquals(1116844.10036, state.position[2], 1e-1);
+        assertEquals(3194418.35653, state.getX(), 1e1);
+        assertEquals(-5715730.19269, state.getY(), 1e-1);
+        assertEquals(1116844.10036, state.getZ(), 1e-1);
 
-        assertEquals(-199.07213470, state.velocity[0], 1e-1);
-        assertEquals(-1607.83626052, state.velocity[1], 1e-1);
-        assertEquals(-7579.15862735, state.velocity[2], 1e-1);
+        assertEquals(-199.07213470, state.getVx(), 1e-1);
+        assertEquals(-1607.83626052, state.getVy(), 1e-1);
+        assertEquals(-7579.15862735, state.getVz(), 1e-1);
     }
 
     @Test
@@ -58,13 +65,13 @@ public class PositionTest {
         Orbit orbit = new Orbit(a, e, i, Ω, ω, 0.0);
         State state = Position.orbitToState(orbit, t, T0, massEarth, massSun);
 
-        assertEquals(-33158216645.818844, state.position[0], 1e-3);
-        assertEquals(142334785036.72403, state.position[1], 1e-3);
-        assertEquals(16710733601.488567, state.position[2], 1e-3);
+        assertEquals(-33158216645.818844, state.getX(), 1e-3);
+        assertEquals(142334785036.72403, state.getY(), 1e-3);
+        assertEquals(16710733601.488567, state.getZ(), 1e-3);
 
-        assertEquals(-29497.972100017116, state.velocity[0], 1e-6);
-        assertEquals(-6690.245698136594, state.velocity[1], 1e-6);
-        assertEquals(-1546.7484094314725, state.velocity[2], 1e-6);
+        assertEquals(-29497.972100017116, state.getVx(), 1e-6);
+        assertEquals(-6690.245698136594, state.getVy(), 1e-6);
+        assertEquals(-1546.7484094314725, state.getVz(), 1e-6);
     }
 
     @Test
@@ -115,4 +122,256 @@ public class PositionTest {
         assertEquals(ω, orbit.getPeriapsis(), 1e-5);
         assertEquals(T0, orbit.getMeanAnomalyAt0() - t, 1e+3);
     }
+
+    @Test
+    public void testOrbitsToStatesIsBitIdenticalToOrbitToState() {
+        Orbit[] orbits = {
+                new Orbit(6649e3, 0.002, 97.0 * Math.PI / 180.0, 118.0 * Math.PI / 180.0, -250.0 * Math.PI / 180.0, 0.0),
+                new Orbit(42164e3, 0.0001, 0.05 * Math.PI / 180.0, 75.0 * Math.PI / 180.0, 10.0 * Math.PI / 180.0, 1.2),
+                new Orbit(26600e3, 0.74, 63.4 * Math.PI / 180.0, 0.0, 270.0 * Math.PI / 180.0, 3.0),
+                new Orbit(7000e3, 0.0, 0.0, Math.PI / 2, 0.0, -0.5)
+        };
+        double[] epochs = {0.0, 3600.0, -86400.0, 120.0};
+        double time = 5400.0;
+        double massEarth = 5.972580e24;
+
+        double[] positions = new double[3 * orbits.length];
+        double[] velocities = new double[3 * orbits.length];
+        Position.orbitsToStates(OrbitBatch.of(orbits, epochs), time, massEarth, 0, positions, velocities);
+
+        for (int k = 0; k < orbits.length; k++) {
+            State state = Position.orbitToState(orbits[k], time, epochs[k], massEarth, 0);
+            double[] position = state.getPosition();
+            double[] velocity = state.getVelocity();
+            for (int j = 0; j < 3; j++) {
+                assertEquals(Double.doubleToLongBits(position[j]), Double.doubleToLongBits(positions[3 * k + j]));
+                assertEquals(Double.doubleToLongBits(velocity[j]), Double.doubleToLongBits(velocities[3 * k + j]));
+            }
+        }
+    }
+
+    @Test
+    public void testOrbitToStateRotatesLikeOrbitalPlaneToInertial() {
+        double GM = Constants.G * Constants.MASS_EARTH;
+        double[] perifocal = new double[3];
+        double[] perifocalVelocity = new double[3];
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        Mat3 rotation = new Mat3();
+        Vec3 expected = new Vec3();
+        Random random = new Random(11);
+        for (int k = 0; k < 1000; k++) {
+            double a = 7000e3 + 30000e3 * random.nextDouble();
+            double e = 0.9 * random.nextDouble();
+            double M0 = 2 * Math.PI * random.nextDouble();
+            // whole quarter turns now and then, where the rotation helpers snap
+            double Ω = k % 4 == 0 ? (k / 4 % 8) * Math.PI / 2 : 4 * Math.PI * (random.nextDouble() - 0.5);
+            double ω = 4 * Math.PI * (random.nextDouble() - 0.5);
+            double i = k % 8 == 0 ? Math.PI / 2 : Math.PI * random.nextDouble();
+
+            // with all angles 0 the rotation is the identity
+            Position.orbitToState(a, e, 0, 0, 0, M0, 600, 0, GM, perifocal, perifocalVelocity, 0);
+            Position.orbitToState(a, e, i, Ω, ω, M0, 600, 0, GM, position, velocity, 0);
+            Transformation.orbitalPlaneToInertial(Ω, ω, i, rotation);
+
+            rotation.multiply(new Vec3(perifocal[0], perifocal[1], perifocal[2]), expected);
+            assertArrayEquals(new double[]{expected.x, expected.y, expected.z}, position, 1e-6);
+            rotation.multiply(new Vec3(perifocalVelocity[0], perifocalVelocity[1], perifocalVelocity[2]), expected);
+            assertArrayEquals(new double[]{expected.x, expected.y, expected.z}, velocity, 1e-9);
+        }
+    }
+
+    @Test
+    public void testOrbitsToStatesDoesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        int count = 1000;
+        Random random = new Random(3);
+        OrbitBatch batch = new OrbitBatch(count);
+        for (int k = 0; k < count; k++) {
+            batch.set(k, Catalogues.orbit(random), 0);
+        }
+        double[] positions = new double[3 * count];
+        double[] velocities = new double[3 * count];
+        for (int i = 0; i < 500; i++) {
+            Position.orbitsToStates(batch, 60.0 * i, Constants.MASS_EARTH, 0, positions, velocities);
+        }
+
+        // the kernel must not rely on escape analysis, so this holds in the interpreter and in compiled code
+        long thread = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100; i++) {
+            Position.orbitsToStates(batch, 60.0 * i, Constants.MASS_EARTH, 0, positions, velocities);
+        }
+        long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated + " bytes allocated", allocated < 100 * count);
+    }
+
+    @Test
+    public void testOrbitsToStatesOnlyWritesGivenRange() {
+        OrbitBatch batch = new OrbitBatch(3);
+        for (int k = 0; k < 3; k++) {
+            batch.set(k, new Orbit(7000e3 + k * 100e3, 0.01, 0.5, 0.1, 0.2, 0.3), 0.0);
+        }
+
+        double[] positions = new double[9];
+        double[] velocities = new double[9];
+        Position.orbitsToStates(batch, 1, 2, 60.0, 5.972580e24, 0, positions, velocities);
+
+        State state = Position.orbitToState(batch.getOrbit(1), 60.0, 0.0, 5.972580e24, 0);
+        assertArrayEquals(new double[]{0, 0, 0, state.getX(), state.getY(), state.getZ(), 0, 0, 0},
+                positions, 0.0);
+        assertArrayEquals(new double[]{0, 0, 0, state.getVx(), state.getVy(), state.getVz(), 0, 0, 0},
+                velocities, 0.0);
+    }
+
+    @Test
+    public void testOrbitToStateOfHyperbolicOrbitConservesEnergyAndAngularMomentum() {
+        double a = 20000e3;
+        double e = 1.4;
+        double massEarth = 5.972580e24;
+        double GM = Constants.G * massEarth;
+        Orbit orbit = new Orbit(a, e, 0.3, 1.1, 2.5, -2.0);
+
+        for (double t = 0; t < 20000; t += 1000) {
+            State state = Position.orbitToState(orbit, t, 0.0, massEarth, 0);
+            double r = Math.sqrt(dot(state.getPosition(), state.getPosition()));
+            double v2 = dot(state.getVelocity(), state.getVelocity());
+
+            assertEquals(GM / (2 * a), v2 / 2 - GM / r, 1e-6);
+            assertEquals(Math.sqrt(GM * a * (e * e - 1)), Math.sqrt(dot(cross(state), cross(state))), 1e-1);
+        }
+    }
+
+    @Test
+    public void testOrbitToStateOfParabolicOrbitReachesEscapeVelocity() {
+        double p = 14000e3;
+        double massEarth = 5.972580e24;
+        double GM = Constants.G * massEarth;
+        Orbit orbit = new Orbit(p, 1.0, 0.3, 1.1, 2.5, 0.0);
+
+        State periapsis = Position.orbitToState(orbit, 0, 0.0, massEarth, 0);
+        assertEquals(p / 2, Math.sqrt(dot(periapsis.getPosition(), periapsis.getPosition())), 1e-6);
+
+        for (double t = -20000; t < 20000; t += 1000) {
+            State state = Position.orbitToState(orbit, t, 0.0, massEarth, 0);
+            double r = Math.sqrt(dot(state.getPosition(), state.getPosition()));
+            double v2 = dot(state.getVelocity(), state.getVelocity());
+
+            assertEquals(0, v2 / 2 - GM / r, 1e-6);
+            assertEquals(Math.sqrt(GM * p), Math.sqrt(dot(cross(state), cross(state))), 1e-1);
+        }
+    }
+
+    @Test
+    public void testStatesToOrbitsRoundTrips() {
+        Orbit[] orbits = {
+                new Orbit(6649e3, 0.002, 97.0 * Math.PI / 180.0, 118.0 * Math.PI / 180.0, 250.0 * Math.PI / 180.0, 0.3),
+                new Orbit(26600e3, 0.74, 63.4 * Math.PI / 180.0, 0.2, 270.0 * Math.PI / 180.0, 3.0),
+                new Orbit(42164e3, 0.0, 0.0, 0.0, 0.0, 1.2),                   // circular equatorial
+                new Orbit(7000e3, 0.1, Math.PI, 0.0, 1.0, -2.0),               // retrograde equatorial
+                new Orbit(7000e3, 0.0, 0.5, 1.0, 0.0, 2.5),                    // circular inclined
+                new Orbit(20000e3, 1.4, 0.3, 1.1, 2.5, -2.0),                  // hyperbolic
+                new Orbit(14000e3, 1.0, 0.3, 1.1, 2.5, 0.4),                   // parabolic
+                new Orbit(1e12, 0.999999, 1.0, 2.0, 3.0, 1e-9)                 // nearly parabolic
+        };
+        double[] epochs = {0.0, 3600.0, -86400.0, 120.0, 0.0, 0.0, 0.0, 0.0};
+        double time = 5400.0;
+        double massEarth = 5.972580e24;
+
+        double[] positions = new double[3 * orbits.length];
+        double[] velocities = new double[3 * orbits.length];
+        Position.orbitsToStates(OrbitBatch.of(orbits, epochs), time, massEarth, 0, positions, velocities);
+
+        OrbitBatch converted = new OrbitBatch(orbits.length);
+        Position.statesToOrbits(positions, velocities, time, massEarth, 0, converted);
+
+        double[] later = new double[3 * orbits.length];
+        double[] laterVelocities = new double[3 * orbits.length];
+        Position.orbitsToStates(OrbitBatch.of(orbits, epochs), time + 600, massEarth, 0, later, laterVelocities);
+        double[] roundTrip = new double[3 * orbits.length];
+        double[] roundTripVelocities = new double[3 * orbits.length];
+        Position.orbitsToStates(converted, time + 600, massEarth, 0, roundTrip, roundTripVelocities);
+
+        for (int k = 0; k < orbits.length; k++) {
+            assertEquals(time, converted.epoch[k], 0.0);
+            assertEquals(orbits[k].getEccentricity(), converted.eccentricity[k], 1e-9);
+            assertEquals(orbits[k].getInclination(), converted.inclination[k], 1e-9);
+            for (int j = 3 * k; j < 3 * k + 3; j++) {
+                assertEquals(later[j], roundTrip[j], 1e-3);
+                assertEquals(laterVelocities[j], roundTripVelocities[j], 1e-6);
+            }
+        }
+
+        // undefined angles are set to 0
+        assertEquals(0, converted.rightAscension[2], 0.0);
+        assertEquals(0, converted.periapsis[2], 0.0);
+        assertEquals(0, converted.rightAscension[3], 0.0);
+        assertEquals(0, converted.periapsis[4], 0.0);
+        assertEquals(1.0, converted.rightAscension[4], 1e-12);
+        assertEquals(1.0, converted.eccentricity[6], 0.0);
+        assertEquals(14000e3, converted.semiMajorAxis[6], 1e-3);
+    }
+
+    @Test
+    public void testStatesToOrbitsAtDifferentTimes() {
+        Orbit orbit = new Orbit(26600e3, 0.74, 1.1, 0.2, 4.7, 3.0);
+        double massEarth = 5.972580e24;
+        double[] times = {0, 1000, 2000};
+        double[] positions = new double[9];
+        double[] velocities = new double[9];
+        OrbitPropagator propagator = new OrbitPropagator(orbit, 0, massEarth, 0);
+        propagator.ephemeris(times, positions, velocities);
+
+        OrbitBatch converted = new OrbitBatch(3);
+        Position.statesToOrbits(positions, velocities, times, massEarth, 0, converted);
+        for (int k = 0; k < 3; k++) {
+            assertEquals(times[k], converted.epoch[k], 0.0);
+            assertEquals(orbit.getSemiMajorAxis(), converted.semiMajorAxis[k], 1e-4);
+            assertEquals(0, Math.IEEEremainder(orbit.getPeriapsis() - converted.periapsis[k], 2 * Math.PI), 1e-9);
+            assertEquals(0, Math.IEEEremainder(3.0 + propagator.getMeanMotion() * times[k]
+                    - converted.meanAnomalyAt0[k], 2 * Math.PI), 1e-9);
+        }
+    }
+
+    @Test
+    public void testStateToOrbitOfHyperbolicOrbit() {
+        double massEarth = 5.972580e24;
+        Orbit orbit = new Orbit(20000e3, 1.4, 0.3, 1.1, 2.5, -2.0);
+        State state = Position.orbitToState(orbit, 3600, 0.0, massEarth, 0);
+
+        Orbit converted = Position.stateToOrbit(state, 3600, massEarth, 0);
+        double n = Math.sqrt(Constants.G * massEarth / Math.pow(20000e3, 3));
+        assertEquals(20000e3, converted.getSemiMajorAxis(), 1e-3);
+        assertEquals(1.4, converted.getEccentricity(), 1e-12);
+        assertEquals(2.5, converted.getPeriapsis(), 1e-12);
+        assertEquals(2.0 / n, converted.getMeanAnomalyAt0(), 1e-6);
+    }
+
+    @Test
+    public void testStateToOrbitOfParabolicOrbit() {
+        double massEarth = 5.972580e24;
+        Orbit orbit = new Orbit(14000e3, 1.0, 0.3, 1.1, 2.5, 0.0);
+        State state = Position.orbitToState(orbit, 1800, 0.0, massEarth, 0);
+
+        Orbit converted = Position.stateToOrbit(state, 1800, massEarth, 0);
+        assertEquals(14000e3, converted.getSemiMajorAxis(), 1e-3);
+        assertEquals(1.0, converted.getEccentricity(), 0.0);
+        assertEquals(0.0, converted.getMeanAnomalyAt0(), 1e-6);
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double[] cross(State state) {
+        return new double[]{
+                state.getY() * state.getVz() - state.getZ() * state.getVy(),
+                state.getZ() * state.getVx() - state.getX() * state.getVz(),
+                state.getX() * state.getVy() - state.getY() * state.getVx()
+        };
+    }
 }
@@ -0,0 +1,71 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class PropagationEngineTest {
+
+    @Test
+    public void testPropagateMatchesSequentialPropagation() {
+        OrbitBatch batch = Catalogues.catalogue(1000, 7);
+        double[] expectedPositions = new double[3000];
+        double[] expectedVelocities = new double[3000];
+        Position.orbitsToStates(batch, 3600, Constants.MASS_EARTH, 0, expectedPositions, expectedVelocities);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            double[] positions = new double[3000];
+            double[] velocities = new double[3000];
+            new PropagationEngine(pool, 37).propagate(batch, 3600, Constants.MASS_EARTH, 0, positions, velocities);
+
+            assertArrayEquals(expectedPositions, positions, 0.0);
+            assertArrayEquals(expectedVelocities, velocities, 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPropagateOverTimeGrid() {
+        OrbitBatch batch = Catalogues.catalogue(100, 7);
+        double[] times = {0, 60, 120, 86400};
+        double[] positions = new double[3 * times.length * batch.size()];
+        double[] velocities = new double[3 * times.length * batch.size()];
+        new PropagationEngine().propagate(batch, times, Constants.MASS_EARTH, 0, positions, velocities);
+
+        double[] expectedPositions = new double[3 * batch.size()];
+        double[] expectedVelocities = new double[3 * batch.size()];
+        for (int j = 0; j < times.length; j++) {
+            Position.orbitsToStates(batch, times[j], Constants.MASS_EARTH, 0, expectedPositions, expectedVelocities);
+            int offset = 3 * j * batch.size();
+            assertArrayEquals(expectedPositions, Arrays.copyOfRange(positions, offset, offset + 3 * batch.size()), 0.0);
+            assertArrayEquals(expectedVelocities, Arrays.copyOfRange(velocities, offset, offset + 3 * batch.size()), 0.0);
+        }
+    }
+
+    @Test
+    public void testPropagateWithLanesMatchesLanePropagator() {
+        OrbitBatch batch = Catalogues.catalogue(1000, 7);
+        double[] expectedPositions = new double[3000];
+        double[] expectedVelocities = new double[3000];
+        LanePropagator.orbitsToStates(batch, 3600, Constants.MASS_EARTH, 0, expectedPositions, expectedVelocities);
+
+        double[] positions = new double[3000];
+        double[] velocities = new double[3000];
+        new PropagationEngine(ForkJoinPool.commonPool(), 64, true)
+                .propagate(batch, 3600, Constants.MASS_EARTH, 0, positions, velocities);
+
+        assertArrayEquals(expectedPositions, positions, 0.0);
+        assertArrayEquals(expectedVelocities, velocities, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooSmallOutputIsRejected() {
+        new PropagationEngine().propagate(Catalogues.catalogue(10, 7), new double[]{0, 1}, Constants.MASS_EARTH, 0,
+                new double[30], new double[30]);
+    }
+}
@@ -0,0 +1,87 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SecularJ2PropagatorTest {
+
+    private static final Orbit LEO = new Orbit(6778e3, 0.001, 51.6 * Math.PI / 180, 0.3, 1.2, 0.5);
+
+    private static double distance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Test
+    public void testWithoutJ2MatchesKepler() {
+        SecularJ2Propagator propagator = new SecularJ2Propagator(LEO, 100, Constants.MASS_EARTH, 0,
+                Constants.RADIUS_EARTH, 0, 0);
+        OrbitPropagator kepler = new OrbitPropagator(LEO, 100, Constants.MASS_EARTH, 0);
+        for (double t = 0; t < 86400; t += 3000) {
+            State expected = kepler.stateAt(t);
+            State state = propagator.stateAt(t);
+            assertEquals(0, distance(expected.getPosition(), state.getPosition()), 1e-6);
+            assertEquals(0, distance(expected.getVelocity(), state.getVelocity()), 1e-9);
+        }
+    }
+
+    @Test
+    public void testRatesOfSunSynchronousOrbit() {
+        // sun-synchronous: the node advances by 360 degrees per year
+        Orbit orbit = new Orbit(7078e3, 0.0, 98.19 * Math.PI / 180, 0, 0, 0);
+        SecularJ2Propagator propagator = new SecularJ2Propagator(orbit, 0, Constants.MASS_EARTH, 0);
+        assertEquals(2 * Math.PI / (365.2422 * 86400), propagator.getNodalRate(), 1e-9);
+
+        // the apsidal rate vanishes at the critical inclination
+        Orbit molniya = new Orbit(26600e3, 0.74, Math.acos(Math.sqrt(0.2)), 0, 0, 0);
+        assertEquals(0, new SecularJ2Propagator(molniya, 0, Constants.MASS_EARTH, 0).getApsidalRate(), 1e-20);
+    }
+
+    @Test
+    public void testCloserToNumericalJ2ThanKepler() {
+        NumericalPropagator numerical = new NumericalPropagator(new DormandPrince(1e-12, 1e-6, 1e-9),
+                new CentralGravity(Constants.MASS_EARTH, 0),
+                new ZonalHarmonics(Constants.MASS_EARTH, Constants.RADIUS_EARTH, Constants.J2_EARTH, 0));
+        SecularJ2Propagator secular = SecularJ2Propagator.fromOsculating(LEO, 0, Constants.MASS_EARTH, 0);
+        OrbitPropagator kepler = new OrbitPropagator(LEO, 0, Constants.MASS_EARTH, 0);
+
+        State start = kepler.stateAt(0);
+        double[] state = {
+                start.getX(), start.getY(), start.getZ(),
+                start.getVx(), start.getVy(), start.getVz()
+        };
+        numerical.propagate(state, 0, 3 * 86400);
+
+        double secularError = distance(state, secular.stateAt(3 * 86400).getPosition());
+        double keplerError = distance(state, kepler.stateAt(3 * 86400).getPosition());
+        assertTrue(keplerError > 1000e3);
+        assertTrue(secularError < 20e3);
+    }
+
+    @Test
+    public void testAngleToleranceBoundsError() {
+        double tolerance = 1e-6;
+        SecularJ2Propagator exact = new SecularJ2Propagator(LEO, 0, Constants.MASS_EARTH, 0);
+        SecularJ2Propagator cached = new SecularJ2Propagator(LEO, 0, Constants.MASS_EARTH, 0,
+                Constants.RADIUS_EARTH, Constants.J2_EARTH, tolerance);
+        for (double t = 0; t < 7200; t += 1) {
+            double error = distance(exact.stateAt(t).getPosition(), cached.stateAt(t).getPosition());
+            assertTrue(error <= 2 * tolerance * LEO.getSemiMajorAxis() * 1.01);
+        }
+    }
+
+    @Test
+    public void testOrbitAtDriftsAngles() {
+        SecularJ2Propagator propagator = new SecularJ2Propagator(LEO, 0, Constants.MASS_EARTH, 0);
+        Orbit drifted = propagator.orbitAt(86400);
+        assertEquals(LEO.getRightAscension() + propagator.getNodalRate() * 86400, drifted.getRightAscension(), 0.0);
+        assertEquals(LEO.getPeriapsis() + propagator.getApsidalRate() * 86400, drifted.getPeriapsis(), 0.0);
+
+        State expected = Position.orbitToState(drifted, 86400, 86400, Constants.MASS_EARTH, 0);
+        assertEquals(0, distance(expected.getPosition(), propagator.stateAt(86400).getPosition()), 1e-5);
+    }
+}
@@ -0,0 +1,243 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StateCacheTest {
+
+    private static OrbitPropagator propagator(int k) {
+        return new OrbitPropagator(new Orbit(6778e3 + 1000e3 * k, 0.01, 0.9, 0.3 * k, 1.2, 0.5), 0,
+                Constants.MASS_EARTH, 0);
+    }
+
+    /**
+     * Counts the evaluations of a trajectory.
+     */
+    private static final class CountingTrajectory implements Trajectory {
+        private final Trajectory trajectory;
+        private final AtomicInteger evaluations = new AtomicInteger();
+
+        CountingTrajectory(Trajectory trajectory) {
+            this.trajectory = trajectory;
+        }
+
+        @Override
+        public void stateAt(double time, double[] position, double[] velocity, int offset) {
+            evaluations.incrementAndGet();
+            trajectory.stateAt(time, position, velocity, offset);
+        }
+    }
+
+    @Test
+    public void testNearbyTimesShareQuantisedState() {
+        StateCache cache = new StateCache(100, 10);
+        CountingTrajectory trajectory = new CountingTrajectory(propagator(0));
+        double[] position = new double[6];
+        double[] velocity = new double[6];
+        cache.stateAt(7, trajectory, 1003.2, position, velocity, 0);
+        cache.stateAt(7, trajectory, 996.0, position, velocity, 3);
+
+        double[] expectedPosition = new double[3];
+        double[] expectedVelocity = new double[3];
+        propagator(0).stateAt(1000, expectedPosition, expectedVelocity, 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expectedPosition[i], position[i], 0);
+            assertEquals(expectedPosition[i], position[3 + i], 0);
+            assertEquals(expectedVelocity[i], velocity[i], 0);
+            assertEquals(expectedVelocity[i], velocity[3 + i], 0);
+        }
+        assertEquals(1, trajectory.evaluations.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1000, cache.quantise(1004.9), 0);
+    }
+
+    @Test
+    public void testDifferentObjectsDoNotCollide() {
+        StateCache cache = new StateCache(100, 1);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        double[] expectedPosition = new double[3];
+        double[] expectedVelocity = new double[3];
+        for (int k = 0; k < 5; k++) {
+            cache.stateAt(k, propagator(k), 60, position, velocity, 0);
+        }
+        for (int k = 0; k < 5; k++) {
+            cache.stateAt(k, propagator(k), 60, position, velocity, 0);
+            propagator(k).stateAt(60, expectedPosition, expectedVelocity, 0);
+            assertArrayEquals(expectedPosition, position, 0);
+            assertArrayEquals(expectedVelocity, velocity, 0);
+        }
+        assertEquals(5, cache.getHits());
+        assertEquals(5, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        StateCache cache = new StateCache(3, 1, 1);
+        CountingTrajectory trajectory = new CountingTrajectory(propagator(0));
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        cache.stateAt(1, trajectory, 0, position, velocity, 0);
+        cache.stateAt(1, trajectory, 1, position, velocity, 0);
+        cache.stateAt(1, trajectory, 2, position, velocity, 0);
+        cache.stateAt(1, trajectory, 0, position, velocity, 0);     // 0 is now the most recently used
+        cache.stateAt(1, trajectory, 3, position, velocity, 0);     // evicts 1
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.size());
+
+        int evaluations = trajectory.evaluations.get();
+        cache.stateAt(1, trajectory, 0, position, velocity, 0);
+        cache.stateAt(1, trajectory, 2, position, velocity, 0);
+        cache.stateAt(1, trajectory, 3, position, velocity, 0);
+        assertEquals(evaluations, trajectory.evaluations.get());
+        cache.stateAt(1, trajectory, 1, position, velocity, 0);
+        assertEquals(evaluations + 1, trajectory.evaluations.get());
+    }
+
+    @Test
+    public void testInvalidateRemovesAllStatesOfObject() {
+        StateCache cache = new StateCache(64, 1, 4);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        for (int t = 0; t < 10; t++) {
+            cache.stateAt(1, propagator(1), t, position, velocity, 0);
+            cache.stateAt(2, propagator(2), t, position, velocity, 0);
+        }
+        cache.invalidate(1);
+        assertEquals(10, cache.size());
+
+        CountingTrajectory trajectory = new CountingTrajectory(propagator(2));
+        for (int t = 0; t < 10; t++) {
+            cache.stateAt(2, trajectory, t, position, velocity, 0);
+        }
+        assertEquals(0, trajectory.evaluations.get());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictionKeepsTableConsistent() {
+        // many evictions and removals with a small table exercise the backward shift of the probe sequences
+        StateCache cache = new StateCache(17, 1, 1);
+        OrbitPropagator trajectory = propagator(0);
+        double[] position = new double[3];
+        double[] velocity = new double[3];
+        double[] expectedPosition = new double[3];
+        double[] expectedVelocity = new double[3];
+        java.util.Random random = new java.util.Random(3);
+        for (int n = 0; n < 20000; n++) {
+            int id = random.nextInt(5);
+            int t = random.nextInt(8);
+            if (random.nextInt(100) == 0) {
+                cache.invalidate(id);
+            }
+            cache.stateAt(id, trajectory, t + 100 * id, position, velocity, 0);
+            trajectory.stateAt(t + 100 * id, expectedPosition, expectedVelocity, 0);
+            assertArrayEquals(expectedPosition, position, 0);
+            assertTrue(cache.size() <= 17);
+        }
+        assertEquals(20000, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        final StateCache cache = new StateCache(256, 1);
+        final OrbitPropagator[] propagators = new OrbitPropagator[20];
+        for (int k = 0; k < propagators.length; k++) {
+            propagators[k] = propagator(k % 4);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int seed = thread;
+                results.add(executor.submit(() -> {
+                    java.util.Random random = new java.util.Random(seed);
+                    double[] position = new double[3];
+                    double[] velocity = new double[3];
+                    double[] expectedPosition = new double[3];
+                    double[] expectedVelocity = new double[3];
+                    for (int n = 0; n < 20000; n++) {
+                        int k = random.nextInt(propagators.length);
+                        int t = random.nextInt(30);
+                        cache.stateAt(k, propagators[k], t, position, velocity, 0);
+                        propagators[k].stateAt(t, expectedPosition, expectedVelocity, 0);
+                        for (int i = 0; i < 3; i++) {
+                            if (position[i] != expectedPosition[i] || velocity[i] != expectedVelocity[i]) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(80000, cache.getHits() + cache.getMisses());
+        assertTrue(cache.size() <= cache.capacity());
+    }
+
+    @Test
+    public void testConcurrentQueriesOfStatefulTrajectories() throws Exception {
+        // few entries and many times, so that threads keep missing on the same propagators
+        final StateCache cache = new StateCache(16, 1);
+        final int times = 500;
+        final SecularJ2Propagator[] propagators = new SecularJ2Propagator[4];
+        final double[][] expected = new double[propagators.length][6 * times];
+        for (int k = 0; k < propagators.length; k++) {
+            Orbit orbit = new Orbit(6778e3 + 1000e3 * k, 0.01, 0.9, 0.3 * k, 1.2, 0.5);
+            propagators[k] = new SecularJ2Propagator(orbit, 0, Constants.MASS_EARTH, 0);
+            SecularJ2Propagator reference = new SecularJ2Propagator(orbit, 0, Constants.MASS_EARTH, 0);
+            double[] position = new double[3];
+            double[] velocity = new double[3];
+            for (int t = 0; t < times; t++) {
+                reference.stateAt(60 * t, position, velocity, 0);
+                System.arraycopy(position, 0, expected[k], 6 * t, 3);
+                System.arraycopy(velocity, 0, expected[k], 6 * t + 3, 3);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int seed = thread;
+                results.add(executor.submit(() -> {
+                    java.util.Random random = new java.util.Random(seed);
+                    double[] position = new double[3];
+                    double[] velocity = new double[3];
+                    for (int n = 0; n < 20000; n++) {
+                        int k = random.nextInt(propagators.length);
+                        int t = random.nextInt(times);
+                        cache.stateAt(k, propagators[k], 60 * t, position, velocity, 0);
+                        for (int i = 0; i < 3; i++) {
+                            if (position[i] != expected[k][6 * t + i] || velocity[i] != expected[k][6 * t + 3 + i]) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -19,4 +19,67 @@ public class TransformationTest {
         assertEquals(result.get(1), 414.7774, 1e-4);
         assertEquals(result.get(2), 82.5825, 1e-4);
     }
+
+    @Test
+    public void testGreenwichMeanSiderealTime() {
+        // Vallado, example 3-5: 1992 August 20, 12:14 UT1
+        double julianDate = 2448854.5 + (12 + 14 / 60.0) / 24;
+        assertEquals(152.578787810, Math.toDegrees(Transformation.greenwichMeanSiderealTime(julianDate)), 1e-6);
+        assertEquals(280.46061837, Math.toDegrees(Transformation.greenwichMeanSiderealTime(2451545.0)), 1e-8);
+    }
+
+    @Test
+    public void testCorotatingPointIsAtRestInEarthFixedFrame() {
+        double gmst = 1.3;
+        double[] earthFixed = {4000e3, -3000e3, 3500e3};
+        Mat3 rotation = Transformation.inertialToEarthFixed(gmst, new Mat3());
+        Vec3 inertial = rotation.transposeMultiply(new Vec3(earthFixed[0], earthFixed[1], earthFixed[2]), new Vec3());
+
+        double[] position = {inertial.x, inertial.y, inertial.z};
+        double[] velocity = {-Constants.ROTATION_EARTH * inertial.y, Constants.ROTATION_EARTH * inertial.x, 0};
+        Transformation.inertialToEarthFixed(gmst, position, velocity, 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(earthFixed[i], position[i], 1e-8);
+            assertEquals(0, velocity[i], 1e-10);
+        }
+    }
+
+    @Test
+    public void testEarthFixedPositionIsContinuousAtQuarterTurns() {
+        double radius = 7000e3;
+        double step = 2e-8;
+        for (int quarter = 0; quarter < 4; quarter++) {
+            double[] previous = null;
+            for (int k = -10; k <= 10; k++) {
+                double gmst = quarter * Math.PI / 2 + k * step;
+                double[] position = {radius, 0, 0};
+                Transformation.inertialToEarthFixed(gmst, position, new double[3], 0);
+                if (previous != null) {
+                    double dx = position[0] - previous[0];
+                    double dy = position[1] - previous[1];
+                    assertEquals(radius * step, Math.sqrt(dx * dx + dy * dy), 1e-6);
+                }
+                previous = position;
+            }
+        }
+    }
+
+    @Test
+    public void testGeodeticRoundTrip() {
+        double[] position = new double[3];
+        double[] geodetic = new double[3];
+        double[][] points = {{0, 0, 0}, {0.8, -2.1, 400e3}, {-1.5, 3.0, 35786e3}, {Math.PI / 2, 0, 100}};
+        for (double[] point : points) {
+            Transformation.geodeticToEarthFixed(point[0], point[1], point[2], position, 0);
+            Transformation.earthFixedToGeodetic(position, 0, geodetic, 0);
+            assertEquals(point[0], geodetic[0], 1e-12);
+            assertEquals(point[2], geodetic[2], 1e-6);
+            if (Math.abs(point[0]) < Math.PI / 2) {
+                assertEquals(point[1], geodetic[1], 1e-12);
+            }
+        }
+        // polar radius of WGS84
+        Transformation.geodeticToEarthFixed(Math.PI / 2, 0, 0, position, 0);
+        assertEquals(6356752.314, position[2], 1e-3);
+    }
 }
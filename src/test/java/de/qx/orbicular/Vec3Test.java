@@ -0,0 +1,43 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Vec3Test {
+
+    @Test
+    public void testCrossProduct() {
+        Vec3 a = new Vec3(1, 2, 3);
+        Vec3 b = new Vec3(-2, 0.5, 4);
+
+        Vec3 result = new Vec3().cross(a, b);
+        assertEquals(6.5, result.x, 0.0);
+        assertEquals(-10, result.y, 0.0);
+        assertEquals(4.5, result.z, 0.0);
+
+        a.cross(a, b);
+        assertEquals(6.5, a.x, 0.0);
+        assertEquals(-10, a.y, 0.0);
+        assertEquals(4.5, a.z, 0.0);
+    }
+
+    @Test
+    public void testDotProductAndNorm() {
+        Vec3 a = new Vec3(1, 2, 2);
+
+        assertEquals(3, a.norm(), 0.0);
+        assertEquals(9, a.dot(a), 0.0);
+        assertEquals(-1, a.dot(new Vec3(1, -1, 0)), 0.0);
+    }
+
+    @Test
+    public void testArrayAccess() {
+        double[] array = {9, 1, 2, 3, 9};
+        Vec3 v = new Vec3().set(array, 1).scale(2).add(new Vec3(1, 1, 1)).subtract(new Vec3(0, 0, 7));
+        v.get(array, 2);
+
+        assertArrayEquals(new double[]{9, 1, 3, 5, 0}, array, 0.0);
+    }
+}
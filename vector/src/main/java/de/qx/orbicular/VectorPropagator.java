@@ -0,0 +1,173 @@
+package de.qx.orbicular;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD backend of {@link LanePropagator} on the incubating Vector API, propagating as many orbits at once as the
+ * preferred double vector of the CPU holds, e.g. 4 with AVX2 and 8 with AVX-512. The algorithm is the one of
+ * {@link LanePropagator#FALLBACK}: Kepler's equation is solved with Danby's correction, lanes that converged are
+ * masked out, and the state is built from the eccentric anomaly. Lanes of parabolic and hyperbolic orbits, and of
+ * mean anomalies too large to reduce exactly, are delegated to the scalar kernel. Kepler solves are counted by
+ * {@link Metrics} when enabled.
+ * <p>
+ * The class is found and selected by {@link LanePropagator#backend()} when it is on the class path and the JVM
+ * resolves the incubator module with {@code --add-modules jdk.incubator.vector}. It belongs to the package of the
+ * library and needs to be loaded by the same class loader.
+ */
+public final class VectorPropagator implements BatchPropagator {
+    private final static VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Adding and subtracting 1.5 * 2^52 rounds doubles below 2^51 to the nearest integer, like Math.rint
+     */
+    private final static double ROUNDING = 0x1.8p52;
+
+    public VectorPropagator() {
+    }
+
+    /**
+     * @return the number of orbits propagated at once
+     */
+    public static int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void orbitsToStates(OrbitBatch orbits, int from, int to, double time, double GM,
+                               double[] positions, double[] velocities, int offset) {
+        int lanes = SPECIES.length();
+        // interleaved x, y, z of each lane, relative to the x component of the first lane
+        int[] interleave = new int[lanes];
+        for (int l = 0; l < lanes; l++) {
+            interleave[l] = 3 * l;
+        }
+        double[] eccentricities = orbits.eccentricity;
+
+        for (int block = from; block < to; block += lanes) {
+            VectorMask<Double> inRange = SPECIES.indexInRange(block, to);
+            DoubleVector e = DoubleVector.fromArray(SPECIES, eccentricities, block, inRange);
+            DoubleVector a = DoubleVector.fromArray(SPECIES, orbits.semiMajorAxis, block, inRange);
+            DoubleVector M0 = DoubleVector.fromArray(SPECIES, orbits.meanAnomalyAt0, block, inRange);
+            DoubleVector epoch = DoubleVector.fromArray(SPECIES, orbits.epoch, block, inRange);
+
+            // mean anomaly reduced to [-PI, PI]
+            DoubleVector n = DoubleVector.broadcast(SPECIES, GM).div(a.mul(a).mul(a)).sqrt();
+            DoubleVector meanAnomaly = M0.add(n.mul(epoch.neg().add(time)));
+            DoubleVector revolutions = meanAnomaly.div(2 * Math.PI);
+            VectorMask<Double> vector = inRange.and(e.lt(1))
+                    .and(revolutions.abs().lt(0x1p51));
+            revolutions = revolutions.add(ROUNDING).sub(ROUNDING);
+            DoubleVector M = meanAnomaly.sub(revolutions.mul(2 * Math.PI));
+
+            // lanes the SIMD path does not handle, 0 for lanes outside the range
+            VectorMask<Double> scalar = inRange.andNot(vector);
+            if (scalar.anyTrue()) {
+                for (int l = 0; l < lanes; l++) {
+                    if (scalar.laneIsSet(l)) {
+                        int k = block + l;
+                        Position.orbitToState(orbits.semiMajorAxis[k], eccentricities[k], orbits.inclination[k],
+                                orbits.rightAscension[k], orbits.periapsis[k], orbits.meanAnomalyAt0[k], time,
+                                orbits.epoch[k], GM, positions, velocities, offset + 3 * k);
+                    }
+                }
+            }
+            if (!vector.anyTrue()) {
+                continue;
+            }
+            // neutral elements in the lanes that are not propagated here, avoids NaN and infinite values
+            e = e.blend(0.5, vector.not());
+            a = a.blend(1, vector.not());
+            M = M.blend(0, vector.not());
+
+            DoubleVector E = startingValue(e, M);
+
+            // lane-wise Danby iteration, converged lanes are masked out
+            VectorMask<Double> active = vector;
+            DoubleVector previous = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+            DoubleVector iterations = DoubleVector.zero(SPECIES);
+            for (int i = 0; i < Kepler.MAX_ITERATIONS && active.anyTrue(); i++) {
+                DoubleVector eSinE = e.mul(E.lanewise(VectorOperators.SIN));
+                DoubleVector eCosE = e.mul(E.lanewise(VectorOperators.COS));
+                DoubleVector f = E.sub(eSinE).sub(M);
+                DoubleVector f1 = eCosE.neg().add(1);
+                DoubleVector d1 = f.neg().div(f1);
+                DoubleVector d2 = f.neg().div(f1.add(d1.mul(eSinE).mul(0.5)));
+                DoubleVector d = f.neg().div(f1.add(d2.mul(eSinE).mul(0.5)).add(d2.mul(d2).mul(eCosE).div(6)));
+                DoubleVector size = d.abs();
+                active = active.andNot(size.compare(VectorOperators.GE, previous));
+                E = E.add(d, active);
+                if (Metrics.ENABLED) {
+                    iterations = iterations.add(1, active);
+                }
+                previous = previous.blend(size, active);
+                DoubleVector tolerance = E.abs().max(1).mul(Kepler.TOLERANCE);
+                active = active.and(size.compare(VectorOperators.GT, tolerance));
+            }
+            if (Metrics.ENABLED) {
+                // lanes still active hit the iteration limit
+                for (int l = 0; l < lanes; l++) {
+                    if (vector.laneIsSet(l)) {
+                        Metrics.keplerSolved(e.lane(l), (int) iterations.lane(l), !active.laneIsSet(l));
+                    }
+                }
+            }
+
+            // perifocal state
+            DoubleVector cosE = E.lanewise(VectorOperators.COS);
+            DoubleVector sinE = E.lanewise(VectorOperators.SIN);
+            DoubleVector semiMinorRatio = e.neg().add(1).mul(e.add(1)).sqrt();
+            DoubleVector x = a.mul(cosE.sub(e));
+            DoubleVector y = a.mul(semiMinorRatio).mul(sinE);
+            DoubleVector vFactor = a.mul(GM).sqrt().div(a.mul(e.mul(cosE).neg().add(1)));
+            DoubleVector vx = vFactor.mul(sinE).neg();
+            DoubleVector vy = vFactor.mul(semiMinorRatio).mul(cosE);
+
+            // first two columns of the rotation to the inertial frame
+            DoubleVector Ω = DoubleVector.fromArray(SPECIES, orbits.rightAscension, block, inRange);
+            DoubleVector ω = DoubleVector.fromArray(SPECIES, orbits.periapsis, block, inRange);
+            DoubleVector inclination = DoubleVector.fromArray(SPECIES, orbits.inclination, block, inRange);
+            DoubleVector cosΩ = Ω.lanewise(VectorOperators.COS);
+            DoubleVector sinΩ = Ω.lanewise(VectorOperators.SIN);
+            DoubleVector cosω = ω.lanewise(VectorOperators.COS);
+            DoubleVector sinω = ω.lanewise(VectorOperators.SIN);
+            DoubleVector cosI = inclination.lanewise(VectorOperators.COS);
+            DoubleVector sinI = inclination.lanewise(VectorOperators.SIN);
+            DoubleVector m00 = cosΩ.mul(cosω).sub(sinΩ.mul(sinω).mul(cosI));
+            DoubleVector m01 = cosΩ.mul(sinω).neg().sub(sinΩ.mul(cosω).mul(cosI));
+            DoubleVector m10 = sinΩ.mul(cosω).add(cosΩ.mul(sinω).mul(cosI));
+            DoubleVector m11 = sinΩ.mul(sinω).neg().add(cosΩ.mul(cosω).mul(cosI));
+            DoubleVector m20 = sinω.mul(sinI);
+            DoubleVector m21 = cosω.mul(sinI);
+
+            int base = offset + 3 * block;
+            m00.mul(x).add(m01.mul(y)).intoArray(positions, base, interleave, 0, vector);
+            m10.mul(x).add(m11.mul(y)).intoArray(positions, base + 1, interleave, 0, vector);
+            m20.mul(x).add(m21.mul(y)).intoArray(positions, base + 2, interleave, 0, vector);
+            m00.mul(vx).add(m01.mul(vy)).intoArray(velocities, base, interleave, 0, vector);
+            m10.mul(vx).add(m11.mul(vy)).intoArray(velocities, base + 1, interleave, 0, vector);
+            m20.mul(vx).add(m21.mul(vy)).intoArray(velocities, base + 2, interleave, 0, vector);
+        }
+    }
+
+    /**
+     * Lane-wise {@link Kepler#startingValue(double, double)}: the root of the cubic expansion for small mean
+     * anomalies of eccentric orbits, Danby's starting value otherwise.
+     */
+    private static DoubleVector startingValue(DoubleVector e, DoubleVector M) {
+        DoubleVector absM = M.abs();
+        VectorMask<Double> cubic = e.compare(VectorOperators.GT, 0.1).and(absM.lt(1));
+        DoubleVector sign = DoubleVector.broadcast(SPECIES, 1).blend(-1, M.lt(0));
+        DoubleVector danby = M.add(e.mul(0.85).mul(sign).blend(0, M.eq(0)));
+        if (!cubic.anyTrue()) {
+            return danby;
+        }
+        DoubleVector p = e.neg().add(1).mul(6).div(e);
+        DoubleVector q = absM.mul(3).div(e);
+        DoubleVector A = q.add(q.mul(q).add(p.mul(p).mul(p).div(27)).sqrt()).lanewise(VectorOperators.CBRT);
+        DoubleVector root = A.sub(p.div(A.mul(3))).mul(sign);
+        return danby.blend(root, cubic);
+    }
+}
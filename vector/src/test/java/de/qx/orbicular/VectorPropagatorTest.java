@@ -0,0 +1,72 @@
+package de.qx.orbicular;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class VectorPropagatorTest {
+
+    @Test
+    public void testBackendIsSelected() {
+        assertSame(VectorPropagator.class, LanePropagator.backend().getClass());
+    }
+
+    @Test
+    public void testOrbitsToStatesMatchesScalarReference() {
+        Random random = new Random(3);
+        // not a multiple of the lane count, with all eccentricity regimes mixed into the blocks
+        OrbitBatch batch = new OrbitBatch(8 * VectorPropagator.lanes() + 5);
+        for (int k = 0; k < batch.size(); k++) {
+            double e;
+            switch (k % 5) {
+                case 0:
+                    e = 0;
+                    break;
+                case 1:
+                    e = 0.999 + 0.000999 * random.nextDouble();
+                    break;
+                case 2:
+                    e = 1.0 + random.nextDouble();
+                    break;
+                default:
+                    e = random.nextDouble();
+            }
+            batch.set(k, new Orbit(6700e3 + random.nextDouble() * 40000e3, e, random.nextDouble() * Math.PI,
+                    random.nextDouble() * 2 * Math.PI, random.nextDouble() * 2 * Math.PI,
+                    random.nextDouble() * 2 * Math.PI), random.nextDouble() * 1000);
+        }
+        double GM = Constants.G * Constants.MASS_EARTH;
+
+        for (double time = 0; time < 86400; time += 3599) {
+            // a range starting inside a block and an offset into the output
+            int from = 3;
+            int offset = 6;
+            double[] positions = new double[offset + 3 * batch.size()];
+            double[] velocities = new double[offset + 3 * batch.size()];
+            new VectorPropagator().orbitsToStates(batch, from, batch.size(), time, GM, positions, velocities,
+                    offset);
+
+            for (int k = 0; k < batch.size(); k++) {
+                int j = offset + 3 * k;
+                if (k < from) {
+                    assertEquals(0, positions[j], 0);
+                    continue;
+                }
+                State expected = Position.orbitToState(batch.getOrbit(k), time, batch.epoch[k], Constants.MASS_EARTH, 0);
+                double r = Math.sqrt(dot(expected.getPosition()));
+                double v = Math.sqrt(dot(expected.getVelocity()));
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(expected.getPosition()[i], positions[j + i], 1e-9 * r);
+                    assertEquals(expected.getVelocity()[i], velocities[j + i], 1e-9 * v);
+                }
+            }
+        }
+    }
+
+    private static double dot(double[] a) {
+        return a[0] * a[0] + a[1] * a[1] + a[2] * a[2];
+    }
+}